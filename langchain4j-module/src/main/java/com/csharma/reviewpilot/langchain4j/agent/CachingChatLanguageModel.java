@@ -0,0 +1,90 @@
+package com.csharma.reviewpilot.langchain4j.agent;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chat model decorator that answers repeated prompts from a {@link ResponseCache}. The key is a hash of
+ * the model name, temperature and every message (system and user) in order. Cached answers report zero
+ * token usage since they cost nothing.
+ */
+public class CachingChatLanguageModel implements ChatLanguageModel {
+    private static final Logger logger = LoggerFactory.getLogger(CachingChatLanguageModel.class);
+
+    private final ChatLanguageModel delegate;
+    private final ResponseCache cache;
+    private final String modelName;
+    private final Double temperature;
+
+    public CachingChatLanguageModel(ChatLanguageModel delegate, ResponseCache cache, String modelName, Double temperature) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.modelName = modelName;
+        this.temperature = temperature;
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        Response<AiMessage> cached = lookup(messages);
+        if (cached != null) {
+            return cached;
+        }
+        Response<AiMessage> response = delegate.generate(messages);
+        store(messages, response);
+        return response;
+    }
+
+    /**
+     * The cached answer to these messages, or {@code null} on a miss. Lets callers that generate the
+     * answer another way, e.g. by streaming, share the cache.
+     */
+    public Response<AiMessage> lookup(List<ChatMessage> messages) {
+        String cached = cache.get(keyFor(messages));
+        if (cached == null) {
+            return null;
+        }
+        logger.debug("Served prompt from response cache ({})", cache.stats());
+        return Response.from(AiMessage.from(cached), new TokenUsage(0, 0));
+    }
+
+    public void store(List<ChatMessage> messages, Response<AiMessage> response) {
+        if (response.content() != null && response.content().text() != null) {
+            cache.put(keyFor(messages), response.content().text());
+        }
+    }
+
+    // Tool calls are not plain text answers, so they always go to the model
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return delegate.generate(messages, toolSpecifications);
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, ToolSpecification toolSpecification) {
+        return delegate.generate(messages, toolSpecification);
+    }
+
+    public ResponseCache.Stats stats() {
+        return cache.stats();
+    }
+
+    private String keyFor(List<ChatMessage> messages) {
+        List<String> parts = new ArrayList<>(2 + messages.size() * 2);
+        parts.add(String.valueOf(modelName));
+        parts.add(String.valueOf(temperature));
+        for (ChatMessage message : messages) {
+            parts.add(message.type().name());
+            parts.add(ChatMessages.text(message));
+        }
+        return ResponseCache.keyFor(parts.toArray(new String[0]));
+    }
+}
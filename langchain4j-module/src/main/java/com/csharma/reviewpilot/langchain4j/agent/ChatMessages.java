@@ -0,0 +1,38 @@
+package com.csharma.reviewpilot.langchain4j.agent;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.TextContent;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+
+/**
+ * Reads message text through each message type's own accessor instead of the deprecated
+ * {@link ChatMessage#text()}. {@link UserMessage#text()} is deprecated as well, and this version
+ * of LangChain4j has no {@code singleText()}, so a user message's text is read from its single
+ * {@link TextContent}.
+ */
+public final class ChatMessages {
+    private ChatMessages() {}
+
+    /**
+     * Text of {@code message}; a user message must consist of a single text part
+     */
+    public static String text(ChatMessage message) {
+        return switch (message) {
+            case UserMessage user -> singleText(user);
+            case AiMessage ai -> ai.text();
+            case SystemMessage system -> system.text();
+            case ToolExecutionResultMessage result -> result.text();
+            default -> throw new IllegalArgumentException("Unsupported message type " + message.type());
+        };
+    }
+
+    private static String singleText(UserMessage user) {
+        if (!user.hasSingleText()) {
+            throw new IllegalArgumentException("Expected a user message with a single text part, got " + user.contents().size() + " parts");
+        }
+        return ((TextContent) user.contents().get(0)).text();
+    }
+}
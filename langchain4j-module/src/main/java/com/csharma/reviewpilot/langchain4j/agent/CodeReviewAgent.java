@@ -6,7 +6,7 @@ import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
 /**
  * Interface for code review agents
  */
-public interface CodeReviewAgent {
+public interface CodeReviewAgent extends AutoCloseable {
     
     /**
      * Review a pull request and return the results
@@ -16,10 +16,55 @@ public interface CodeReviewAgent {
      */
     CodeReviewResult reviewPullRequest(PullRequestDetails prDetails);
     
+    /**
+     * Review a pull request, pushing the review text to {@code listener} as it is generated.
+     * Agents that cannot stream deliver the whole summary once the review is done.
+     * 
+     * @param prDetails pull request details
+     * @param listener receives the review text
+     * @return code review result
+     */
+    default CodeReviewResult reviewPullRequest(PullRequestDetails prDetails, ReviewListener listener) {
+        CodeReviewResult result = reviewPullRequest(prDetails);
+        if (result.getSummary() != null) {
+            listener.onToken(result.getSummary());
+        }
+        return result;
+    }
+    
+    /**
+     * Start a follow-up conversation about a finished review, replacing any earlier one under the
+     * same id. Agents without conversation memory ignore this.
+     * 
+     * @param memoryId identifies the pull request's conversation
+     * @param prDetails the reviewed pull request
+     * @param result the review
+     */
+    default void remember(String memoryId, PullRequestDetails prDetails, CodeReviewResult result) {
+    }
+    
+    /**
+     * Answer a follow-up question from the remembered review and conversation, without the diff
+     * 
+     * @param memoryId identifies the pull request's conversation
+     * @param question the question
+     * @return the answer
+     */
+    default String ask(String memoryId, String question) {
+        throw new UnsupportedOperationException(getAgentName() + " agent does not support follow-up questions");
+    }
+    
     /**
      * Get the agent name
      * 
      * @return agent name
      */
     String getAgentName();
+    
+    /**
+     * Release the threads and clients the agent holds. Agents that hold none do nothing.
+     */
+    @Override
+    default void close() {
+    }
 } 
\ No newline at end of file
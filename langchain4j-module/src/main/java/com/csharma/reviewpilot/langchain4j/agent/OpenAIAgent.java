@@ -2,104 +2,254 @@ package com.csharma.reviewpilot.langchain4j.agent;
 
 import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
 import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.memory.ReviewMemoryStore;
+import com.csharma.reviewpilot.langchain4j.memory.SummarizingChatMemory;
 import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import com.csharma.reviewpilot.langchain4j.prompt.PromptTemplate;
+import com.csharma.reviewpilot.langchain4j.resilience.ResilientChatLanguageModel;
+import com.csharma.reviewpilot.langchain4j.resilience.ResilientStreamingChatLanguageModel;
+import com.csharma.reviewpilot.langchain4j.retrieval.HashingEmbeddingModel;
+import com.csharma.reviewpilot.langchain4j.retrieval.RepositoryIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.UserMessage;
-// Memory functionality will be added later when dependencies are available
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.model.StreamingResponseHandler;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * OpenAI agent implementation using LangChain4j
  */
 public class OpenAIAgent implements CodeReviewAgent {
     private static final Logger logger = LoggerFactory.getLogger(OpenAIAgent.class);
+    private static final String STRUCTURED_SYSTEM_PROMPT = """
+            You are an expert code reviewer. Respond with a single JSON object and nothing else, matching this schema:
+            {
+              "summary": string,                      // overall assessment of the changes
+              "issues": [{"type": string, "severity": "low"|"medium"|"high", "file": string, "line": integer|null, "message": string}],
+              "suggestions": [string],
+              "securityConcerns": [string],           // SQL injection, XSS, authn/authz, input validation, data exposure, insecure dependencies
+              "performanceIssues": [string],          // algorithmic cost, queries, memory, network calls, caching, resource leaks
+              "codeQualityScore": number,             // 0-100
+              "confidenceScore": number               // 0-100, how sure you are of this review
+            }
+            Use empty arrays when there is nothing to report. Be specific and actionable.""";
+
+    private static final String TRUNCATION_NOTE = "\n[Diff truncated to fit the model's context window]\n";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     
     private final ReviewConfig config;
     private final ChatLanguageModel chatModel;
-    // private final ChatMemory chatMemory; // Will be enabled when memory dependency is available
+    // Null unless streaming is enabled; used for the summary call when a listener is given
+    private final StreamingChatLanguageModel streamingModel;
+    private final TokenBudget budget;
+    // Null unless vector search is enabled with a repository to search
+    private final RepositoryIndex repositoryIndex;
+    // Analyses block on HTTP calls, so each runs on its own virtual thread
+    private final ExecutorService analysisExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    // Null unless conversation memory is enabled
+    private final ChatMemoryStore memoryStore;
 
     public OpenAIAgent(ReviewConfig config) {
-        this.config = config;
-        
-        // Initialize OpenAI chat model
-        this.chatModel = OpenAiChatModel.builder()
+        this(config, withCache(config, ResilientChatLanguageModel.wrap(config, config.getModelName(), OpenAiChatModel.builder()
+                .baseUrl(config.getOpenAiBaseUrl())
                 .apiKey(System.getenv("OPENAI_API_KEY"))
                 .modelName(config.getModelName())
                 .temperature(config.getTemperature())
                 .maxTokens(config.getMaxTokens())
                 .timeout(Duration.ofSeconds(60))
-                .build();
-        
-        // Initialize chat memory if enabled
-        // if (config.getEnableMemory()) {
-        //     this.chatMemory = MessageWindowChatMemory.withMaxMessages(10);
-        // } else {
-        //     this.chatMemory = null;
-        // }
+                .maxRetries(builtInRetries(config))
+                .responseFormat(Boolean.TRUE.equals(config.getStructuredOutput()) ? "json_object" : null)
+                .build())),
+            Boolean.TRUE.equals(config.getStreaming()) ? ResilientStreamingChatLanguageModel.wrap(config, config.getModelName(), OpenAiStreamingChatModel.builder()
+                .baseUrl(config.getOpenAiBaseUrl())
+                .apiKey(System.getenv("OPENAI_API_KEY"))
+                .modelName(config.getModelName())
+                .temperature(config.getTemperature())
+                .maxTokens(config.getMaxTokens())
+                .timeout(Duration.ofSeconds(60))
+                .responseFormat(Boolean.TRUE.equals(config.getStructuredOutput()) ? "json_object" : null)
+                .build()) : null,
+            repositoryIndexFor(config),
+            memoryStoreFor(config));
+    }
+
+    public OpenAIAgent(ReviewConfig config, ChatLanguageModel chatModel) {
+        this(config, chatModel, null);
+    }
+
+    public OpenAIAgent(ReviewConfig config, ChatLanguageModel chatModel, StreamingChatLanguageModel streamingModel) {
+        this(config, chatModel, streamingModel, null, null);
+    }
+
+    public OpenAIAgent(ReviewConfig config, ChatLanguageModel chatModel, StreamingChatLanguageModel streamingModel,
+                       RepositoryIndex repositoryIndex, ChatMemoryStore memoryStore) {
+        this.config = config;
+        this.chatModel = chatModel;
+        this.streamingModel = streamingModel;
+        this.repositoryIndex = repositoryIndex;
+        this.memoryStore = memoryStore;
+        this.budget = TokenBudget.forConfig(config);
         
         logger.info("Initialized OpenAI agent with model: {}", config.getModelName());
     }
 
+    /**
+     * Attempts the OpenAI client makes itself: one when the resilience layer retries, else its default
+     */
+    public static Integer builtInRetries(ReviewConfig config) {
+        return Boolean.TRUE.equals(config.getEnableResilience()) ? 1 : null;
+    }
+
+    private static ChatLanguageModel withCache(ReviewConfig config, ChatLanguageModel model) {
+        if (!Boolean.TRUE.equals(config.getEnableCache())) {
+            return model;
+        }
+        ResponseCache cache = ResponseCache.open(Path.of(config.getCacheDirectory()), config.getCacheMaxBytes(),
+                config.getCacheMemoryEntries(), Duration.ofHours(config.getCacheTtlHours()));
+        return new CachingChatLanguageModel(model, cache, config.getModelName(), config.getTemperature());
+    }
+
+    private static ChatMemoryStore memoryStoreFor(ReviewConfig config) {
+        if (!Boolean.TRUE.equals(config.getEnableMemory())) {
+            return null;
+        }
+        return new ReviewMemoryStore(Path.of(config.getMemoryDirectory()), config.getMemoryHotEntries());
+    }
+
+    private static RepositoryIndex repositoryIndexFor(ReviewConfig config) {
+        if (!Boolean.TRUE.equals(config.getEnableVectorSearch()) || config.getRepositoryPath() == null) {
+            return null;
+        }
+        EmbeddingModel embeddingModel = "hashing".equals(config.getEmbeddingModelName())
+                ? new HashingEmbeddingModel()
+                : OpenAiEmbeddingModel.builder()
+                    .baseUrl(config.getOpenAiBaseUrl())
+                    .apiKey(System.getenv("OPENAI_API_KEY"))
+                    .modelName(config.getEmbeddingModelName())
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+        // Saved with the response cache, so a new run re-embeds only the files changed since the last one
+        Path repository = Path.of(config.getRepositoryPath());
+        Path store = Boolean.TRUE.equals(config.getEnableCache()) && config.getCacheDirectory() != null
+                ? RepositoryIndex.storeFile(Path.of(config.getCacheDirectory(), "repository-index"), repository, config.getEmbeddingModelName())
+                : null;
+        return new RepositoryIndex(repository, embeddingModel, store);
+    }
+
     @Override
     public CodeReviewResult reviewPullRequest(PullRequestDetails prDetails) {
+        return review(prDetails, null);
+    }
+
+    /**
+     * Review with the summary (or, in structured mode, the JSON answer) streamed to {@code listener}
+     * token by token; the analyses run alongside as usual and the result is assembled at the end
+     */
+    @Override
+    public CodeReviewResult reviewPullRequest(PullRequestDetails prDetails, ReviewListener listener) {
+        if (streamingModel == null) {
+            return CodeReviewAgent.super.reviewPullRequest(prDetails, listener);
+        }
+        return review(prDetails, listener);
+    }
+
+    private CodeReviewResult review(PullRequestDetails prDetails, ReviewListener listener) {
         long startTime = System.currentTimeMillis();
         logger.info("Starting code review for PR: {}", prDetails.getTitle());
         
         try {
-            // Create review prompt
-            String reviewPrompt = createReviewPrompt(prDetails);
-            
-            // Prepare messages
-            List<ChatMessage> messages = new ArrayList<>();
+            if (Boolean.TRUE.equals(config.getStructuredOutput())) {
+                return reviewStructured(prDetails, listener, startTime);
+            }
             
-            // Add system message
-            messages.add(new SystemMessage("You are an expert code reviewer. Provide comprehensive, actionable feedback."));
+            // System message plus the review prompt, with the diff trimmed to the context window if needed
+            String context = repositoryContext(prDetails);
+            List<ChatMessage> messages = fitToContext(prDetails, pr -> List.of(
+                    new SystemMessage("You are an expert code reviewer. Provide comprehensive, actionable feedback."),
+                    new UserMessage(createReviewPrompt(pr, context))));
             
-            // Add user message with review prompt
-            messages.add(new UserMessage(reviewPrompt));
+            // Start the summary and the enabled LLM analyses together; the review takes as long as the slowest one
+            long timeoutSeconds = config.getAnalysisTimeoutSeconds();
+            AtomicInteger analysisTokens = new AtomicInteger();
+            CompletableFuture<Response<AiMessage>> summaryFuture = generate(messages, listener)
+                    .orTimeout(timeoutSeconds, TimeUnit.SECONDS);
+            CompletableFuture<List<String>> securityFuture = config.getIncludeSecurityAnalysis()
+                    ? runAnalysis("security", () -> analyzeSecurity(prDetails, analysisTokens), timeoutSeconds)
+                    : CompletableFuture.completedFuture(null);
+            CompletableFuture<List<String>> performanceFuture = config.getIncludePerformanceAnalysis()
+                    ? runAnalysis("performance", () -> analyzePerformance(prDetails, analysisTokens), timeoutSeconds)
+                    : CompletableFuture.completedFuture(null);
             
-            // Generate review
-            Response<AiMessage> response = chatModel.generate(messages);
+            Response<AiMessage> response;
+            try {
+                response = join(summaryFuture);
+            } catch (Exception e) {
+                // Without a summary there is no review; stop the analyses rather than pay for them
+                securityFuture.cancel(true);
+                performanceFuture.cancel(true);
+                throw e;
+            }
             String reviewSummary = response.content().text();
             
-            // Calculate review time
-            long reviewTime = System.currentTimeMillis() - startTime;
-            
             // Create result
             CodeReviewResult result = new CodeReviewResult(reviewSummary);
-            result.setReviewTime((double) reviewTime / 1000.0); // Convert to seconds
             result.setModelUsed(config.getModelName());
-            result.setTokensUsed(estimateTokens(reviewSummary));
             result.setConfidenceScore(calculateConfidenceScore(reviewSummary));
             
-            // Perform additional analyses if enabled
+            if (config.getIncludeCodeQualityAnalysis()) {
+                result.setIssues(analyzeCodeQuality(prDetails));
+                result.setSuggestions(generateSuggestions(prDetails));
+                result.setCodeQualityScore(calculateQualityScore(prDetails));
+            }
+            
             if (config.getIncludeSecurityAnalysis()) {
-                result.setSecurityConcerns(analyzeSecurity(prDetails));
+                result.setSecurityConcerns(securityFuture.join());
             }
             
             if (config.getIncludePerformanceAnalysis()) {
-                result.setPerformanceIssues(analyzePerformance(prDetails));
+                result.setPerformanceIssues(performanceFuture.join());
             }
+            result.setTokensUsed(tokensUsed(response, messages) + analysisTokens.get());
             
-            if (config.getIncludeCodeQualityAnalysis()) {
-                result.setIssues(analyzeCodeQuality(prDetails));
-                result.setSuggestions(generateSuggestions(prDetails));
-                result.setCodeQualityScore(calculateQualityScore(prDetails));
-            }
+            // Calculate review time
+            long reviewTime = System.currentTimeMillis() - startTime;
+            result.setReviewTime((double) reviewTime / 1000.0); // Convert to seconds
             
             logger.info("Completed code review in {} seconds", result.getReviewTime());
+            logCacheStats();
             return result;
             
         } catch (Exception e) {
@@ -108,13 +258,339 @@ public class OpenAIAgent implements CodeReviewAgent {
         }
     }
 
-    private String createReviewPrompt(PullRequestDetails prDetails) {
+    /**
+     * Review with a single call whose JSON answer is bound onto {@link CodeReviewResult}, so the
+     * diff is sent once instead of once per analysis
+     */
+    private CodeReviewResult reviewStructured(PullRequestDetails prDetails, ReviewListener listener, long startTime) throws Exception {
+        List<ChatMessage> messages = structuredReviewMessages(prDetails);
+        Response<AiMessage> response = join(generate(messages, listener)
+                .orTimeout(config.getAnalysisTimeoutSeconds(), TimeUnit.SECONDS));
+        
+        CodeReviewResult result = structuredReviewResult(response.content().text());
+        result.setTokensUsed(tokensUsed(response, messages));
+        result.setReviewTime((System.currentTimeMillis() - startTime) / 1000.0);
+        
+        logger.info("Completed structured code review in {} seconds", result.getReviewTime());
+        logCacheStats();
+        return result;
+    }
+
+    /**
+     * The single-call structured review prompt, with related repository code and the diff trimmed
+     * to the context window; batch reviews write these messages to their request file
+     */
+    public List<ChatMessage> structuredReviewMessages(PullRequestDetails prDetails) {
+        String context = repositoryContext(prDetails);
+        return fitToContext(prDetails, pr -> List.of(
+                new SystemMessage(STRUCTURED_SYSTEM_PROMPT),
+                new UserMessage(createStructuredPrompt(pr, context))));
+    }
+
+    /**
+     * Bind the answer to a structured review prompt onto a result, dropping the sections that are
+     * disabled in the config. Token usage and review time are left to the caller.
+     */
+    public CodeReviewResult structuredReviewResult(String text) {
+        CodeReviewResult result = parseStructuredResult(text);
+        if (!config.getIncludeSecurityAnalysis()) {
+            result.setSecurityConcerns(null);
+        }
+        if (!config.getIncludePerformanceAnalysis()) {
+            result.setPerformanceIssues(null);
+        }
+        if (!config.getIncludeCodeQualityAnalysis()) {
+            result.setIssues(null);
+            result.setSuggestions(null);
+            result.setCodeQualityScore(null);
+        }
+        if (result.getConfidenceScore() == null) {
+            result.setConfidenceScore(calculateConfidenceScore(text));
+        }
+        result.setModelUsed(config.getModelName());
+        return result;
+    }
+
+    /**
+     * Seed the pull request's conversation with the review, trimmed to half the memory window so
+     * there is room for follow-ups
+     */
+    @Override
+    public void remember(String memoryId, PullRequestDetails prDetails, CodeReviewResult result) {
+        if (memoryStore == null) {
+            return;
+        }
+        StringBuilder review = new StringBuilder(result.getSummary() != null ? result.getSummary() : "");
+        appendFindings(review, "Issues", result.getIssues() == null ? null
+                : result.getIssues().stream().map(issue -> String.valueOf(issue.get("message"))).toList());
+        appendFindings(review, "Security concerns", result.getSecurityConcerns());
+        appendFindings(review, "Performance issues", result.getPerformanceIssues());
+        appendFindings(review, "Suggestions", result.getSuggestions());
+        String seed = String.format("""
+            You reviewed the following pull request and now answer the reviewer's follow-up questions about it.
+            Title: %s
+            Description: %s
+            Changed Files: %s
+            Your review:
+            %s""",
+            prDetails.getTitle(),
+            prDetails.getDescription(),
+            prDetails.getChangedFiles(),
+            review);
+        ChatMemory memory = memoryFor(memoryId);
+        memory.clear();
+        memory.add(SystemMessage.from(budget.truncate(seed, memoryWindow() / 2)));
+    }
+
+    /**
+     * Answer from the remembered review and conversation; the diff is not sent again
+     */
+    @Override
+    public String ask(String memoryId, String question) {
+        if (memoryStore == null) {
+            throw new IllegalStateException("Conversation memory is disabled");
+        }
+        ChatMemory memory = memoryFor(memoryId);
+        if (memory.messages().isEmpty()) {
+            throw new IllegalStateException("No review of " + memoryId + " to ask about, review it first");
+        }
+        memory.add(UserMessage.from(question));
+        Response<AiMessage> response = chatModel.generate(memory.messages());
+        memory.add(response.content());
+        return response.content().text();
+    }
+
+    private ChatMemory memoryFor(String memoryId) {
+        return new SummarizingChatMemory(memoryId, memoryStore, budget, memoryWindow(), chatModel);
+    }
+
+    private int memoryWindow() {
+        return Math.min(config.getMemoryMaxTokens(), budget.promptTokens());
+    }
+
+    private static void appendFindings(StringBuilder review, String heading, List<String> findings) {
+        if (findings != null && !findings.isEmpty()) {
+            review.append("\n\n").append(heading).append(':');
+            findings.forEach(finding -> review.append("\n- ").append(finding));
+        }
+    }
+
+    /**
+     * Send the messages, streaming the answer to {@code listener} when there is one and a streaming
+     * model is configured. Streamed answers are read from and written to the response cache like
+     * blocking ones.
+     */
+    private CompletableFuture<Response<AiMessage>> generate(List<ChatMessage> messages, ReviewListener listener) {
+        if (listener == null || streamingModel == null) {
+            return submit(() -> chatModel.generate(messages));
+        }
+        CachingChatLanguageModel cache = chatModel instanceof CachingChatLanguageModel caching ? caching : null;
+        Response<AiMessage> cached = cache != null ? cache.lookup(messages) : null;
+        if (cached != null) {
+            listener.onToken(cached.content().text());
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Response<AiMessage>> future = new CompletableFuture<>();
+        streamingModel.generate(messages, new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {
+                listener.onToken(token);
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                if (cache != null) {
+                    cache.store(messages, response);
+                }
+                future.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                future.completeExceptionally(error);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Build the messages for a prompt, trimming the diff when the prompt would not fit in the context
+     * window minus the tokens reserved for the answer. Diffs too large to review whole are split into
+     * chunks before they reach the agent; this is the backstop for prompts that still do not fit.
+     */
+    private List<ChatMessage> fitToContext(PullRequestDetails prDetails, Function<PullRequestDetails, List<ChatMessage>> prompt) {
+        List<ChatMessage> messages = prompt.apply(prDetails);
+        int tokens = budget.count(messages);
+        if (tokens <= budget.promptTokens()) {
+            return messages;
+        }
+        int overhead = budget.count(prompt.apply(prDetails.withDiff(prDetails.getChangedFiles(), "")))
+                + budget.count(TRUNCATION_NOTE);
+        int diffTokens = budget.promptTokens() - overhead;
+        if (diffTokens <= 0) {
+            throw new IllegalStateException(String.format(
+                    "Prompt needs %d tokens before the diff, but %s leaves only %d of its %d-token context window after reserving %d for the answer",
+                    overhead, config.getModelName(), budget.promptTokens(), budget.contextWindow(), budget.maxCompletionTokens()));
+        }
+        String diff = budget.truncate(prDetails.getDiff(), diffTokens) + TRUNCATION_NOTE;
+        logger.warn("Prompt for PR '{}' was {} tokens, trimmed the diff to {} tokens to fit {} prompt tokens",
+                prDetails.getTitle(), tokens, diffTokens, budget.promptTokens());
+        return prompt.apply(prDetails.withDiff(prDetails.getChangedFiles(), diff));
+    }
+
+    /**
+     * The repository code most related to the changes, as a prompt section of at most a quarter of
+     * the prompt budget, or an empty string without a repository index. Search failures only cost
+     * the context, never the review.
+     */
+    private String repositoryContext(PullRequestDetails prDetails) {
+        if (repositoryIndex == null) {
+            return "";
+        }
+        try {
+            repositoryIndex.ensureUpdated();
+            List<RepositoryIndex.Snippet> snippets = repositoryIndex.relevantTo(prDetails, config.getVectorSearchTopK());
+            if (snippets.isEmpty()) {
+                return "";
+            }
+            StringBuilder context = new StringBuilder();
+            for (RepositoryIndex.Snippet snippet : snippets) {
+                context.append(String.format("// %s (lines %d-%d)%n%s%n%n",
+                        snippet.path(), snippet.startLine(), snippet.endLine(), snippet.text()));
+            }
+            return "\nRelated code from the repository (unchanged, for reference):\n"
+                    + budget.truncate(context.toString(), budget.promptTokens() / 4);
+        } catch (Exception e) {
+            logger.warn("Could not search the repository for related code: {}", e.getMessage());
+            return "";
+        }
+    }
+
+    /**
+     * Tokens billed for a call: the usage reported by the API, or the prompt and answer counted with
+     * the model's tokenizer when the model does not report it
+     */
+    private int tokensUsed(Response<AiMessage> response, List<ChatMessage> messages) {
+        if (response.tokenUsage() != null && response.tokenUsage().totalTokenCount() != null) {
+            return response.tokenUsage().totalTokenCount();
+        }
+        return budget.count(messages) + budget.count(response.content().text());
+    }
+
+    private void logCacheStats() {
+        if (chatModel instanceof CachingChatLanguageModel caching) {
+            logger.info("Response cache: {}", caching.stats());
+        }
+    }
+
+    private CodeReviewResult parseStructuredResult(String text) {
+        // Tolerate a fenced or prefixed answer from models without JSON mode
+        int start = text.indexOf('{');
+        int end = text.lastIndexOf('}');
+        if (start >= 0 && end > start) {
+            try {
+                return objectMapper.readValue(text.substring(start, end + 1), CodeReviewResult.class);
+            } catch (JsonProcessingException e) {
+                logger.warn("Structured review was not valid JSON, keeping it as the summary: {}", e.getOriginalMessage());
+            }
+        }
+        return new CodeReviewResult(text);
+    }
+
+    private String createStructuredPrompt(PullRequestDetails prDetails, String context) {
         if (config.getCustomPrompt() != null && !config.getCustomPrompt().isEmpty()) {
-            return config.getCustomPrompt()
-                    .replace("{{title}}", prDetails.getTitle())
-                    .replace("{{description}}", prDetails.getDescription())
-                    .replace("{{changedFiles}}", prDetails.getChangedFiles().toString())
-                    .replace("{{diff}}", prDetails.getDiff());
+            return createReviewPrompt(prDetails, context);
+        }
+        List<String> skip = new ArrayList<>();
+        if (!config.getIncludeSecurityAnalysis()) {
+            skip.add("securityConcerns");
+        }
+        if (!config.getIncludePerformanceAnalysis()) {
+            skip.add("performanceIssues");
+        }
+        if (!config.getIncludeCodeQualityAnalysis()) {
+            skip.add("issues, suggestions and codeQualityScore");
+        }
+        return String.format("""
+            Review the following pull request.
+            %s
+            Title: %s
+            Description: %s
+            Changed Files: %s
+            Diff: %s
+            %s""",
+            skip.isEmpty() ? "" : "Leave " + String.join(", ", skip) + " empty.\n",
+            prDetails.getTitle(),
+            prDetails.getDescription(),
+            prDetails.getChangedFiles(),
+            prDetails.getDiff(),
+            context
+        );
+    }
+
+    /**
+     * Run one analysis asynchronously; a failure or timeout yields an empty list so it cannot fail the review.
+     * Cancelling the returned future interrupts the analysis.
+     */
+    private CompletableFuture<List<String>> runAnalysis(String name, Supplier<List<String>> analysis, long timeoutSeconds) {
+        CompletableFuture<List<String>> task = submit(analysis).orTimeout(timeoutSeconds, TimeUnit.SECONDS);
+        CompletableFuture<List<String>> result = task.exceptionally(e -> {
+            if (!(unwrap(e) instanceof CancellationException)) {
+                logger.warn("Error analyzing {}: {}", name, unwrap(e).toString());
+            }
+            return new ArrayList<>();
+        });
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Run {@code task} on the analysis executor. Unlike {@link CompletableFuture#supplyAsync}, completing
+     * the returned future first, e.g. through {@code orTimeout}, interrupts the task, so a call that timed
+     * out stops retrying instead of spending tokens on an answer nobody reads.
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = analysisExecutor.submit(() -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            throw cause instanceof Exception exception ? exception : e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    private String createReviewPrompt(PullRequestDetails prDetails, String context) {
+        if (config.getCustomPrompt() != null && !config.getCustomPrompt().isEmpty()) {
+            Map<String, CharSequence> values = PromptTemplate.values(prDetails);
+            values.put("context", context);
+            return PromptTemplate.compile(config.getCustomPrompt()).render(values);
         }
         
         return String.format("""
@@ -124,7 +600,7 @@ public class OpenAIAgent implements CodeReviewAgent {
             Description: %s
             Changed Files: %s
             Diff: %s
-            
+            %s
             Please provide:
             1. Overall assessment of the changes
             2. Code quality analysis
@@ -138,12 +614,17 @@ public class OpenAIAgent implements CodeReviewAgent {
             prDetails.getTitle(),
             prDetails.getDescription(),
             prDetails.getChangedFiles(),
-            prDetails.getDiff()
+            prDetails.getDiff(),
+            context
         );
     }
 
-    private List<String> analyzeSecurity(PullRequestDetails prDetails) {
-        String securityPrompt = String.format("""
+    private List<String> analyzeSecurity(PullRequestDetails prDetails, AtomicInteger tokensUsed) {
+        return analyze("security", fitToContext(prDetails, pr -> List.of(new UserMessage(securityPrompt(pr)))), tokensUsed);
+    }
+
+    private String securityPrompt(PullRequestDetails prDetails) {
+        return String.format("""
             Analyze the following code changes for security vulnerabilities:
             
             Title: %s
@@ -166,19 +647,14 @@ public class OpenAIAgent implements CodeReviewAgent {
             prDetails.getChangedFiles(),
             prDetails.getDiff()
         );
-        
-        try {
-            Response<AiMessage> response = chatModel.generate(new UserMessage(securityPrompt));
-            String result = response.content().text();
-            return parseListFromResponse(result);
-        } catch (Exception e) {
-            logger.warn("Error analyzing security: {}", e.getMessage());
-            return new ArrayList<>();
-        }
     }
 
-    private List<String> analyzePerformance(PullRequestDetails prDetails) {
-        String performancePrompt = String.format("""
+    private List<String> analyzePerformance(PullRequestDetails prDetails, AtomicInteger tokensUsed) {
+        return analyze("performance", fitToContext(prDetails, pr -> List.of(new UserMessage(performancePrompt(pr)))), tokensUsed);
+    }
+
+    private String performancePrompt(PullRequestDetails prDetails) {
+        return String.format("""
             Analyze the following code changes for performance issues:
             
             Title: %s
@@ -201,13 +677,15 @@ public class OpenAIAgent implements CodeReviewAgent {
             prDetails.getChangedFiles(),
             prDetails.getDiff()
         );
-        
+    }
+
+    private List<String> analyze(String name, List<ChatMessage> messages, AtomicInteger tokensUsed) {
         try {
-            Response<AiMessage> response = chatModel.generate(new UserMessage(performancePrompt));
-            String result = response.content().text();
-            return parseListFromResponse(result);
+            Response<AiMessage> response = chatModel.generate(messages);
+            tokensUsed.addAndGet(tokensUsed(response, messages));
+            return ReviewResponseParser.parse(response.content().text());
         } catch (Exception e) {
-            logger.warn("Error analyzing performance: {}", e.getMessage());
+            logger.warn("Error analyzing {}: {}", name, e.getMessage());
             return new ArrayList<>();
         }
     }
@@ -264,29 +742,16 @@ public class OpenAIAgent implements CodeReviewAgent {
         }
     }
 
-    private Integer estimateTokens(String text) {
-        // Rough estimation: 1 token ≈ 4 characters
-        return text.length() / 4;
-    }
-
-    private List<String> parseListFromResponse(String response) {
-        List<String> items = new ArrayList<>();
-        String[] lines = response.split("\n");
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("-") || line.startsWith("•") || line.startsWith("*")) {
-                items.add(line.substring(1).trim());
-            } else if (line.matches("\\d+\\..*")) {
-                items.add(line.replaceFirst("\\d+\\.", "").trim());
-            }
-        }
-        
-        return items;
-    }
-
     @Override
     public String getAgentName() {
         return "openai";
     }
+
+    /**
+     * Interrupt analyses still running and stop accepting new ones
+     */
+    @Override
+    public void close() {
+        analysisExecutor.shutdownNow();
+    }
 } 
\ No newline at end of file
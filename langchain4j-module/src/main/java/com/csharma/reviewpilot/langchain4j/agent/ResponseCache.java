@@ -0,0 +1,284 @@
+package com.csharma.reviewpilot.langchain4j.agent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content-addressed store of model responses in two tiers: the most recently used entries in memory,
+ * and every entry on disk until the total size exceeds {@code maxBytes}, evicting least-recently-used
+ * first by file modification time. Entries older than {@code ttl} are treated as missing in both tiers.
+ */
+public final class ResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+    private static final Map<Path, ResponseCache> OPEN_CACHES = new ConcurrentHashMap<>();
+    private static final String SUFFIX = ".response";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final int maxMemoryEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Cached> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskBytes;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    private record Cached(String value, long createdAt) {}
+
+    /**
+     * Counters since the cache was opened; {@code bytesSaved} is the size of the responses served
+     * from the cache instead of being generated again.
+     */
+    public record Stats(long memoryHits, long diskHits, long misses, long bytesSaved) {
+        public long hits() {
+            return memoryHits + diskHits;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits (%d memory, %d disk), %d misses, %d bytes saved",
+                    hits(), memoryHits, diskHits, misses, bytesSaved);
+        }
+    }
+
+    public ResponseCache(Path directory, long maxBytes, int maxMemoryEntries, Duration ttl) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxMemoryEntries = maxMemoryEntries;
+        this.ttlMillis = ttl.toMillis();
+        try {
+            Files.createDirectories(directory);
+            loadIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open response cache at " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the cache for {@code directory}, opening it on first use so agents pointed at the same
+     * directory share one instance and one size budget
+     */
+    public static ResponseCache open(Path directory, long maxBytes, int maxMemoryEntries, Duration ttl) {
+        return OPEN_CACHES.computeIfAbsent(directory.toAbsolutePath().normalize(),
+                dir -> new ResponseCache(dir, maxBytes, maxMemoryEntries, ttl));
+    }
+
+    /**
+     * SHA-256 over the parts in order, hashed in slices so large prompts are not encoded in one piece
+     */
+    public static String keyFor(CharSequence... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (CharSequence part : parts) {
+                CharSequence text = part == null ? "" : part;
+                int length = text.length();
+                for (int start = 0; start < length; ) {
+                    int end = Math.min(length, start + 8192);
+                    // Keep surrogate pairs in one slice so they encode the same way every time
+                    if (end < length && Character.isHighSurrogate(text.charAt(end - 1))) {
+                        end--;
+                    }
+                    digest.update(StandardCharsets.UTF_8.encode(CharBuffer.wrap(text, start, end)));
+                    start = end;
+                }
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the cached response, or {@code null} when it is missing or expired
+     */
+    public String get(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Cached cached = memory.get(key);
+            if (cached != null && !expired(cached, now)) {
+                memoryHits.incrementAndGet();
+                bytesSaved.addAndGet(sizeOf(cached.value()));
+                return cached.value();
+            }
+            memory.remove(key);
+            // get, not containsKey, so the hit moves the entry to the most recently used end
+            if (disk.get(key) == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+        // Read without the lock so lookups are not serialised behind disk I/O
+        Cached cached = read(key);
+        synchronized (this) {
+            if (cached == null || expired(cached, now)) {
+                remove(key);
+                misses.incrementAndGet();
+                return null;
+            }
+            remember(key, cached);
+            diskHits.incrementAndGet();
+            bytesSaved.addAndGet(sizeOf(cached.value()));
+        }
+        touch(key);
+        return cached.value();
+    }
+
+    public synchronized void put(String key, String value) {
+        Cached cached = new Cached(value, System.currentTimeMillis());
+        remember(key, cached);
+        Path file = fileFor(key);
+        try {
+            Path temp = Files.createTempFile(directory, "pending", ".tmp");
+            try {
+                try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    writer.write(Long.toString(cached.createdAt()));
+                    writer.write('\n');
+                    writer.write(value);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            Long previous = disk.remove(key);
+            if (previous != null) {
+                diskBytes -= previous;
+            }
+            long size = Files.size(file);
+            disk.put(key, size);
+            diskBytes += size;
+            evict();
+        } catch (IOException e) {
+            logger.warn("Failed to write response cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(memoryHits.get(), diskHits.get(), misses.get(), bytesSaved.get());
+    }
+
+    public synchronized long diskBytes() {
+        return diskBytes;
+    }
+
+    private boolean expired(Cached cached, long now) {
+        return ttlMillis > 0 && now - cached.createdAt() > ttlMillis;
+    }
+
+    private void remember(String key, Cached cached) {
+        memory.put(key, cached);
+        Iterator<String> eldest = memory.keySet().iterator();
+        while (memory.size() > maxMemoryEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private Cached read(String key) {
+        try (BufferedReader reader = Files.newBufferedReader(fileFor(key), StandardCharsets.UTF_8)) {
+            long createdAt = Long.parseLong(reader.readLine());
+            StringBuilder value = new StringBuilder();
+            char[] buffer = new char[8192];
+            for (int read; (read = reader.read(buffer)) != -1; ) {
+                value.append(buffer, 0, read);
+            }
+            return new Cached(value.toString(), createdAt);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Dropping unreadable response cache entry {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void touch(String key) {
+        try {
+            Files.setLastModifiedTime(fileFor(key), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("Failed to update access time for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> eldest = disk.entrySet().iterator();
+        while (diskBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            diskBytes -= entry.getValue();
+            memory.remove(entry.getKey());
+            deleteFile(entry.getKey());
+        }
+    }
+
+    private void remove(String key) {
+        Long size = disk.remove(key);
+        if (size != null) {
+            diskBytes -= size;
+        }
+        memory.remove(key);
+        deleteFile(key);
+    }
+
+    private void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (IOException e) {
+            logger.debug("Failed to delete response cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static long sizeOf(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private void loadIndex() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.filter(p -> p.toString().endsWith(SUFFIX)).forEach(files::add);
+        }
+        files.sort(Comparator.comparing(ResponseCache::lastModified));
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long size = Files.size(file);
+            disk.put(name.substring(0, name.length() - SUFFIX.length()), size);
+            diskBytes += size;
+        }
+        evict();
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.csharma.reviewpilot.langchain4j.agent;
+
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
+
+/**
+ * Receives a review while it is being generated
+ */
+public interface ReviewListener {
+
+    /**
+     * Next piece of the review text, in order
+     *
+     * @param token text generated since the previous call
+     */
+    void onToken(String token);
+
+    /**
+     * The complete result, once every analysis has finished
+     *
+     * @param result code review result
+     */
+    default void onComplete(CodeReviewResult result) {}
+}
@@ -0,0 +1,229 @@
+package com.csharma.reviewpilot.langchain4j.agent;
+
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Extracts findings from a model's answer in one pass, as it arrives. Bulleted ({@code -}, {@code *},
+ * {@code •}) and numbered ({@code 1.}) lines are findings; inside fenced blocks, {@code ```json} blocks
+ * are read as an array of findings (strings, or objects with a {@code message} or {@code description}),
+ * plain and {@code ```markdown} blocks are parsed line by line, and code blocks are skipped.
+ * <p>
+ * Chunks are appended to one reused line buffer and each line is matched by hand, so the only
+ * allocations are the findings themselves and the text of JSON blocks. As a {@link ReviewListener}
+ * it parses a streamed review, reporting each finding as soon as its line is complete. Not thread safe.
+ */
+public class ReviewResponseParser implements ReviewListener {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewResponseParser.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private enum Fence { NONE, MARKDOWN, JSON, CODE }
+
+    private final List<String> findings = new ArrayList<>();
+    private final Consumer<String> onFinding;
+    private final StringBuilder line = new StringBuilder(128);
+    // Body of the open JSON block
+    private final StringBuilder json = new StringBuilder();
+    private Fence fence = Fence.NONE;
+
+    public ReviewResponseParser() {
+        this(finding -> {});
+    }
+
+    /**
+     * @param onFinding called with each finding as soon as it is complete
+     */
+    public ReviewResponseParser(Consumer<String> onFinding) {
+        this.onFinding = onFinding;
+    }
+
+    /**
+     * Findings of a complete answer
+     */
+    public static List<String> parse(CharSequence response) {
+        ReviewResponseParser parser = new ReviewResponseParser();
+        parser.accept(response);
+        return parser.finish();
+    }
+
+    /**
+     * Parse the next chunk of the answer; lines split across chunks are completed by later ones
+     */
+    public void accept(CharSequence chunk) {
+        int start = 0;
+        for (int i = 0; i < chunk.length(); i++) {
+            if (chunk.charAt(i) == '\n') {
+                line.append(chunk, start, i);
+                endLine();
+                start = i + 1;
+            }
+        }
+        line.append(chunk, start, chunk.length());
+    }
+
+    /**
+     * Parse the last, unterminated line and any unclosed JSON block
+     *
+     * @return every finding, in order
+     */
+    public List<String> finish() {
+        if (!line.isEmpty()) {
+            endLine();
+        }
+        if (fence == Fence.JSON) {
+            closeJson();
+        }
+        fence = Fence.NONE;
+        return findings;
+    }
+
+    public List<String> findings() {
+        return findings;
+    }
+
+    @Override
+    public void onToken(String token) {
+        accept(token);
+    }
+
+    @Override
+    public void onComplete(CodeReviewResult result) {
+        finish();
+    }
+
+    private void endLine() {
+        int end = line.length();
+        while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        int start = 0;
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        if (start < end) {
+            parseLine(start, end);
+        }
+        line.setLength(0);
+    }
+
+    private void parseLine(int start, int end) {
+        if (isFence(start, end)) {
+            if (fence == Fence.NONE) {
+                fence = fenceType(start + 3, end);
+            } else {
+                if (fence == Fence.JSON) {
+                    closeJson();
+                }
+                fence = Fence.NONE;
+            }
+            return;
+        }
+        switch (fence) {
+            case JSON -> json.append(line, start, end).append('\n');
+            case CODE -> { }
+            default -> parseItem(start, end);
+        }
+    }
+
+    private void parseItem(int start, int end) {
+        char first = line.charAt(start);
+        if (first == '-' || first == '*' || first == '•') {
+            emit(start + 1, end);
+            return;
+        }
+        int i = start;
+        while (i < end && line.charAt(i) >= '0' && line.charAt(i) <= '9') {
+            i++;
+        }
+        if (i > start && i < end && line.charAt(i) == '.') {
+            emit(i + 1, end);
+        }
+    }
+
+    private void emit(int start, int end) {
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        if (start < end) {
+            add(line.substring(start, end));
+        }
+    }
+
+    private void add(String finding) {
+        findings.add(finding);
+        onFinding.accept(finding);
+    }
+
+    private boolean isFence(int start, int end) {
+        return end - start >= 3 && line.charAt(start) == '`' && line.charAt(start + 1) == '`' && line.charAt(start + 2) == '`';
+    }
+
+    private Fence fenceType(int start, int end) {
+        while (start < end && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        if (start == end || infoIs(start, end, "markdown") || infoIs(start, end, "md")) {
+            return Fence.MARKDOWN;
+        }
+        return infoIs(start, end, "json") ? Fence.JSON : Fence.CODE;
+    }
+
+    private boolean infoIs(int start, int end, String language) {
+        if (end - start != language.length()) {
+            return false;
+        }
+        for (int i = 0; i < language.length(); i++) {
+            if (Character.toLowerCase(line.charAt(start + i)) != language.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void closeJson() {
+        try {
+            addJson(objectMapper.readTree(json.toString()));
+        } catch (JsonProcessingException e) {
+            logger.debug("Skipping fenced block that is not valid JSON: {}", e.getOriginalMessage());
+        }
+        json.setLength(0);
+    }
+
+    private void addJson(JsonNode node) {
+        if (node == null) {
+            return;
+        }
+        if (node.isArray()) {
+            node.forEach(this::addJsonFinding);
+        } else if (node.isObject()) {
+            // e.g. {"securityConcerns": [...]}
+            node.forEach(field -> {
+                if (field.isArray()) {
+                    field.forEach(this::addJsonFinding);
+                }
+            });
+        }
+    }
+
+    private void addJsonFinding(JsonNode node) {
+        if (node.isTextual()) {
+            if (!node.asText().isBlank()) {
+                add(node.asText().trim());
+            }
+        } else if (node.hasNonNull("message")) {
+            add(node.get("message").asText());
+        } else if (node.hasNonNull("description")) {
+            add(node.get("description").asText());
+        } else if (!node.isNull()) {
+            add(node.toString());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.csharma.reviewpilot.langchain4j.agent;
+
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token accounting for one model: counts prompts with the model's BPE encoding (offline, via jtokkit)
+ * and knows how many tokens a prompt may use, i.e. the context window minus the tokens reserved for
+ * the answer ({@code maxTokens}).
+ */
+public class TokenBudget {
+    private static final Logger logger = LoggerFactory.getLogger(TokenBudget.class);
+    private static final String FALLBACK_MODEL = "gpt-4";
+
+    // Most specific prefix first
+    private static final Map<String, Integer> CONTEXT_WINDOWS = new LinkedHashMap<>();
+    static {
+        CONTEXT_WINDOWS.put("gpt-4o", 128_000);
+        CONTEXT_WINDOWS.put("gpt-4-turbo", 128_000);
+        CONTEXT_WINDOWS.put("gpt-4-1106", 128_000);
+        CONTEXT_WINDOWS.put("gpt-4-0125", 128_000);
+        CONTEXT_WINDOWS.put("gpt-4-vision", 128_000);
+        CONTEXT_WINDOWS.put("gpt-4-32k", 32_768);
+        CONTEXT_WINDOWS.put("gpt-4", 8_192);
+        CONTEXT_WINDOWS.put("gpt-3.5-turbo-16k", 16_385);
+        CONTEXT_WINDOWS.put("gpt-3.5-turbo-1106", 16_385);
+        CONTEXT_WINDOWS.put("gpt-3.5-turbo-0125", 16_385);
+        CONTEXT_WINDOWS.put("gpt-3.5-turbo", 4_096);
+    }
+
+    private final OpenAiTokenizer tokenizer;
+    private final int contextWindow;
+    private final int maxCompletionTokens;
+
+    public TokenBudget(OpenAiTokenizer tokenizer, int contextWindow, int maxCompletionTokens) {
+        if (contextWindow <= maxCompletionTokens) {
+            throw new IllegalArgumentException("maxTokens (" + maxCompletionTokens
+                    + ") leaves no room for the prompt in a " + contextWindow + "-token context window");
+        }
+        this.tokenizer = tokenizer;
+        this.contextWindow = contextWindow;
+        this.maxCompletionTokens = maxCompletionTokens;
+    }
+
+    /**
+     * Budget for the configured model; {@code contextWindow} overrides the window known for the model name
+     */
+    public static TokenBudget forConfig(ReviewConfig config) {
+        int window = config.getContextWindow() != null ? config.getContextWindow() : contextWindowOf(config.getModelName());
+        return new TokenBudget(tokenizerFor(config.getModelName()), window, config.getMaxTokens());
+    }
+
+    /**
+     * Budget for a model at its known context window
+     */
+    public static TokenBudget forModel(String modelName, int maxCompletionTokens) {
+        return new TokenBudget(tokenizerFor(modelName), contextWindowOf(modelName), maxCompletionTokens);
+    }
+
+    public static int contextWindowOf(String modelName) {
+        if (modelName != null) {
+            for (Map.Entry<String, Integer> entry : CONTEXT_WINDOWS.entrySet()) {
+                if (modelName.startsWith(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return CONTEXT_WINDOWS.get(FALLBACK_MODEL);
+    }
+
+    private static OpenAiTokenizer tokenizerFor(String modelName) {
+        try {
+            OpenAiTokenizer tokenizer = new OpenAiTokenizer(modelName);
+            tokenizer.estimateTokenCountInText("");
+            return tokenizer;
+        } catch (RuntimeException e) {
+            logger.warn("No BPE encoding known for model {}, counting tokens as {}", modelName, FALLBACK_MODEL);
+            return new OpenAiTokenizer(FALLBACK_MODEL);
+        }
+    }
+
+    public int count(String text) {
+        return text == null || text.isEmpty() ? 0 : tokenizer.estimateTokenCountInText(text);
+    }
+
+    /**
+     * Tokens the messages take in a chat request, including the per-message framing
+     */
+    public int count(List<ChatMessage> messages) {
+        return tokenizer.estimateTokenCountInMessages(messages);
+    }
+
+    /**
+     * Tokens available to the prompt: the context window minus the tokens reserved for the answer
+     */
+    public int promptTokens() {
+        return contextWindow - maxCompletionTokens;
+    }
+
+    public int contextWindow() {
+        return contextWindow;
+    }
+
+    public int maxCompletionTokens() {
+        return maxCompletionTokens;
+    }
+
+    /**
+     * The longest prefix of {@code text} that is at most {@code maxTokens} tokens, cut at a line break
+     * when there is one so a diff line is never split
+     */
+    public String truncate(String text, int maxTokens) {
+        if (maxTokens <= 0) {
+            return "";
+        }
+        if (count(text) <= maxTokens) {
+            return text;
+        }
+        String prefix = tokenizer.decode(tokenizer.encode(text, maxTokens));
+        int lineEnd = prefix.lastIndexOf('\n');
+        return lineEnd > 0 ? prefix.substring(0, lineEnd + 1) : prefix;
+    }
+}
@@ -0,0 +1,195 @@
+package com.csharma.reviewpilot.langchain4j.batch;
+
+import com.csharma.reviewpilot.langchain4j.agent.ChatMessages;
+import com.csharma.reviewpilot.langchain4j.agent.OpenAIAgent;
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.ChatMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reviews many pull requests through the OpenAI Batch API instead of one synchronous call each.
+ * Every pull request becomes one structured review request in a JSONL file; the file is uploaded,
+ * run as a batch and the answers are bound onto {@link CodeReviewResult}s by the agent, exactly as
+ * a synchronous structured review would be. Batches are billed at a discount and are not limited
+ * by per-request round trips, at the price of latency: a batch may take up to its completion window.
+ */
+public class BatchReviewer {
+    private static final Logger logger = LoggerFactory.getLogger(BatchReviewer.class);
+    private static final String ENDPOINT = "/v1/chat/completions";
+    private static final String COMPLETION_WINDOW = "24h";
+    // Per-batch request limit of the API
+    private static final int MAX_REQUESTS = 50_000;
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OpenAIAgent agent;
+    private final OpenAiBatchClient client;
+    private final ReviewConfig config;
+    private final Path batchDirectory;
+    private final Duration pollInterval;
+
+    public BatchReviewer(OpenAIAgent agent, OpenAiBatchClient client, ReviewConfig config) {
+        this(agent, client, config, Path.of(config.getBatchDirectory()), Duration.ofSeconds(config.getBatchPollSeconds()));
+    }
+
+    public BatchReviewer(OpenAIAgent agent, OpenAiBatchClient client, ReviewConfig config, Path batchDirectory, Duration pollInterval) {
+        this.agent = agent;
+        this.client = client;
+        this.config = config;
+        this.batchDirectory = batchDirectory;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Review the pull requests in one batch and wait for it to finish
+     *
+     * @param pullRequests pull requests by id; the id is the batch request's {@code custom_id}
+     * @return results by id, for the requests that succeeded; failed requests are logged and left out
+     */
+    public Map<String, CodeReviewResult> review(Map<String, PullRequestDetails> pullRequests) throws IOException, InterruptedException {
+        if (pullRequests.size() > MAX_REQUESTS) {
+            throw new IllegalArgumentException("A batch holds at most " + MAX_REQUESTS + " reviews, got " + pullRequests.size());
+        }
+        if (pullRequests.isEmpty()) {
+            return Map.of();
+        }
+        long startTime = System.currentTimeMillis();
+        Path requestFile = writeRequests(pullRequests);
+        String inputFileId = client.uploadFile(requestFile);
+        OpenAiBatchClient.Batch batch = client.createBatch(inputFileId, ENDPOINT, COMPLETION_WINDOW);
+        logger.info("Submitted batch {} with {} reviews from {}", batch.id(), pullRequests.size(), requestFile);
+
+        while (!batch.isTerminal()) {
+            Thread.sleep(pollInterval.toMillis());
+            batch = client.retrieveBatch(batch.id());
+            logger.info("Batch {} is {}: {}/{} done, {} failed", batch.id(), batch.status(),
+                    batch.completed(), batch.total(), batch.failed());
+        }
+
+        // Expired and cancelled batches still return the requests that finished
+        if (batch.outputFileId() == null) {
+            throw new IllegalStateException("Batch " + batch.id() + " " + batch.status() + " without output"
+                    + (batch.errorFileId() != null ? ": " + firstError(client.fileContent(batch.errorFileId())) : ""));
+        }
+        String output = client.fileContent(batch.outputFileId());
+        Files.writeString(requestFile.resolveSibling(requestFile.getFileName().toString().replace(".jsonl", ".output.jsonl")), output);
+        if (batch.errorFileId() != null) {
+            logFailures(client.fileContent(batch.errorFileId()));
+        }
+
+        Map<String, CodeReviewResult> results = readResults(output);
+        logger.info("Batch {} {} with {} of {} reviews in {} seconds", batch.id(), batch.status(), results.size(),
+                pullRequests.size(), (System.currentTimeMillis() - startTime) / 1000.0);
+        return results;
+    }
+
+    /**
+     * Render one chat completion request per pull request, in the agent's structured review format
+     */
+    Path writeRequests(Map<String, PullRequestDetails> pullRequests) throws IOException {
+        Files.createDirectories(batchDirectory);
+        Path file = batchDirectory.resolve("reviews-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jsonl");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, PullRequestDetails> entry : pullRequests.entrySet()) {
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("model", config.getModelName());
+                body.put("temperature", config.getTemperature());
+                body.put("max_tokens", config.getMaxTokens());
+                if (Boolean.TRUE.equals(config.getStructuredOutput())) {
+                    body.put("response_format", Map.of("type", "json_object"));
+                }
+                body.put("messages", toOpenAiMessages(agent.structuredReviewMessages(entry.getValue())));
+
+                Map<String, Object> request = new LinkedHashMap<>();
+                request.put("custom_id", entry.getKey());
+                request.put("method", "POST");
+                request.put("url", ENDPOINT);
+                request.put("body", body);
+                writer.write(objectMapper.writeValueAsString(request));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    private Map<String, CodeReviewResult> readResults(String output) throws IOException {
+        Map<String, CodeReviewResult> results = new LinkedHashMap<>();
+        for (String line : output.split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = objectMapper.readTree(line);
+            String id = node.path("custom_id").asText();
+            JsonNode response = node.path("response");
+            JsonNode error = node.path("error");
+            if (!error.isNull() && !error.isMissingNode() || response.path("status_code").asInt() != 200) {
+                logger.warn("Batch review of {} failed: {}", id, errorOf(node));
+                continue;
+            }
+            JsonNode body = response.path("body");
+            CodeReviewResult result = agent.structuredReviewResult(body.path("choices").path(0).path("message").path("content").asText());
+            if (body.path("usage").has("total_tokens")) {
+                result.setTokensUsed(body.path("usage").path("total_tokens").asInt());
+            }
+            results.put(id, result);
+        }
+        return results;
+    }
+
+    private void logFailures(String errors) throws IOException {
+        for (String line : errors.split("\n")) {
+            if (!line.isBlank()) {
+                JsonNode node = objectMapper.readTree(line);
+                logger.warn("Batch review of {} failed: {}", node.path("custom_id").asText(), errorOf(node));
+            }
+        }
+    }
+
+    private String firstError(String errors) throws IOException {
+        for (String line : errors.split("\n")) {
+            if (!line.isBlank()) {
+                return errorOf(objectMapper.readTree(line));
+            }
+        }
+        return "no error details";
+    }
+
+    private static String errorOf(JsonNode node) {
+        JsonNode error = node.path("error");
+        if (error.isNull() || error.isMissingNode()) {
+            error = node.path("response").path("body").path("error");
+        }
+        return error.path("message").asText(error.toString());
+    }
+
+    private static List<Map<String, String>> toOpenAiMessages(List<ChatMessage> messages) {
+        List<Map<String, String>> converted = new ArrayList<>();
+        for (ChatMessage message : messages) {
+            String role = switch (message.type()) {
+                case SYSTEM -> "system";
+                case AI -> "assistant";
+                default -> "user";
+            };
+            converted.add(Map.of("role", role, "content", ChatMessages.text(message)));
+        }
+        return converted;
+    }
+}
@@ -0,0 +1,140 @@
+package com.csharma.reviewpilot.langchain4j.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Minimal client for the OpenAI Batch API: upload a JSONL request file, create a batch from it,
+ * poll the batch and download its output. Works against any OpenAI-compatible base URL.
+ */
+public class OpenAiBatchClient {
+    private static final Set<String> TERMINAL_STATUSES = Set.of("completed", "failed", "expired", "cancelled");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http;
+    private final String baseUrl;
+    private final String apiKey;
+
+    public OpenAiBatchClient(String baseUrl, String apiKey) {
+        this(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build(), baseUrl, apiKey);
+    }
+
+    public OpenAiBatchClient(HttpClient http, String baseUrl, String apiKey) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            throw new IllegalStateException("OPENAI_API_KEY environment variable is not set");
+        }
+        this.http = http;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.apiKey = apiKey;
+    }
+
+    /**
+     * State of a batch as reported by the API; the file ids are null until the batch has output
+     */
+    public record Batch(String id, String status, String outputFileId, String errorFileId,
+                        int completed, int failed, int total) {
+        public boolean isTerminal() {
+            return TERMINAL_STATUSES.contains(status);
+        }
+    }
+
+    /**
+     * Upload a JSONL request file for batch use, streamed from disk
+     *
+     * @return the file id
+     */
+    public String uploadFile(Path file) throws IOException, InterruptedException {
+        String boundary = "----reviewpilot-" + UUID.randomUUID();
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"purpose\"\r\n\r\n"
+                + "batch\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + file.getFileName() + "\"\r\n"
+                + "Content-Type: application/jsonl\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        HttpRequest request = request("/files")
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofString(head),
+                        HttpRequest.BodyPublishers.ofFile(file),
+                        HttpRequest.BodyPublishers.ofString(tail)))
+                .build();
+        return send(request).path("id").asText();
+    }
+
+    /**
+     * Create a batch running every request of an uploaded file against {@code endpoint}
+     */
+    public Batch createBatch(String inputFileId, String endpoint, String completionWindow) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "input_file_id", inputFileId,
+                "endpoint", endpoint,
+                "completion_window", completionWindow));
+        HttpRequest request = request("/batches")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return toBatch(send(request));
+    }
+
+    public Batch retrieveBatch(String batchId) throws IOException, InterruptedException {
+        return toBatch(send(request("/batches/" + batchId).GET().build()));
+    }
+
+    /**
+     * Download a file's content, e.g. the JSONL output of a batch
+     */
+    public String fileContent(String fileId) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request("/files/" + fileId + "/content").GET().build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        checkStatus(response);
+        return response.body();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMinutes(5))
+                .header("Authorization", "Bearer " + apiKey);
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        checkStatus(response);
+        return objectMapper.readTree(response.body());
+    }
+
+    private static void checkStatus(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(String.format("%s %s returned %d: %s", response.request().method(),
+                    response.request().uri().getPath(), response.statusCode(), response.body()));
+        }
+    }
+
+    private static Batch toBatch(JsonNode node) {
+        JsonNode counts = node.path("request_counts");
+        return new Batch(
+                node.path("id").asText(),
+                node.path("status").asText(),
+                textOrNull(node.path("output_file_id")),
+                textOrNull(node.path("error_file_id")),
+                counts.path("completed").asInt(),
+                counts.path("failed").asInt(),
+                counts.path("total").asInt());
+    }
+
+    private static String textOrNull(JsonNode node) {
+        return node.isTextual() ? node.asText() : null;
+    }
+}
@@ -10,6 +10,7 @@ import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -41,6 +42,9 @@ public class ReviewPilotCLI implements Runnable {
         @Option(names = {"--max-tokens"}, description = "Maximum tokens", defaultValue = "4000")
         private Integer maxTokens;
         
+        @Option(names = {"--context-window"}, description = "Model context window in tokens (default: known window of --model)")
+        private Integer contextWindow;
+        
         @Option(names = {"--custom-prompt"}, description = "Custom review prompt")
         private String customPrompt;
         
@@ -53,12 +57,78 @@ public class ReviewPilotCLI implements Runnable {
         @Option(names = {"--no-quality"}, description = "Skip code quality analysis")
         private Boolean noQuality;
         
-        @Option(names = {"--no-memory"}, description = "Disable conversation memory")
+        @Option(names = {"--no-memory"}, description = "Do not keep the review for follow-up questions")
         private Boolean noMemory;
         
+        @Option(names = {"--memory-dir"}, description = "Directory for follow-up conversations")
+        private String memoryDir;
+        
         @Option(names = {"--no-vector-search"}, description = "Disable vector search")
         private Boolean noVectorSearch;
         
+        @Option(names = {"--repo-path"}, description = "Local checkout to search for code related to the changes")
+        private String repoPath;
+        
+        @Option(names = {"--top-k"}, description = "Related code chunks attached to each prompt", defaultValue = "5")
+        private Integer topK;
+        
+        @Option(names = {"--embedding-model"}, description = "Embedding model for code search, or 'hashing' to index offline", defaultValue = "text-embedding-ada-002")
+        private String embeddingModel;
+        
+        @Option(names = {"--structured"}, description = "Single-call review with a JSON answer (needs a model with JSON mode, e.g. gpt-4-turbo)")
+        private Boolean structured;
+        
+        @Option(names = {"--stream"}, description = "Print the review as the model generates it")
+        private Boolean stream;
+        
+        @Option(names = {"--no-preprocess"}, description = "Send the raw diff, without dropping lock files, generated code and extra context")
+        private Boolean noPreprocess;
+        
+        @Option(names = {"--context-lines"}, description = "Unchanged lines kept around each change", defaultValue = "3")
+        private Integer contextLines;
+        
+        @Option(names = {"--exclude"}, split = ",", description = "Globs of paths to leave out of the review, e.g. docs/**")
+        private List<String> excludes;
+        
+        @Option(names = {"--chunk-size"}, description = "Maximum tokens of diff per review chunk", defaultValue = "2000")
+        private Integer chunkSize;
+        
+        @Option(names = {"--max-parallel-chunks"}, description = "Maximum chunks reviewed concurrently", defaultValue = "4")
+        private Integer maxParallelChunks;
+        
+        @Option(names = {"--incremental"}, description = "Review only the changes pushed since the last review of this PR")
+        private Boolean incremental;
+        
+        @Option(names = {"--state-dir"}, description = "Directory for incremental review state")
+        private String stateDir;
+        
+        @Option(names = {"--no-cache"}, description = "Always call the model instead of reusing cached answers")
+        private Boolean noCache;
+        
+        @Option(names = {"--cache-dir"}, description = "Directory for cached model responses")
+        private String cacheDir;
+        
+        @Option(names = {"--base-url"}, description = "OpenAI-compatible API base URL", defaultValue = "https://api.openai.com/v1")
+        private String baseUrl;
+        
+        @Option(names = {"--cascade"}, description = "Triage hunks with a small model and send only risky ones to --model")
+        private Boolean cascade;
+        
+        @Option(names = {"--triage-model"}, description = "Small model that scores hunks and reviews routine ones", defaultValue = "gpt-3.5-turbo")
+        private String triageModel;
+        
+        @Option(names = {"--escalation-threshold"}, description = "Risk score (0-100) from which a hunk goes to --model", defaultValue = "50")
+        private Integer escalationThreshold;
+        
+        @Option(names = {"--no-resilience"}, description = "Call the model without retries, hedging or circuit breaking")
+        private Boolean noResilience;
+        
+        @Option(names = {"--max-retries"}, description = "Retries of throttled, failed or timed-out model calls", defaultValue = "3")
+        private Integer maxRetries;
+        
+        @Option(names = {"--hedge-percentile"}, description = "Race a second call once a call is slower than this latency percentile (0 to disable)", defaultValue = "95")
+        private Double hedgePercentile;
+        
         @Parameters(index = "0", description = "Repository owner")
         private String repoOwner;
         
@@ -78,12 +148,43 @@ public class ReviewPilotCLI implements Runnable {
                 config.setModelName(model);
                 config.setTemperature(temperature);
                 config.setMaxTokens(maxTokens);
+                config.setContextWindow(contextWindow);
                 config.setCustomPrompt(customPrompt);
                 config.setIncludeSecurityAnalysis(noSecurity == null || !noSecurity);
                 config.setIncludePerformanceAnalysis(noPerformance == null || !noPerformance);
                 config.setIncludeCodeQualityAnalysis(noQuality == null || !noQuality);
                 config.setEnableMemory(noMemory == null || !noMemory);
+                if (memoryDir != null) {
+                    config.setMemoryDirectory(memoryDir);
+                }
                 config.setEnableVectorSearch(noVectorSearch == null || !noVectorSearch);
+                config.setRepositoryPath(repoPath);
+                config.setVectorSearchTopK(topK);
+                config.setEmbeddingModelName(embeddingModel);
+                config.setStructuredOutput(structured != null && structured);
+                config.setStreaming(stream != null && stream);
+                config.setPreprocessDiff(noPreprocess == null || !noPreprocess);
+                config.setContextLines(contextLines);
+                if (excludes != null) {
+                    config.setExcludePaths(excludes);
+                }
+                config.setChunkSize(chunkSize);
+                config.setMaxParallelChunks(maxParallelChunks);
+                config.setIncremental(incremental != null && incremental);
+                if (stateDir != null) {
+                    config.setStateDirectory(stateDir);
+                }
+                config.setEnableCache(noCache == null || !noCache);
+                if (cacheDir != null) {
+                    config.setCacheDirectory(cacheDir);
+                }
+                config.setOpenAiBaseUrl(baseUrl);
+                config.setEnableCascade(cascade != null && cascade);
+                config.setTriageModelName(triageModel);
+                config.setEscalationThreshold(escalationThreshold);
+                config.setEnableResilience(noResilience == null || !noResilience);
+                config.setMaxRetries(maxRetries);
+                config.setHedgePercentile(hedgePercentile);
                 
                 System.out.println("🚀 ReviewPilot LangChain4j");
                 System.out.println("=".repeat(50));
@@ -95,14 +196,203 @@ public class ReviewPilotCLI implements Runnable {
                 System.out.println();
                 
                 // Initialize orchestrator
-                ReviewOrchestrator orchestrator = new ReviewOrchestrator(config);
-                
-                // Run review
-                System.out.println("⏳ Starting review...");
-                CodeReviewResult result = orchestrator.runReview(repoOwner, repoName, prNumber);
+                CodeReviewResult result;
+                try (ReviewOrchestrator orchestrator = new ReviewOrchestrator(config)) {
+                    // Run review
+                    System.out.println("⏳ Starting review...");
+                    if (config.getStreaming()) {
+                        System.out.println("📝 Summary:");
+                        result = orchestrator.runReview(repoOwner, repoName, prNumber, token -> {
+                            System.out.print(token);
+                            System.out.flush();
+                        });
+                        System.out.println();
+                        System.out.println();
+                    } else {
+                        result = orchestrator.runReview(repoOwner, repoName, prNumber);
+                    }
+                }
                 
                 // Display results
-                displayResults(result);
+                displayResults(result, !config.getStreaming());
+                
+            } catch (Exception e) {
+                System.err.println("❌ Error: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    @Command(name = "ask", description = "Ask a follow-up question about the last review of a pull request")
+    static class AskCommand implements Runnable {
+        
+        @Option(names = {"--provider", "-p"}, description = "Git provider (github, gitlab, bitbucket)", defaultValue = "github")
+        private String provider;
+        
+        @Option(names = {"--agent", "-a"}, description = "AI agent (openai, anthropic, cohere)", defaultValue = "openai")
+        private String agent;
+        
+        @Option(names = {"--model", "-m"}, description = "LLM model name", defaultValue = "gpt-4")
+        private String model;
+        
+        @Option(names = {"--max-tokens"}, description = "Maximum tokens", defaultValue = "4000")
+        private Integer maxTokens;
+        
+        @Option(names = {"--context-window"}, description = "Model context window in tokens (default: known window of --model)")
+        private Integer contextWindow;
+        
+        @Option(names = {"--memory-dir"}, description = "Directory for follow-up conversations")
+        private String memoryDir;
+        
+        @Parameters(index = "0", description = "Repository owner")
+        private String repoOwner;
+        
+        @Parameters(index = "1", description = "Repository name")
+        private String repoName;
+        
+        @Parameters(index = "2", description = "Pull request number")
+        private Integer prNumber;
+        
+        @Parameters(index = "3", description = "Question about the review")
+        private String question;
+
+        @Override
+        public void run() {
+            try {
+                ReviewConfig config = new ReviewConfig();
+                config.setProvider(provider);
+                config.setAgent(agent);
+                config.setModelName(model);
+                config.setMaxTokens(maxTokens);
+                config.setContextWindow(contextWindow);
+                if (memoryDir != null) {
+                    config.setMemoryDirectory(memoryDir);
+                }
+                
+                try (ReviewOrchestrator orchestrator = new ReviewOrchestrator(config)) {
+                    System.out.println(orchestrator.ask(repoOwner, repoName, prNumber, question));
+                }
+                
+            } catch (Exception e) {
+                System.err.println("❌ Error: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    @Command(name = "batch", description = "Review many pull requests in one discounted OpenAI batch (may take up to 24h)")
+    static class BatchCommand implements Runnable {
+        
+        @Option(names = {"--provider", "-p"}, description = "Git provider (github, gitlab, bitbucket)", defaultValue = "github")
+        private String provider;
+        
+        @Option(names = {"--model", "-m"}, description = "LLM model name", defaultValue = "gpt-4")
+        private String model;
+        
+        @Option(names = {"--temperature", "-t"}, description = "LLM temperature", defaultValue = "0.1")
+        private Double temperature;
+        
+        @Option(names = {"--max-tokens"}, description = "Maximum tokens", defaultValue = "4000")
+        private Integer maxTokens;
+        
+        @Option(names = {"--context-window"}, description = "Model context window in tokens (default: known window of --model)")
+        private Integer contextWindow;
+        
+        @Option(names = {"--custom-prompt"}, description = "Custom review prompt")
+        private String customPrompt;
+        
+        @Option(names = {"--no-security"}, description = "Skip security analysis")
+        private Boolean noSecurity;
+        
+        @Option(names = {"--no-performance"}, description = "Skip performance analysis")
+        private Boolean noPerformance;
+        
+        @Option(names = {"--no-quality"}, description = "Skip code quality analysis")
+        private Boolean noQuality;
+        
+        @Option(names = {"--json-mode"}, description = "Ask for JSON mode responses (needs a model with JSON mode, e.g. gpt-4-turbo)")
+        private Boolean jsonMode;
+        
+        @Option(names = {"--no-memory"}, description = "Do not keep the reviews for follow-up questions")
+        private Boolean noMemory;
+        
+        @Option(names = {"--no-preprocess"}, description = "Send the raw diffs, without dropping lock files, generated code and extra context")
+        private Boolean noPreprocess;
+        
+        @Option(names = {"--exclude"}, split = ",", description = "Globs of paths to leave out of the review, e.g. docs/**")
+        private List<String> excludes;
+        
+        @Option(names = {"--base-url"}, description = "OpenAI-compatible API base URL", defaultValue = "https://api.openai.com/v1")
+        private String baseUrl;
+        
+        @Option(names = {"--batch-dir"}, description = "Directory for the batch request and output files")
+        private String batchDir;
+        
+        @Option(names = {"--poll-seconds"}, description = "Seconds between batch status checks", defaultValue = "30")
+        private Integer pollSeconds;
+        
+        @Parameters(index = "0", description = "Repository owner")
+        private String repoOwner;
+        
+        @Parameters(index = "1", description = "Repository name")
+        private String repoName;
+        
+        @Parameters(index = "2..*", arity = "1..*", description = "Pull request numbers")
+        private List<Integer> prNumbers;
+
+        @Override
+        public void run() {
+            try {
+                ReviewConfig config = new ReviewConfig();
+                config.setProvider(provider);
+                config.setAgent("openai");
+                config.setModelName(model);
+                config.setTemperature(temperature);
+                config.setMaxTokens(maxTokens);
+                config.setContextWindow(contextWindow);
+                config.setCustomPrompt(customPrompt);
+                config.setIncludeSecurityAnalysis(noSecurity == null || !noSecurity);
+                config.setIncludePerformanceAnalysis(noPerformance == null || !noPerformance);
+                config.setIncludeCodeQualityAnalysis(noQuality == null || !noQuality);
+                config.setStructuredOutput(jsonMode != null && jsonMode);
+                config.setEnableMemory(noMemory == null || !noMemory);
+                config.setPreprocessDiff(noPreprocess == null || !noPreprocess);
+                if (excludes != null) {
+                    config.setExcludePaths(excludes);
+                }
+                config.setOpenAiBaseUrl(baseUrl);
+                if (batchDir != null) {
+                    config.setBatchDirectory(batchDir);
+                }
+                config.setBatchPollSeconds(pollSeconds);
+                
+                System.out.println("🚀 ReviewPilot LangChain4j - batch review");
+                System.out.println("=".repeat(50));
+                System.out.printf("Repository: %s/%s%n", repoOwner, repoName);
+                System.out.printf("PRs: %d%n", prNumbers.size());
+                System.out.println();
+                
+                System.out.println("⏳ Submitting batch, this can take a while...");
+                Map<Integer, CodeReviewResult> results;
+                try (ReviewOrchestrator orchestrator = new ReviewOrchestrator(config)) {
+                    results = orchestrator.runBatchReview(repoOwner, repoName, prNumbers);
+                }
+                
+                String[][] rows = prNumbers.stream().map(prNumber -> {
+                    CodeReviewResult result = results.get(prNumber);
+                    if (result == null) {
+                        return new String[]{"#" + prNumber, "failed", "", "", ""};
+                    }
+                    return new String[]{
+                        "#" + prNumber,
+                        String.format("%.1f", result.getCodeQualityScore() != null ? result.getCodeQualityScore() : 0.0),
+                        String.valueOf(result.getIssues() != null ? result.getIssues().size() : 0),
+                        String.valueOf(result.getSecurityConcerns() != null ? result.getSecurityConcerns().size() : 0),
+                        String.valueOf(result.getTokensUsed() != null ? result.getTokensUsed() : 0)
+                    };
+                }).toArray(String[][]::new);
+                System.out.println(AsciiTable.getTable(new String[]{"PR", "Quality", "Issues", "Security", "Tokens"}, rows));
+                System.out.printf("✅ %d of %d reviews completed%n", results.size(), prNumbers.size());
                 
             } catch (Exception e) {
                 System.err.println("❌ Error: " + e.getMessage());
@@ -157,12 +447,14 @@ public class ReviewPilotCLI implements Runnable {
         CommandLine.usage(this, System.out);
     }
 
-    private static void displayResults(CodeReviewResult result) {
+    private static void displayResults(CodeReviewResult result, boolean showSummary) {
         System.out.println("📊 Review Results");
         System.out.println("=".repeat(50));
         
-        System.out.printf("📝 Summary: %s%n", result.getSummary());
-        System.out.println();
+        if (showSummary) {
+            System.out.printf("📝 Summary: %s%n", result.getSummary());
+            System.out.println();
+        }
         
         // Metrics table
         String[][] metricsData = {
@@ -181,7 +473,7 @@ public class ReviewPilotCLI implements Runnable {
         if (result.getIssues() != null && !result.getIssues().isEmpty()) {
             System.out.println("❌ Issues Found:");
             for (Map<String, Object> issue : result.getIssues()) {
-                System.out.printf("  • %s%n", issue.get("message"));
+                System.out.printf("  • %s%s%n", issue.get("message"), issue.containsKey("tier") ? " [" + issue.get("tier") + "]" : "");
             }
             System.out.println();
         }
@@ -219,6 +511,8 @@ public class ReviewPilotCLI implements Runnable {
     public static void main(String[] args) {
         CommandLine commandLine = new CommandLine(new ReviewPilotCLI());
         commandLine.addSubcommand("review", new ReviewCommand());
+        commandLine.addSubcommand("ask", new AskCommand());
+        commandLine.addSubcommand("batch", new BatchCommand());
         commandLine.addSubcommand("config", new ConfigCommand());
         commandLine.addSubcommand("version", new VersionCommand());
         
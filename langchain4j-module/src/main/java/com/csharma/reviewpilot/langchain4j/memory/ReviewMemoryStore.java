@@ -0,0 +1,95 @@
+package com.csharma.reviewpilot.langchain4j.memory;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversation store with a hot tier of the most recently used conversations in memory and every
+ * conversation written through to {@code <directory>/<id>.json}, so follow-ups survive a restart.
+ * Conversations evicted from the hot tier are read back from disk on their next use.
+ */
+public class ReviewMemoryStore implements ChatMemoryStore {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewMemoryStore.class);
+
+    private final Path directory;
+    private final Map<Object, List<ChatMessage>> hot;
+
+    public ReviewMemoryStore(Path directory, int maxHotEntries) {
+        this.directory = directory;
+        this.hot = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, List<ChatMessage>> eldest) {
+                return size() > maxHotEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized List<ChatMessage> getMessages(Object memoryId) {
+        List<ChatMessage> messages = hot.get(memoryId);
+        if (messages == null) {
+            messages = load(memoryId);
+            hot.put(memoryId, messages);
+        }
+        return new ArrayList<>(messages);
+    }
+
+    @Override
+    public synchronized void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        hot.put(memoryId, List.copyOf(messages));
+        Path file = fileFor(memoryId);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "memory-", ".tmp");
+            try {
+                Files.writeString(temp, ChatMessageSerializer.messagesToJson(messages), StandardCharsets.UTF_8);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to persist conversation {}, keeping it in memory only: {}", memoryId, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void deleteMessages(Object memoryId) {
+        hot.remove(memoryId);
+        try {
+            Files.deleteIfExists(fileFor(memoryId));
+        } catch (IOException e) {
+            logger.warn("Failed to delete conversation {}: {}", memoryId, e.getMessage());
+        }
+    }
+
+    private List<ChatMessage> load(Object memoryId) {
+        Path file = fileFor(memoryId);
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        try {
+            return List.copyOf(ChatMessageDeserializer.messagesFromJson(Files.readString(file, StandardCharsets.UTF_8)));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable conversation {}: {}", file, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Path fileFor(Object memoryId) {
+        return directory.resolve(memoryId.toString().replaceAll("[^A-Za-z0-9._-]", "_") + ".json");
+    }
+}
@@ -0,0 +1,109 @@
+package com.csharma.reviewpilot.langchain4j.memory;
+
+import com.csharma.reviewpilot.langchain4j.agent.ChatMessages;
+import com.csharma.reviewpilot.langchain4j.agent.TokenBudget;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chat memory bounded to {@code maxTokens}. A leading system message (the review the conversation is
+ * about) is always kept; when the window overflows, the oldest turns are replaced by a model-written
+ * summary so that the newest turns fill at most half the window. If summarising fails the oldest
+ * turns are dropped instead, as a plain token window would.
+ */
+public class SummarizingChatMemory implements ChatMemory {
+    private static final Logger logger = LoggerFactory.getLogger(SummarizingChatMemory.class);
+    static final String SUMMARY_PREFIX = "Summary of the earlier conversation: ";
+    private static final String SUMMARY_INSTRUCTION = "Summarise this conversation about a code review in a few sentences. "
+            + "Keep every question asked, conclusion reached and file, issue or decision mentioned.";
+
+    private final Object id;
+    private final ChatMemoryStore store;
+    private final TokenBudget budget;
+    private final int maxTokens;
+    private final ChatLanguageModel summarizer;
+
+    public SummarizingChatMemory(Object id, ChatMemoryStore store, TokenBudget budget, int maxTokens, ChatLanguageModel summarizer) {
+        this.id = id;
+        this.store = store;
+        this.budget = budget;
+        this.maxTokens = maxTokens;
+        this.summarizer = summarizer;
+    }
+
+    @Override
+    public Object id() {
+        return id;
+    }
+
+    @Override
+    public void add(ChatMessage message) {
+        List<ChatMessage> messages = store.getMessages(id);
+        messages.add(message);
+        if (budget.count(messages) > maxTokens) {
+            messages = compact(messages);
+        }
+        store.updateMessages(id, messages);
+    }
+
+    @Override
+    public List<ChatMessage> messages() {
+        return store.getMessages(id);
+    }
+
+    @Override
+    public void clear() {
+        store.deleteMessages(id);
+    }
+
+    private List<ChatMessage> compact(List<ChatMessage> messages) {
+        int first = messages.get(0) instanceof SystemMessage && !isSummary(messages.get(0)) ? 1 : 0;
+        int keepFrom = messages.size() - 1;
+        while (keepFrom - 1 > first && budget.count(messages.subList(keepFrom - 1, messages.size())) <= maxTokens / 2) {
+            keepFrom--;
+        }
+        List<ChatMessage> compacted = new ArrayList<>(messages.subList(0, first));
+        String summary = summarize(messages.subList(first, keepFrom));
+        if (summary != null) {
+            compacted.add(SystemMessage.from(SUMMARY_PREFIX + summary));
+        }
+        compacted.addAll(messages.subList(keepFrom, messages.size()));
+        logger.debug("Compacted conversation {} from {} to {} tokens", id, budget.count(messages), budget.count(compacted));
+        return compacted;
+    }
+
+    private String summarize(List<ChatMessage> turns) {
+        if (summarizer == null || turns.isEmpty()) {
+            return null;
+        }
+        StringBuilder transcript = new StringBuilder();
+        for (ChatMessage turn : turns) {
+            String speaker = switch (turn.type()) {
+                case USER -> "Reviewer";
+                case AI -> "Assistant";
+                default -> "Context";
+            };
+            transcript.append(speaker).append(": ").append(ChatMessages.text(turn)).append("\n\n");
+        }
+        try {
+            return summarizer.generate(List.of(SystemMessage.from(SUMMARY_INSTRUCTION), UserMessage.from(transcript.toString())))
+                    .content().text();
+        } catch (Exception e) {
+            logger.warn("Could not summarise conversation {}, dropping its oldest turns: {}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isSummary(ChatMessage message) {
+        return ChatMessages.text(message).startsWith(SUMMARY_PREFIX);
+    }
+}
@@ -17,6 +17,7 @@ public class CodeReviewResult {
     private Double reviewTime;
     private Integer tokensUsed;
     private String modelUsed;
+    private Map<String, String> findingTiers;
 
     public CodeReviewResult() {}
 
@@ -55,6 +56,13 @@ public class CodeReviewResult {
     public String getModelUsed() { return modelUsed; }
     public void setModelUsed(String modelUsed) { this.modelUsed = modelUsed; }
 
+    /**
+     * For tiered reviews, the tier that produced each suggestion, security concern and performance
+     * issue, keyed by the finding; issues carry their tier under {@code "tier"}
+     */
+    public Map<String, String> getFindingTiers() { return findingTiers; }
+    public void setFindingTiers(Map<String, String> findingTiers) { this.findingTiers = findingTiers; }
+
     @Override
     public String toString() {
         return "CodeReviewResult{" +
@@ -1,7 +1,9 @@
 package com.csharma.reviewpilot.langchain4j.model;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data model for pull request details
@@ -21,6 +23,8 @@ public class PullRequestDetails {
     private String author;
     private List<String> labels;
     private List<String> assignees;
+    private String headSha;
+    private Map<String, String> fileShas = new HashMap<>();
 
     public PullRequestDetails() {}
 
@@ -80,6 +84,29 @@ public class PullRequestDetails {
     public List<String> getAssignees() { return assignees; }
     public void setAssignees(List<String> assignees) { this.assignees = assignees; }
 
+    public String getHeadSha() { return headSha; }
+    public void setHeadSha(String headSha) { this.headSha = headSha; }
+
+    /** Blob SHA of every file changed by the pull request, at the head commit. */
+    public Map<String, String> getFileShas() { return fileShas; }
+    public void setFileShas(Map<String, String> fileShas) { this.fileShas = fileShas; }
+
+    /**
+     * Copy of these details with a different diff and list of changed files
+     */
+    public PullRequestDetails withDiff(List<String> changedFiles, String diff) {
+        PullRequestDetails details = new PullRequestDetails(title, description, changedFiles, diff,
+                prNumber, repoOwner, repoName, baseBranch, headBranch);
+        details.setCreatedAt(createdAt);
+        details.setUpdatedAt(updatedAt);
+        details.setAuthor(author);
+        details.setLabels(labels);
+        details.setAssignees(assignees);
+        details.setHeadSha(headSha);
+        details.setFileShas(fileShas);
+        return details;
+    }
+
     @Override
     public String toString() {
         return "PullRequestDetails{" +
@@ -1,5 +1,8 @@
 package com.csharma.reviewpilot.langchain4j.model;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration for code review
  */
@@ -9,14 +12,48 @@ public class ReviewConfig {
     private String modelName;
     private Double temperature;
     private Integer maxTokens;
+    private Integer contextWindow;
     private Boolean includeSecurityAnalysis;
     private Boolean includePerformanceAnalysis;
     private Boolean includeCodeQualityAnalysis;
     private String customPrompt;
     private Boolean enableMemory;
+    private Integer memoryMaxTokens;
+    private Integer memoryHotEntries;
+    private String memoryDirectory;
     private Boolean enableVectorSearch;
+    private String repositoryPath;
+    private Integer vectorSearchTopK;
+    private String embeddingModelName;
+    private Boolean preprocessDiff;
+    private Integer contextLines;
+    private List<String> excludePaths;
     private Integer chunkSize;
     private Integer chunkOverlap;
+    private Integer maxParallelChunks;
+    private Integer analysisTimeoutSeconds;
+    private Boolean structuredOutput;
+    private Boolean streaming;
+    private Boolean incremental;
+    private String stateDirectory;
+    private Boolean enableCache;
+    private String cacheDirectory;
+    private Long cacheMaxBytes;
+    private Integer cacheMemoryEntries;
+    private Long cacheTtlHours;
+    private String openAiBaseUrl;
+    private String batchDirectory;
+    private Integer batchPollSeconds;
+    private Boolean enableCascade;
+    private String triageModelName;
+    private Integer escalationThreshold;
+    private Boolean enableResilience;
+    private Integer maxRetries;
+    private Long retryBaseDelayMillis;
+    private Long retryMaxDelayMillis;
+    private Double hedgePercentile;
+    private Integer circuitFailureThreshold;
+    private Integer circuitOpenSeconds;
 
     public ReviewConfig() {
         // Default values
@@ -27,9 +64,94 @@ public class ReviewConfig {
         this.includePerformanceAnalysis = true;
         this.includeCodeQualityAnalysis = true;
         this.enableMemory = true;
+        this.memoryMaxTokens = 3000;
+        this.memoryHotEntries = 32;
+        this.memoryDirectory = System.getProperty("user.home") + "/.reviewpilot/memory";
         this.enableVectorSearch = true;
+        this.vectorSearchTopK = 5;
+        this.embeddingModelName = "text-embedding-ada-002";
+        this.preprocessDiff = true;
+        this.contextLines = 3;
+        this.excludePaths = new ArrayList<>();
         this.chunkSize = 2000;
         this.chunkOverlap = 200;
+        this.maxParallelChunks = 4;
+        this.analysisTimeoutSeconds = 90;
+        this.structuredOutput = false;
+        this.streaming = false;
+        this.incremental = false;
+        this.stateDirectory = System.getProperty("user.home") + "/.reviewpilot/state";
+        this.enableCache = true;
+        this.cacheDirectory = System.getProperty("user.home") + "/.reviewpilot/response-cache";
+        this.cacheMaxBytes = 64L * 1024 * 1024;
+        this.cacheMemoryEntries = 128;
+        this.cacheTtlHours = 168L;
+        this.openAiBaseUrl = "https://api.openai.com/v1";
+        this.batchDirectory = System.getProperty("user.home") + "/.reviewpilot/batches";
+        this.batchPollSeconds = 30;
+        this.enableCascade = false;
+        this.triageModelName = "gpt-3.5-turbo";
+        this.escalationThreshold = 50;
+        this.enableResilience = true;
+        this.maxRetries = 3;
+        this.retryBaseDelayMillis = 500L;
+        this.retryMaxDelayMillis = 20_000L;
+        this.hedgePercentile = 95.0;
+        this.circuitFailureThreshold = 5;
+        this.circuitOpenSeconds = 30;
+    }
+
+    /**
+     * Copy of {@code other}, e.g. to run the same review with another model
+     */
+    public ReviewConfig(ReviewConfig other) {
+        this.provider = other.provider;
+        this.agent = other.agent;
+        this.modelName = other.modelName;
+        this.temperature = other.temperature;
+        this.maxTokens = other.maxTokens;
+        this.contextWindow = other.contextWindow;
+        this.includeSecurityAnalysis = other.includeSecurityAnalysis;
+        this.includePerformanceAnalysis = other.includePerformanceAnalysis;
+        this.includeCodeQualityAnalysis = other.includeCodeQualityAnalysis;
+        this.customPrompt = other.customPrompt;
+        this.enableMemory = other.enableMemory;
+        this.memoryMaxTokens = other.memoryMaxTokens;
+        this.memoryHotEntries = other.memoryHotEntries;
+        this.memoryDirectory = other.memoryDirectory;
+        this.enableVectorSearch = other.enableVectorSearch;
+        this.repositoryPath = other.repositoryPath;
+        this.vectorSearchTopK = other.vectorSearchTopK;
+        this.embeddingModelName = other.embeddingModelName;
+        this.preprocessDiff = other.preprocessDiff;
+        this.contextLines = other.contextLines;
+        this.excludePaths = other.excludePaths == null ? null : new ArrayList<>(other.excludePaths);
+        this.chunkSize = other.chunkSize;
+        this.chunkOverlap = other.chunkOverlap;
+        this.maxParallelChunks = other.maxParallelChunks;
+        this.analysisTimeoutSeconds = other.analysisTimeoutSeconds;
+        this.structuredOutput = other.structuredOutput;
+        this.streaming = other.streaming;
+        this.incremental = other.incremental;
+        this.stateDirectory = other.stateDirectory;
+        this.enableCache = other.enableCache;
+        this.cacheDirectory = other.cacheDirectory;
+        this.cacheMaxBytes = other.cacheMaxBytes;
+        this.cacheMemoryEntries = other.cacheMemoryEntries;
+        this.cacheTtlHours = other.cacheTtlHours;
+        this.openAiBaseUrl = other.openAiBaseUrl;
+        this.batchDirectory = other.batchDirectory;
+        this.batchPollSeconds = other.batchPollSeconds;
+        this.enableCascade = other.enableCascade;
+        this.triageModelName = other.triageModelName;
+        this.escalationThreshold = other.escalationThreshold;
+        this.enableResilience = other.enableResilience;
+        this.maxRetries = other.maxRetries;
+        this.retryBaseDelayMillis = other.retryBaseDelayMillis;
+        this.retryMaxDelayMillis = other.retryMaxDelayMillis;
+        this.hedgePercentile = other.hedgePercentile;
+        this.circuitFailureThreshold = other.circuitFailureThreshold;
+        this.circuitOpenSeconds = other.circuitOpenSeconds;
     }
 
     // Getters and Setters
@@ -48,6 +170,10 @@ public class ReviewConfig {
     public Integer getMaxTokens() { return maxTokens; }
     public void setMaxTokens(Integer maxTokens) { this.maxTokens = maxTokens; }
 
+    /** Context window of the model in tokens; {@code null} uses the known window of {@code modelName}. */
+    public Integer getContextWindow() { return contextWindow; }
+    public void setContextWindow(Integer contextWindow) { this.contextWindow = contextWindow; }
+
     public Boolean getIncludeSecurityAnalysis() { return includeSecurityAnalysis; }
     public void setIncludeSecurityAnalysis(Boolean includeSecurityAnalysis) { this.includeSecurityAnalysis = includeSecurityAnalysis; }
 
@@ -63,15 +189,133 @@ public class ReviewConfig {
     public Boolean getEnableMemory() { return enableMemory; }
     public void setEnableMemory(Boolean enableMemory) { this.enableMemory = enableMemory; }
 
+    /** Tokens of follow-up conversation kept per pull request before older turns are summarised. */
+    public Integer getMemoryMaxTokens() { return memoryMaxTokens; }
+    public void setMemoryMaxTokens(Integer memoryMaxTokens) { this.memoryMaxTokens = memoryMaxTokens; }
+
+    /** Conversations kept in memory; the rest are read back from {@link #getMemoryDirectory()}. */
+    public Integer getMemoryHotEntries() { return memoryHotEntries; }
+    public void setMemoryHotEntries(Integer memoryHotEntries) { this.memoryHotEntries = memoryHotEntries; }
+
+    public String getMemoryDirectory() { return memoryDirectory; }
+    public void setMemoryDirectory(String memoryDirectory) { this.memoryDirectory = memoryDirectory; }
+
     public Boolean getEnableVectorSearch() { return enableVectorSearch; }
     public void setEnableVectorSearch(Boolean enableVectorSearch) { this.enableVectorSearch = enableVectorSearch; }
 
+    /** Local checkout whose code is searched for context; vector search is off while this is unset. */
+    public String getRepositoryPath() { return repositoryPath; }
+    public void setRepositoryPath(String repositoryPath) { this.repositoryPath = repositoryPath; }
+
+    /** Repository chunks attached to each prompt. */
+    public Integer getVectorSearchTopK() { return vectorSearchTopK; }
+    public void setVectorSearchTopK(Integer vectorSearchTopK) { this.vectorSearchTopK = vectorSearchTopK; }
+
+    /** OpenAI embedding model, or {@code hashing} for offline identifier hashing. */
+    public String getEmbeddingModelName() { return embeddingModelName; }
+    public void setEmbeddingModelName(String embeddingModelName) { this.embeddingModelName = embeddingModelName; }
+
+    public Boolean getPreprocessDiff() { return preprocessDiff; }
+    public void setPreprocessDiff(Boolean preprocessDiff) { this.preprocessDiff = preprocessDiff; }
+
+    /** Unchanged lines kept around each change when the diff is preprocessed. */
+    public Integer getContextLines() { return contextLines; }
+    public void setContextLines(Integer contextLines) { this.contextLines = contextLines; }
+
+    /** Globs of further paths to leave out of the review, e.g. {@code docs/**}. */
+    public List<String> getExcludePaths() { return excludePaths; }
+    public void setExcludePaths(List<String> excludePaths) { this.excludePaths = excludePaths; }
+
     public Integer getChunkSize() { return chunkSize; }
     public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
 
     public Integer getChunkOverlap() { return chunkOverlap; }
     public void setChunkOverlap(Integer chunkOverlap) { this.chunkOverlap = chunkOverlap; }
 
+    public Integer getMaxParallelChunks() { return maxParallelChunks; }
+    public void setMaxParallelChunks(Integer maxParallelChunks) { this.maxParallelChunks = maxParallelChunks; }
+
+    public Integer getAnalysisTimeoutSeconds() { return analysisTimeoutSeconds; }
+    public void setAnalysisTimeoutSeconds(Integer analysisTimeoutSeconds) { this.analysisTimeoutSeconds = analysisTimeoutSeconds; }
+
+    public Boolean getStructuredOutput() { return structuredOutput; }
+    public void setStructuredOutput(Boolean structuredOutput) { this.structuredOutput = structuredOutput; }
+
+    public Boolean getStreaming() { return streaming; }
+    public void setStreaming(Boolean streaming) { this.streaming = streaming; }
+
+    public Boolean getIncremental() { return incremental; }
+    public void setIncremental(Boolean incremental) { this.incremental = incremental; }
+
+    public String getStateDirectory() { return stateDirectory; }
+    public void setStateDirectory(String stateDirectory) { this.stateDirectory = stateDirectory; }
+
+    public Boolean getEnableCache() { return enableCache; }
+    public void setEnableCache(Boolean enableCache) { this.enableCache = enableCache; }
+
+    public String getCacheDirectory() { return cacheDirectory; }
+    public void setCacheDirectory(String cacheDirectory) { this.cacheDirectory = cacheDirectory; }
+
+    public Long getCacheMaxBytes() { return cacheMaxBytes; }
+    public void setCacheMaxBytes(Long cacheMaxBytes) { this.cacheMaxBytes = cacheMaxBytes; }
+
+    public Integer getCacheMemoryEntries() { return cacheMemoryEntries; }
+    public void setCacheMemoryEntries(Integer cacheMemoryEntries) { this.cacheMemoryEntries = cacheMemoryEntries; }
+
+    public Long getCacheTtlHours() { return cacheTtlHours; }
+    public void setCacheTtlHours(Long cacheTtlHours) { this.cacheTtlHours = cacheTtlHours; }
+
+    /** OpenAI-compatible API root used for chat, embeddings and batches, e.g. {@code https://api.openai.com/v1}. */
+    public String getOpenAiBaseUrl() { return openAiBaseUrl; }
+    public void setOpenAiBaseUrl(String openAiBaseUrl) { this.openAiBaseUrl = openAiBaseUrl; }
+
+    /** Where batch reviews keep their request and output files. */
+    public String getBatchDirectory() { return batchDirectory; }
+    public void setBatchDirectory(String batchDirectory) { this.batchDirectory = batchDirectory; }
+
+    /** Seconds between status checks of a submitted batch. */
+    public Integer getBatchPollSeconds() { return batchPollSeconds; }
+    public void setBatchPollSeconds(Integer batchPollSeconds) { this.batchPollSeconds = batchPollSeconds; }
+
+    /** Score each hunk with {@link #getTriageModelName()} first and send only risky ones to {@link #getModelName()}. */
+    public Boolean getEnableCascade() { return enableCascade; }
+    public void setEnableCascade(Boolean enableCascade) { this.enableCascade = enableCascade; }
+
+    /** Small, fast model that scores hunks for risk and reviews the routine ones. */
+    public String getTriageModelName() { return triageModelName; }
+    public void setTriageModelName(String triageModelName) { this.triageModelName = triageModelName; }
+
+    /** Risk score (0-100) from which a hunk is escalated to the large model. */
+    public Integer getEscalationThreshold() { return escalationThreshold; }
+    public void setEscalationThreshold(Integer escalationThreshold) { this.escalationThreshold = escalationThreshold; }
+
+    /** Retry, hedge and circuit-break every chat model call. */
+    public Boolean getEnableResilience() { return enableResilience; }
+    public void setEnableResilience(Boolean enableResilience) { this.enableResilience = enableResilience; }
+
+    /** Retries of a call that was throttled (429), failed (5xx) or timed out. */
+    public Integer getMaxRetries() { return maxRetries; }
+    public void setMaxRetries(Integer maxRetries) { this.maxRetries = maxRetries; }
+
+    /** Backoff before the first retry; it doubles per retry, capped at {@link #getRetryMaxDelayMillis()}, and is jittered. */
+    public Long getRetryBaseDelayMillis() { return retryBaseDelayMillis; }
+    public void setRetryBaseDelayMillis(Long retryBaseDelayMillis) { this.retryBaseDelayMillis = retryBaseDelayMillis; }
+
+    public Long getRetryMaxDelayMillis() { return retryMaxDelayMillis; }
+    public void setRetryMaxDelayMillis(Long retryMaxDelayMillis) { this.retryMaxDelayMillis = retryMaxDelayMillis; }
+
+    /** Latency percentile of recent calls after which a duplicate call is raced against a slow one; {@code null} or 0 never hedges. */
+    public Double getHedgePercentile() { return hedgePercentile; }
+    public void setHedgePercentile(Double hedgePercentile) { this.hedgePercentile = hedgePercentile; }
+
+    /** Consecutive failures of a model endpoint that open its circuit. */
+    public Integer getCircuitFailureThreshold() { return circuitFailureThreshold; }
+    public void setCircuitFailureThreshold(Integer circuitFailureThreshold) { this.circuitFailureThreshold = circuitFailureThreshold; }
+
+    /** Seconds an open circuit fails fast before letting a probe call through. */
+    public Integer getCircuitOpenSeconds() { return circuitOpenSeconds; }
+    public void setCircuitOpenSeconds(Integer circuitOpenSeconds) { this.circuitOpenSeconds = circuitOpenSeconds; }
+
     @Override
     public String toString() {
         return "ReviewConfig{" +
@@ -80,11 +324,27 @@ public class ReviewConfig {
                 ", modelName='" + modelName + '\'' +
                 ", temperature=" + temperature +
                 ", maxTokens=" + maxTokens +
+                ", contextWindow=" + contextWindow +
                 ", includeSecurityAnalysis=" + includeSecurityAnalysis +
                 ", includePerformanceAnalysis=" + includePerformanceAnalysis +
                 ", includeCodeQualityAnalysis=" + includeCodeQualityAnalysis +
                 ", enableMemory=" + enableMemory +
                 ", enableVectorSearch=" + enableVectorSearch +
+                ", repositoryPath='" + repositoryPath + '\'' +
+                ", preprocessDiff=" + preprocessDiff +
+                ", contextLines=" + contextLines +
+                ", chunkSize=" + chunkSize +
+                ", chunkOverlap=" + chunkOverlap +
+                ", maxParallelChunks=" + maxParallelChunks +
+                ", structuredOutput=" + structuredOutput +
+                ", streaming=" + streaming +
+                ", incremental=" + incremental +
+                ", enableCache=" + enableCache +
+                ", enableCascade=" + enableCascade +
+                ", triageModelName='" + triageModelName + '\'' +
+                ", escalationThreshold=" + escalationThreshold +
+                ", enableResilience=" + enableResilience +
+                ", openAiBaseUrl='" + openAiBaseUrl + '\'' +
                 '}';
     }
 } 
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.csharma.reviewpilot.langchain4j.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What was last reviewed for a pull request: the head commit, the blob SHA of every changed file at
+ * that commit, and the review result, so the next run can review only what changed since.
+ */
+public class ReviewState {
+    private String headSha;
+    private Map<String, String> fileShas = new HashMap<>();
+    private CodeReviewResult result;
+    private long reviewedAt;
+
+    public ReviewState() {}
+
+    public ReviewState(String headSha, Map<String, String> fileShas, CodeReviewResult result) {
+        this.headSha = headSha;
+        this.fileShas = fileShas;
+        this.result = result;
+        this.reviewedAt = System.currentTimeMillis();
+    }
+
+    // Getters and Setters
+    public String getHeadSha() { return headSha; }
+    public void setHeadSha(String headSha) { this.headSha = headSha; }
+
+    public Map<String, String> getFileShas() { return fileShas; }
+    public void setFileShas(Map<String, String> fileShas) { this.fileShas = fileShas; }
+
+    public CodeReviewResult getResult() { return result; }
+    public void setResult(CodeReviewResult result) { this.result = result; }
+
+    public long getReviewedAt() { return reviewedAt; }
+    public void setReviewedAt(long reviewedAt) { this.reviewedAt = reviewedAt; }
+}
@@ -0,0 +1,75 @@
+package com.csharma.reviewpilot.langchain4j.preprocess;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Summarises files whose content gives them away where the path does not: binary patches, new files
+ * whose leading comment carries a code generator's marker, and minified scripts and stylesheets.
+ * Both checks are narrow on purpose: a summarised file never reaches the reviewer, so a hand-written
+ * comment or one long line in a source file must not be enough.
+ */
+public class ContentFilter implements DiffFilter {
+    // Markers written by tools, e.g. "// Code generated by protoc-gen-go. DO NOT EDIT." or "@generated"
+    private static final Pattern GENERATED_MARKER = Pattern.compile("@generated\\b|Code generated .*DO NOT EDIT\\.");
+    // First hunk of a new file, or of a change starting on its first line
+    private static final Pattern FIRST_LINE_HUNK = Pattern.compile("^@@ -\\d+(,\\d+)? \\+1(,\\d+)? @@");
+    private static final Pattern COMMENT_LINE = Pattern.compile("^\\s*(//|/\\*|\\*|#|<!--|--|;|\"\"\"|$)");
+    // Markers are checked in the leading comment only, where tools put them
+    private static final int MARKER_LINES = 10;
+    private static final Set<String> MINIFIABLE_EXTENSIONS = Set.of("js", "mjs", "cjs", "css", "map");
+    private static final int MINIFIED_LINE_LENGTH = 500;
+    private static final int MINIFIED_MIN_LINES = 3;
+
+    @Override
+    public String name() {
+        return "content";
+    }
+
+    @Override
+    public DiffFile apply(DiffFile file) {
+        if (file.header().contains("\nGIT binary patch\n")) {
+            int patch = file.header().indexOf("GIT binary patch\n");
+            return new DiffFile(file.path(), file.header().substring(0, patch), List.of("# binary file changed, contents omitted\n"));
+        }
+        if (generated(file)) {
+            return file.summarised("generated file");
+        }
+        if (minified(file)) {
+            return file.summarised("minified content");
+        }
+        return file;
+    }
+
+    private static boolean generated(DiffFile file) {
+        if (file.hunks().isEmpty() || !FIRST_LINE_HUNK.matcher(file.hunks().get(0)).find()) {
+            return false;
+        }
+        List<String> lines = DiffFile.lines(file.hunks().get(0));
+        for (String line : lines.subList(1, Math.min(MARKER_LINES + 1, lines.size()))) {
+            if (!line.startsWith("+") || !COMMENT_LINE.matcher(line.substring(1)).find()) {
+                return false;
+            }
+            if (GENERATED_MARKER.matcher(line).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Several added lines, nearly all of them very long, in a script, stylesheet or source map
+     */
+    private static boolean minified(DiffFile file) {
+        String name = file.path().substring(file.path().lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || !MINIFIABLE_EXTENSIONS.contains(name.substring(dot + 1))) {
+            return false;
+        }
+        List<String> added = file.addedLines();
+        long longLines = added.stream().filter(line -> line.length() > MINIFIED_LINE_LENGTH).count();
+        return added.size() >= MINIFIED_MIN_LINES && longLines * 4 >= added.size() * 3L;
+    }
+}
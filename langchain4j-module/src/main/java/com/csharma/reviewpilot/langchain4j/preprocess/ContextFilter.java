@@ -0,0 +1,121 @@
+package com.csharma.reviewpilot.langchain4j.preprocess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shrinks the unchanged context around each change to at most {@code contextLines} lines, splitting a
+ * hunk where a run of context is dropped and renumbering the hunk headers
+ */
+public class ContextFilter implements DiffFilter {
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@(.*)$", Pattern.DOTALL);
+
+    private final int contextLines;
+
+    public ContextFilter(int contextLines) {
+        this.contextLines = Math.max(0, contextLines);
+    }
+
+    @Override
+    public String name() {
+        return "context";
+    }
+
+    @Override
+    public DiffFile apply(DiffFile file) {
+        List<String> hunks = new ArrayList<>(file.hunks().size());
+        boolean changed = false;
+        for (String hunk : file.hunks()) {
+            List<String> shrunk = shrink(hunk);
+            changed |= shrunk.size() != 1 || !shrunk.get(0).equals(hunk);
+            hunks.addAll(shrunk);
+        }
+        return changed ? file.withHunks(hunks) : file;
+    }
+
+    private List<String> shrink(String hunk) {
+        List<String> lines = DiffFile.lines(hunk);
+        Matcher header = HUNK_HEADER.matcher(lines.get(0));
+        if (!header.matches()) {
+            return List.of(hunk);
+        }
+        // A side with no lines is numbered by the line it follows, so its next line is start + 1
+        int oldStart = Integer.parseInt(header.group(1)) + ("0".equals(header.group(2)) ? 1 : 0);
+        int newStart = Integer.parseInt(header.group(3)) + ("0".equals(header.group(4)) ? 1 : 0);
+        String section = header.group(5);
+        List<String> body = lines.subList(1, lines.size());
+
+        // Keep every change and the context lines within contextLines of one
+        boolean[] keep = new boolean[body.size()];
+        int lastChange = Integer.MIN_VALUE / 2;
+        for (int i = 0; i < body.size(); i++) {
+            if (isChange(body.get(i))) {
+                lastChange = i;
+            }
+            keep[i] = i - lastChange <= contextLines;
+        }
+        int nextChange = Integer.MAX_VALUE / 2;
+        for (int i = body.size() - 1; i >= 0; i--) {
+            if (isChange(body.get(i))) {
+                nextChange = i;
+            }
+            keep[i] |= nextChange - i <= contextLines;
+        }
+        boolean shrunk = false;
+        for (int i = 0; i < body.size(); i++) {
+            // "\ No newline at end of file" belongs to the line before it
+            if (body.get(i).startsWith("\\") && i > 0) {
+                keep[i] = keep[i - 1];
+            }
+            shrunk |= !keep[i];
+        }
+        if (!shrunk) {
+            return List.of(hunk);
+        }
+
+        List<String> hunks = new ArrayList<>();
+        int oldLine = oldStart;
+        int newLine = newStart;
+        int i = 0;
+        while (i < body.size()) {
+            if (!keep[i]) {
+                oldLine += consumesOld(body.get(i)) ? 1 : 0;
+                newLine += consumesNew(body.get(i)) ? 1 : 0;
+                i++;
+                continue;
+            }
+            int runOldStart = oldLine;
+            int runNewStart = newLine;
+            int oldCount = 0;
+            int newCount = 0;
+            StringBuilder run = new StringBuilder();
+            for (; i < body.size() && keep[i]; i++) {
+                String line = body.get(i);
+                oldCount += consumesOld(line) ? 1 : 0;
+                newCount += consumesNew(line) ? 1 : 0;
+                run.append(line);
+            }
+            oldLine += oldCount;
+            newLine += newCount;
+            String suffix = hunks.isEmpty() ? section : "\n";
+            hunks.add(String.format("@@ -%d,%d +%d,%d @@%s",
+                    oldCount == 0 ? runOldStart - 1 : runOldStart, oldCount,
+                    newCount == 0 ? runNewStart - 1 : runNewStart, newCount, suffix) + run);
+        }
+        return hunks;
+    }
+
+    private static boolean isChange(String line) {
+        return line.startsWith("+") || line.startsWith("-");
+    }
+
+    private static boolean consumesOld(String line) {
+        return line.startsWith(" ") || line.startsWith("-") || line.equals("\n");
+    }
+
+    private static boolean consumesNew(String line) {
+        return line.startsWith(" ") || line.startsWith("+") || line.equals("\n");
+    }
+}
@@ -0,0 +1,122 @@
+package com.csharma.reviewpilot.langchain4j.preprocess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One file section of a unified diff: its path, the header lines up to the first hunk, and the hunks.
+ * Lines keep their terminators so {@link #text()} reproduces the section verbatim.
+ */
+public record DiffFile(String path, String header, List<String> hunks) {
+    private static final String FILE_HEADER = "diff --git ";
+
+    public String text() {
+        return header + String.join("", hunks);
+    }
+
+    public DiffFile withHunks(List<String> hunks) {
+        return new DiffFile(path, header, hunks);
+    }
+
+    /**
+     * This file with its hunks replaced by a one-line note, so the review still knows it changed
+     */
+    public DiffFile summarised(String reason) {
+        return new DiffFile(path, header, List.of("# " + reason + ", " + changedLines() + " changed lines omitted\n"));
+    }
+
+    /**
+     * Number of added and removed lines
+     */
+    public int changedLines() {
+        int changed = 0;
+        for (String hunk : hunks) {
+            for (String line : lines(hunk)) {
+                if (line.startsWith("+") || line.startsWith("-")) {
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Added lines without their {@code +} marker
+     */
+    public List<String> addedLines() {
+        List<String> added = new ArrayList<>();
+        for (String hunk : hunks) {
+            for (String line : lines(hunk)) {
+                if (line.startsWith("+")) {
+                    added.add(line.substring(1));
+                }
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Split a unified diff into its file sections; text before the first {@code diff --git} line
+     * becomes a section with an empty path
+     */
+    public static List<DiffFile> parse(String diff) {
+        List<DiffFile> files = new ArrayList<>();
+        if (diff == null || diff.isEmpty()) {
+            return files;
+        }
+        String path = "";
+        StringBuilder header = new StringBuilder();
+        List<String> hunks = new ArrayList<>();
+        StringBuilder hunk = null;
+        for (String line : lines(diff)) {
+            if (line.startsWith(FILE_HEADER)) {
+                if (hunk != null) {
+                    hunks.add(hunk.toString());
+                }
+                if (header.length() > 0 || !hunks.isEmpty()) {
+                    files.add(new DiffFile(path, header.toString(), hunks));
+                }
+                path = pathOf(line);
+                header = new StringBuilder(line);
+                hunks = new ArrayList<>();
+                hunk = null;
+            } else if (line.startsWith("@@")) {
+                if (hunk != null) {
+                    hunks.add(hunk.toString());
+                }
+                hunk = new StringBuilder(line);
+            } else if (hunk != null) {
+                hunk.append(line);
+            } else {
+                header.append(line);
+            }
+        }
+        if (hunk != null) {
+            hunks.add(hunk.toString());
+        }
+        if (header.length() > 0 || !hunks.isEmpty()) {
+            files.add(new DiffFile(path, header.toString(), hunks));
+        }
+        return files;
+    }
+
+    /**
+     * Lines of {@code text}, each with its terminator
+     */
+    public static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            end = end < 0 ? text.length() : end + 1;
+            lines.add(text.substring(start, end));
+            start = end;
+        }
+        return lines;
+    }
+
+    private static String pathOf(String headerLine) {
+        int newPath = headerLine.lastIndexOf(" b/");
+        return (newPath >= 0 ? headerLine.substring(newPath + 3) : headerLine.substring(FILE_HEADER.length())).strip();
+    }
+}
@@ -0,0 +1,21 @@
+package com.csharma.reviewpilot.langchain4j.preprocess;
+
+/**
+ * One stage of the {@link DiffPreprocessor}: removes or reduces content that is not worth sending to
+ * the model
+ */
+public interface DiffFilter {
+
+    /**
+     * Name the filter's savings are reported under
+     */
+    String name();
+
+    /**
+     * Filter one file of the diff
+     *
+     * @param file the file as left by the previous filters
+     * @return the file unchanged, a reduced copy, or {@code null} to drop it from the diff
+     */
+    DiffFile apply(DiffFile file);
+}
@@ -0,0 +1,109 @@
+package com.csharma.reviewpilot.langchain4j.preprocess;
+
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs a pull request's diff through a chain of {@link DiffFilter}s before it is reviewed, and reports
+ * the bytes and tokens each filter saved
+ */
+public class DiffPreprocessor {
+    private static final Logger logger = LoggerFactory.getLogger(DiffPreprocessor.class);
+
+    private final List<DiffFilter> filters;
+    private final ToIntFunction<String> tokenCounter;
+
+    public DiffPreprocessor(List<DiffFilter> filters, ToIntFunction<String> tokenCounter) {
+        this.filters = List.copyOf(filters);
+        this.tokenCounter = tokenCounter;
+    }
+
+    /**
+     * The default chain: path globs (plus the configured excludes), content heuristics, whitespace-only
+     * hunks, then context trimmed to {@code contextLines}
+     */
+    public static DiffPreprocessor fromConfig(ReviewConfig config, ToIntFunction<String> tokenCounter) {
+        return new DiffPreprocessor(List.of(
+                new PathFilter(config.getExcludePaths()),
+                new ContentFilter(),
+                new WhitespaceFilter(),
+                new ContextFilter(config.getContextLines())), tokenCounter);
+    }
+
+    /**
+     * What one filter removed from a diff
+     */
+    public record FilterStats(String filter, int files, long bytesSaved, long tokensSaved) {}
+
+    /**
+     * The filtered diff and the savings of each filter, in chain order
+     */
+    public record Result(String diff, List<FilterStats> stats) {
+        public long bytesSaved() {
+            return stats.stream().mapToLong(FilterStats::bytesSaved).sum();
+        }
+
+        public long tokensSaved() {
+            return stats.stream().mapToLong(FilterStats::tokensSaved).sum();
+        }
+    }
+
+    public Result process(String diff) {
+        Map<String, long[]> savings = new LinkedHashMap<>();
+        filters.forEach(filter -> savings.put(filter.name(), new long[3]));
+        StringBuilder filtered = new StringBuilder(diff == null ? 0 : diff.length());
+        for (DiffFile file : DiffFile.parse(diff)) {
+            DiffFile current = file;
+            for (DiffFilter filter : filters) {
+                DiffFile next = filter.apply(current);
+                if (next != current) {
+                    String before = current.text();
+                    String after = next == null ? "" : next.text();
+                    long[] saved = savings.get(filter.name());
+                    saved[0]++;
+                    saved[1] += before.getBytes(StandardCharsets.UTF_8).length - after.getBytes(StandardCharsets.UTF_8).length;
+                    saved[2] += tokenCounter.applyAsInt(before) - tokenCounter.applyAsInt(after);
+                }
+                current = next;
+                if (current == null) {
+                    break;
+                }
+            }
+            if (current != null) {
+                filtered.append(current.text());
+            }
+        }
+        List<FilterStats> stats = new ArrayList<>(savings.size());
+        savings.forEach((name, saved) -> stats.add(new FilterStats(name, (int) saved[0], saved[1], saved[2])));
+        return new Result(filtered.toString(), stats);
+    }
+
+    /**
+     * Copy of the pull request with its diff preprocessed. The list of changed files is kept, since
+     * summarised files are still part of the change.
+     */
+    public PullRequestDetails apply(PullRequestDetails prDetails) {
+        Result result = process(prDetails.getDiff());
+        if (result.diff().equals(prDetails.getDiff())) {
+            return prDetails;
+        }
+        if (result.bytesSaved() > 0) {
+            logger.info("Preprocessing removed {} bytes, {} tokens from the diff", result.bytesSaved(), result.tokensSaved());
+            for (FilterStats stats : result.stats()) {
+                if (stats.files() > 0) {
+                    logger.info("  {}: {} files, {} bytes, {} tokens", stats.filter(), stats.files(), stats.bytesSaved(), stats.tokensSaved());
+                }
+            }
+        }
+        return prDetails.withDiff(prDetails.getChangedFiles(), result.diff());
+    }
+}
@@ -0,0 +1,45 @@
+package com.csharma.reviewpilot.langchain4j.preprocess;
+
+import java.util.List;
+
+/**
+ * Summarises files whose path marks them as noise for a review: lock files, vendored and generated
+ * directories, minified assets. Each glob carries the reason printed in place of the file's hunks.
+ */
+public class PathFilter implements DiffFilter {
+    public static final List<String> LOCK_FILES = List.of(
+            "**/package-lock.json", "**/npm-shrinkwrap.json", "**/yarn.lock", "**/pnpm-lock.yaml",
+            "**/Cargo.lock", "**/Gemfile.lock", "**/poetry.lock", "**/Pipfile.lock", "**/composer.lock",
+            "**/go.sum", "**/gradle.lockfile", "**/*.lock");
+    public static final List<String> GENERATED_PATHS = List.of(
+            "**/node_modules/**", "**/vendor/**", "**/dist/**", "**/build/**", "**/target/**",
+            "**/generated/**", "**/generated-sources/**", "**/*.pb.go", "**/*_pb2.py", "**/*.g.dart",
+            "**/*.generated.*", "**/*.designer.cs");
+    public static final List<String> MINIFIED_ASSETS = List.of(
+            "**/*.min.js", "**/*.min.css", "**/*.map", "**/*.bundle.js");
+
+    private final PathTrie<String> reasons = new PathTrie<>();
+
+    /**
+     * Filter with the default lock file, generated and minified globs, plus {@code excludes}
+     */
+    public PathFilter(List<String> excludes) {
+        LOCK_FILES.forEach(glob -> reasons.add(glob, "lock file"));
+        GENERATED_PATHS.forEach(glob -> reasons.add(glob, "generated or vendored file"));
+        MINIFIED_ASSETS.forEach(glob -> reasons.add(glob, "minified asset"));
+        if (excludes != null) {
+            excludes.forEach(glob -> reasons.add(glob, "excluded by pattern " + glob));
+        }
+    }
+
+    @Override
+    public String name() {
+        return "paths";
+    }
+
+    @Override
+    public DiffFile apply(DiffFile file) {
+        String reason = file.path().isEmpty() ? null : reasons.match(file.path());
+        return reason == null ? file : file.summarised(reason);
+    }
+}
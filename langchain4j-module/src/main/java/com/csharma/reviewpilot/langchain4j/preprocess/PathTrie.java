@@ -0,0 +1,122 @@
+package com.csharma.reviewpilot.langchain4j.preprocess;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Set of path globs compiled into a trie of path segments, so a path is matched against all globs in
+ * one walk instead of one regex per glob. Supports {@code *} and {@code ?} within a segment and
+ * {@code **} for any number of segments. When several globs match, the one added first wins.
+ *
+ * @param <V> value associated with each glob
+ */
+public class PathTrie<V> {
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    private static final class Node<V> {
+        final Map<String, Node<V>> literals = new HashMap<>();
+        final List<Map.Entry<Pattern, Node<V>>> wildcards = new ArrayList<>();
+        Node<V> anyDepth;
+        V value;
+        int order = Integer.MAX_VALUE;
+    }
+
+    private record Match<V>(V value, int order) {}
+
+    public void add(String glob, V value) {
+        Node<V> node = root;
+        for (String segment : glob.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals("**")) {
+                if (node.anyDepth == null) {
+                    node.anyDepth = new Node<>();
+                }
+                node = node.anyDepth;
+            } else if (segment.contains("*") || segment.contains("?")) {
+                Node<V> child = null;
+                for (Map.Entry<Pattern, Node<V>> wildcard : node.wildcards) {
+                    if (wildcard.getKey().pattern().equals(toRegex(segment))) {
+                        child = wildcard.getValue();
+                    }
+                }
+                if (child == null) {
+                    child = new Node<>();
+                    node.wildcards.add(Map.entry(Pattern.compile(toRegex(segment)), child));
+                }
+                node = child;
+            } else {
+                node = node.literals.computeIfAbsent(segment, key -> new Node<>());
+            }
+        }
+        if (node.value == null) {
+            node.value = value;
+            node.order = size++;
+        }
+    }
+
+    /**
+     * @return the value of the first-added glob matching {@code path}, or {@code null}
+     */
+    public V match(String path) {
+        String[] segments = path.split("/");
+        Match<V> match = match(root, segments, 0);
+        return match == null ? null : match.value();
+    }
+
+    private Match<V> match(Node<V> node, String[] segments, int index) {
+        Match<V> best = null;
+        if (node.anyDepth != null) {
+            // ** consumes zero or more segments
+            for (int next = index; next <= segments.length; next++) {
+                best = better(best, match(node.anyDepth, segments, next));
+            }
+        }
+        if (index == segments.length) {
+            return node.value == null ? best : better(best, new Match<>(node.value, node.order));
+        }
+        String segment = segments[index];
+        Node<V> literal = node.literals.get(segment);
+        if (literal != null) {
+            best = better(best, match(literal, segments, index + 1));
+        }
+        for (Map.Entry<Pattern, Node<V>> wildcard : node.wildcards) {
+            if (wildcard.getKey().matcher(segment).matches()) {
+                best = better(best, match(wildcard.getValue(), segments, index + 1));
+            }
+        }
+        return best;
+    }
+
+    private static <V> Match<V> better(Match<V> a, Match<V> b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.order() <= b.order() ? a : b;
+    }
+
+    private static String toRegex(String segment) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : segment.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+}
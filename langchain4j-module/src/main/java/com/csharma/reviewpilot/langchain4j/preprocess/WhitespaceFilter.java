@@ -0,0 +1,71 @@
+package com.csharma.reviewpilot.langchain4j.preprocess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Drops hunks that only change whitespace around lines (re-indentation, trailing spaces, line
+ * endings, blank lines). Lines are compared with only their leading and trailing whitespace
+ * trimmed, so whitespace inside a line ({@code "a b"} to {@code "ab"}, {@code int x} to
+ * {@code intx}) is a real change. In indentation-sensitive files (Python, YAML, Makefiles, ...)
+ * leading whitespace is kept too, since re-indenting moves code in or out of a block. A file left
+ * without hunks is summarised.
+ */
+public class WhitespaceFilter implements DiffFilter {
+    private static final Set<String> INDENTATION_SENSITIVE_EXTENSIONS = Set.of(
+            "py", "pyi", "pyx", "yaml", "yml", "mk", "coffee", "haml", "pug", "jade", "sass", "styl", "nim", "fs", "hs");
+    private static final Set<String> INDENTATION_SENSITIVE_NAMES = Set.of("makefile", "gnumakefile");
+
+    @Override
+    public String name() {
+        return "whitespace";
+    }
+
+    @Override
+    public DiffFile apply(DiffFile file) {
+        boolean keepIndentation = indentationSensitive(file.path());
+        List<String> kept = new ArrayList<>(file.hunks().size());
+        for (String hunk : file.hunks()) {
+            if (!whitespaceOnly(hunk, keepIndentation)) {
+                kept.add(hunk);
+            }
+        }
+        if (kept.size() == file.hunks().size()) {
+            return file;
+        }
+        return kept.isEmpty() ? file.summarised("whitespace-only changes") : file.withHunks(kept);
+    }
+
+    private static boolean indentationSensitive(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        return INDENTATION_SENSITIVE_NAMES.contains(name)
+                || (dot >= 0 && INDENTATION_SENSITIVE_EXTENSIONS.contains(name.substring(dot + 1)));
+    }
+
+    private static boolean whitespaceOnly(String hunk, boolean keepIndentation) {
+        List<String> removed = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        boolean changed = false;
+        for (String line : DiffFile.lines(hunk)) {
+            if (line.startsWith("-")) {
+                addSignificant(removed, line, keepIndentation);
+                changed = true;
+            } else if (line.startsWith("+")) {
+                addSignificant(added, line, keepIndentation);
+                changed = true;
+            }
+        }
+        return changed && removed.equals(added);
+    }
+
+    private static void addSignificant(List<String> target, String line, boolean keepIndentation) {
+        String content = line.substring(1).stripTrailing();
+        if (content.isBlank()) {
+            return;
+        }
+        target.add(keepIndentation ? content : content.stripLeading());
+    }
+}
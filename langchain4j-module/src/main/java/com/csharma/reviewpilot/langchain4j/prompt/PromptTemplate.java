@@ -0,0 +1,149 @@
+package com.csharma.reviewpilot.langchain4j.prompt;
+
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A prompt template with {@code {{name}}} placeholders, parsed once into alternating literal and
+ * placeholder segments. Rendering appends every segment exactly once into a buffer sized for the
+ * output, or straight into an {@link Appendable}, and never scans substituted values, so a diff
+ * containing {@code {{title}}} is sent as written. Placeholders without a value are kept verbatim.
+ */
+public final class PromptTemplate {
+    private static final int MAX_CACHED = 256;
+    private static final Map<String, PromptTemplate> COMPILED = new ConcurrentHashMap<>();
+
+    private final String source;
+    // literals.length == names.length + 1; the output is literals[0] names[0] literals[1] ... literals[n]
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private PromptTemplate(String source, List<String> literals, List<String> names) {
+        this.source = source;
+        this.literals = literals.toArray(String[]::new);
+        this.names = names.toArray(String[]::new);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * The compiled form of {@code template}, parsed on first use and cached
+     */
+    public static PromptTemplate compile(String template) {
+        PromptTemplate compiled = COMPILED.get(template);
+        if (compiled == null) {
+            if (COMPILED.size() >= MAX_CACHED) {
+                COMPILED.clear();
+            }
+            compiled = COMPILED.computeIfAbsent(template, PromptTemplate::parse);
+        }
+        return compiled;
+    }
+
+    private static PromptTemplate parse(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int literalStart = 0;
+        int open = template.indexOf("{{");
+        while (open >= 0) {
+            int close = template.indexOf("}}", open + 2);
+            if (close < 0) {
+                break;
+            }
+            String name = template.substring(open + 2, close);
+            if (isName(name)) {
+                literals.add(template.substring(literalStart, open));
+                names.add(name);
+                literalStart = close + 2;
+                open = template.indexOf("{{", literalStart);
+            } else {
+                open = template.indexOf("{{", open + 1);
+            }
+        }
+        literals.add(template.substring(literalStart));
+        return new PromptTemplate(template, literals, names);
+    }
+
+    private static boolean isName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Render with the pull request placeholders {@code {{title}}}, {@code {{description}}},
+     * {@code {{changedFiles}}} and {@code {{diff}}}
+     */
+    public String render(PullRequestDetails prDetails) {
+        return render(values(prDetails));
+    }
+
+    public static Map<String, CharSequence> values(PullRequestDetails prDetails) {
+        Map<String, CharSequence> values = new HashMap<>();
+        values.put("title", prDetails.getTitle());
+        values.put("description", prDetails.getDescription());
+        values.put("changedFiles", String.valueOf(prDetails.getChangedFiles()));
+        values.put("diff", prDetails.getDiff());
+        return values;
+    }
+
+    /**
+     * Render into a string built in one pass with its final capacity. A {@code null} value renders
+     * as an empty string.
+     */
+    public String render(Map<String, ? extends CharSequence> values) {
+        int length = literalLength;
+        for (String name : names) {
+            length += valueOf(name, values).length();
+        }
+        StringBuilder out = new StringBuilder(length);
+        try {
+            renderTo(out, values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Render straight into {@code out}, e.g. a request body writer, without building the prompt in memory
+     */
+    public void renderTo(Appendable out, Map<String, ? extends CharSequence> values) throws IOException {
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            out.append(valueOf(names[i], values));
+        }
+        out.append(literals[names.length]);
+    }
+
+    private static CharSequence valueOf(String name, Map<String, ? extends CharSequence> values) {
+        if (!values.containsKey(name)) {
+            return "{{" + name + "}}";
+        }
+        CharSequence value = values.get(name);
+        return value == null ? "" : value;
+    }
+
+    public List<String> placeholders() {
+        return List.of(names);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -1,6 +1,11 @@
 package com.csharma.reviewpilot.langchain4j.provider;
 
 import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.model.ReviewState;
+import org.kohsuke.github.GHCommit;
+import org.kohsuke.github.GHCompare;
+import org.kohsuke.github.GHFileNotFoundException;
+import org.kohsuke.github.GHPullRequestFileDetail;
 import org.kohsuke.github.GHRepository;
 import org.kohsuke.github.GHPullRequest;
 import org.kohsuke.github.GitHub;
@@ -10,7 +15,12 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -31,45 +41,17 @@ public class GitHubProvider implements PullRequestProvider {
         try {
             GHRepository repository = gitHub.getRepository(repoOwner + "/" + repoName);
             GHPullRequest pullRequest = repository.getPullRequest(prNumber);
+            List<GHPullRequestFileDetail> files = pullRequest.listFiles().toList();
             
-            // Get changed files
-            List<String> changedFiles = pullRequest.listFiles().toList().stream()
-                    .map(file -> file.getFilename())
-                    .collect(Collectors.toList());
-            
-            // Get diff (simplified - in real implementation you'd get the full diff)
-            String diff = "";
-            if (!changedFiles.isEmpty()) {
-                diff = "Files changed: " + String.join(", ", changedFiles);
+            // Build the unified diff from the per-file patches
+            List<String> changedFiles = new ArrayList<>();
+            StringBuilder diff = new StringBuilder();
+            for (GHPullRequestFileDetail file : files) {
+                changedFiles.add(file.getFilename());
+                appendPatch(diff, file.getFilename(), file.getPreviousFilename(), file.getPatch());
             }
             
-            PullRequestDetails details = new PullRequestDetails(
-                    pullRequest.getTitle(),
-                    pullRequest.getBody() != null ? pullRequest.getBody() : "",
-                    changedFiles,
-                    diff,
-                    pullRequest.getNumber(),
-                    repoOwner,
-                    repoName,
-                    pullRequest.getBase().getRef(),
-                    pullRequest.getHead().getRef()
-            );
-            
-            // Set additional details
-            details.setCreatedAt(pullRequest.getCreatedAt().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
-            details.setUpdatedAt(pullRequest.getUpdatedAt().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
-            details.setAuthor(pullRequest.getUser().getLogin());
-            
-            // Set labels
-            details.setLabels(pullRequest.getLabels().stream()
-                    .map(label -> label.getName())
-                    .collect(Collectors.toList()));
-            
-            // Set assignees
-            details.setAssignees(pullRequest.getAssignees().stream()
-                    .map(assignee -> assignee.getLogin())
-                    .collect(Collectors.toList()));
-            
+            PullRequestDetails details = toDetails(pullRequest, repoOwner, repoName, files, changedFiles, diff.toString());
             logger.info("Successfully fetched PR details: {}", details.getTitle());
             return details;
             
@@ -79,6 +61,115 @@ public class GitHubProvider implements PullRequestProvider {
         }
     }
 
+    @Override
+    public PullRequestDetails fetchChangesSince(String repoOwner, String repoName, int prNumber, ReviewState previous) throws Exception {
+        logger.info("Fetching changes to PR #{} in {}/{} since {}", prNumber, repoOwner, repoName, previous.getHeadSha());
+        
+        try {
+            GHRepository repository = gitHub.getRepository(repoOwner + "/" + repoName);
+            GHPullRequest pullRequest = repository.getPullRequest(prNumber);
+            List<GHPullRequestFileDetail> files = pullRequest.listFiles().toList();
+            String headSha = pullRequest.getHead().getSha();
+            Map<String, String> reviewedShas = previous.getFileShas();
+            
+            List<String> changedFiles = new ArrayList<>();
+            StringBuilder diff = new StringBuilder();
+            GHCompare compare = headSha.equals(previous.getHeadSha()) ? null : compareSince(repository, previous.getHeadSha(), headSha);
+            if (compare != null) {
+                Set<String> prFiles = files.stream().map(GHPullRequestFileDetail::getFilename).collect(Collectors.toSet());
+                for (GHCommit.File file : compare.getFiles()) {
+                    String filename = file.getFileName();
+                    // Skip files brought in by merging the base branch, and files whose content was already reviewed
+                    if (!prFiles.contains(filename) && !reviewedShas.containsKey(filename)) {
+                        continue;
+                    }
+                    if (file.getSha() != null && file.getSha().equals(reviewedShas.get(filename))) {
+                        continue;
+                    }
+                    changedFiles.add(filename);
+                    appendPatch(diff, filename, file.getPreviousFilename(), file.getPatch());
+                }
+            } else if (!headSha.equals(previous.getHeadSha())) {
+                // History was rewritten, so fall back to the full patch of every file whose blob changed
+                for (GHPullRequestFileDetail file : files) {
+                    if (!Objects.equals(file.getSha(), reviewedShas.get(file.getFilename()))) {
+                        changedFiles.add(file.getFilename());
+                        appendPatch(diff, file.getFilename(), file.getPreviousFilename(), file.getPatch());
+                    }
+                }
+            }
+            
+            PullRequestDetails details = toDetails(pullRequest, repoOwner, repoName, files, changedFiles, diff.toString());
+            logger.info("Found {} files changed since the last review", changedFiles.size());
+            return details;
+            
+        } catch (IOException e) {
+            logger.error("Error fetching PR changes: {}", e.getMessage());
+            throw new Exception("Failed to fetch pull request changes: " + e.getMessage(), e);
+        }
+    }
+
+    private GHCompare compareSince(GHRepository repository, String previousHead, String headSha) throws IOException {
+        try {
+            GHCompare compare = repository.getCompare(previousHead, headSha);
+            return compare.getStatus() == GHCompare.Status.ahead ? compare : null;
+        } catch (GHFileNotFoundException e) {
+            // The previous head was garbage collected after a force push
+            return null;
+        }
+    }
+
+    private PullRequestDetails toDetails(GHPullRequest pullRequest, String repoOwner, String repoName,
+                                         List<GHPullRequestFileDetail> files, List<String> changedFiles, String diff) throws IOException {
+        PullRequestDetails details = new PullRequestDetails(
+                pullRequest.getTitle(),
+                pullRequest.getBody() != null ? pullRequest.getBody() : "",
+                changedFiles,
+                diff,
+                pullRequest.getNumber(),
+                repoOwner,
+                repoName,
+                pullRequest.getBase().getRef(),
+                pullRequest.getHead().getRef()
+        );
+        
+        // Set additional details
+        details.setCreatedAt(pullRequest.getCreatedAt().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
+        details.setUpdatedAt(pullRequest.getUpdatedAt().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
+        details.setAuthor(pullRequest.getUser().getLogin());
+        details.setHeadSha(pullRequest.getHead().getSha());
+        
+        Map<String, String> fileShas = new HashMap<>();
+        for (GHPullRequestFileDetail file : files) {
+            fileShas.put(file.getFilename(), file.getSha());
+        }
+        details.setFileShas(fileShas);
+        
+        // Set labels
+        details.setLabels(pullRequest.getLabels().stream()
+                .map(label -> label.getName())
+                .collect(Collectors.toList()));
+        
+        // Set assignees
+        details.setAssignees(pullRequest.getAssignees().stream()
+                .map(assignee -> assignee.getLogin())
+                .collect(Collectors.toList()));
+        
+        return details;
+    }
+
+    private static void appendPatch(StringBuilder diff, String filename, String previousFilename, String patch) {
+        diff.append("diff --git a/").append(previousFilename != null ? previousFilename : filename)
+                .append(" b/").append(filename).append('\n');
+        // GitHub omits the patch for binary and very large files
+        if (patch != null) {
+            diff.append(patch);
+            if (!patch.endsWith("\n")) {
+                diff.append('\n');
+            }
+        }
+    }
+
     @Override
     public String getProviderName() {
         return "github";
@@ -1,6 +1,7 @@
 package com.csharma.reviewpilot.langchain4j.provider;
 
 import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.model.ReviewState;
 
 /**
  * Interface for pull request providers
@@ -17,6 +18,22 @@ public interface PullRequestProvider {
      * @throws Exception if there's an error fetching the details
      */
     PullRequestDetails fetchPullRequestDetails(String repoOwner, String repoName, int prNumber) throws Exception;
+
+    /**
+     * Fetch only what changed since a previous review. The returned details carry the diff and
+     * changed files of the interdiff, plus the head SHA and file SHAs of the whole pull request.
+     * Providers that cannot compute an interdiff return the full pull request.
+     *
+     * @param repoOwner repository owner
+     * @param repoName repository name
+     * @param prNumber pull request number
+     * @param previous state recorded by the previous review
+     * @return pull request details restricted to the changes since {@code previous}
+     * @throws Exception if there's an error fetching the details
+     */
+    default PullRequestDetails fetchChangesSince(String repoOwner, String repoName, int prNumber, ReviewState previous) throws Exception {
+        return fetchPullRequestDetails(repoOwner, repoName, prNumber);
+    }
     
     /**
      * Get the provider name
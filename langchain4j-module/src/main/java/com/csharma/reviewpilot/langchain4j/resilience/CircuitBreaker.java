@@ -0,0 +1,98 @@
+package com.csharma.reviewpilot.langchain4j.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker for one model endpoint. After {@code failureThreshold} consecutive failures the
+ * circuit opens and calls fail fast with {@link CircuitOpenException} for {@code openDuration};
+ * then a single probe call is let through, closing the circuit if it succeeds and reopening it if
+ * it fails. Only failures that say the endpoint is unhealthy (throttling, server errors, timeouts)
+ * should be recorded; a rejected request is a healthy answer.
+ */
+public class CircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    // One breaker per endpoint for the whole process, so every agent and tier calling a model shares its health
+    private static final Map<String, CircuitBreaker> ENDPOINTS = new ConcurrentHashMap<>();
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String endpoint;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String endpoint, int failureThreshold, Duration openDuration) {
+        this.endpoint = endpoint;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * The shared breaker of {@code endpoint}, created with these settings on first use
+     */
+    public static CircuitBreaker forEndpoint(String endpoint, int failureThreshold, Duration openDuration) {
+        return ENDPOINTS.computeIfAbsent(endpoint, key -> new CircuitBreaker(key, failureThreshold, openDuration));
+    }
+
+    /**
+     * Permission to make a call
+     *
+     * @throws CircuitOpenException while the circuit is open, or half open with a probe under way
+     */
+    public synchronized void acquire() {
+        if (state == State.OPEN) {
+            long remaining = openedAt + openNanos - System.nanoTime();
+            if (remaining > 0) {
+                throw new CircuitOpenException(endpoint, Duration.ofNanos(remaining));
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                throw new CircuitOpenException(endpoint, Duration.ZERO);
+            }
+            probeInFlight = true;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            logger.info("Circuit for {} closed", endpoint);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                logger.warn("Circuit for {} opened after {} consecutive failures, failing fast for {} ms",
+                        endpoint, consecutiveFailures, openNanos / 1_000_000);
+            }
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+}
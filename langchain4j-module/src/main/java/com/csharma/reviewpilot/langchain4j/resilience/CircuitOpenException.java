@@ -0,0 +1,19 @@
+package com.csharma.reviewpilot.langchain4j.resilience;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of calling a model endpoint whose circuit is open
+ */
+public class CircuitOpenException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public CircuitOpenException(String endpoint, Duration retryAfter) {
+        super("Circuit for " + endpoint + " is open, not calling it for another " + retryAfter.toMillis() + " ms");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
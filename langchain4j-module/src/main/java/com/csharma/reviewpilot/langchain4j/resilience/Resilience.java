@@ -0,0 +1,215 @@
+package com.csharma.reviewpilot.langchain4j.resilience;
+
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import dev.ai4j.openai4j.OpenAiHttpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to one model endpoint through its {@link CircuitBreaker}, retries throttled (429),
+ * failed (5xx) and timed-out calls with full-jitter exponential backoff, and hedges: once a call
+ * has taken longer than the configured percentile of recent latencies, a second identical call is
+ * started and whichever answers first wins. Other errors, e.g. a rejected prompt, are thrown at once.
+ */
+public class Resilience {
+    private static final Logger logger = LoggerFactory.getLogger(Resilience.class);
+
+    // Hedging waits for enough latencies to make the percentile meaningful
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int LATENCY_WINDOW = 128;
+    // Calls block on HTTP, so hedged calls each get a virtual thread
+    private static final ExecutorService HEDGE_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final CircuitBreaker breaker;
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    // Null or not positive to never hedge
+    private final Double hedgePercentile;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int latencyIndex;
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+
+    public Resilience(CircuitBreaker breaker, int maxRetries, Duration baseDelay, Duration maxDelay, Double hedgePercentile) {
+        this.breaker = breaker;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelayMillis = baseDelay.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    /**
+     * Resilience for {@code endpoint} with the configured retry, hedging and circuit settings
+     */
+    public static Resilience forConfig(ReviewConfig config, String endpoint) {
+        return new Resilience(
+                CircuitBreaker.forEndpoint(endpoint, config.getCircuitFailureThreshold(), Duration.ofSeconds(config.getCircuitOpenSeconds())),
+                config.getMaxRetries(),
+                Duration.ofMillis(config.getRetryBaseDelayMillis()),
+                Duration.ofMillis(config.getRetryMaxDelayMillis()),
+                config.getHedgePercentile());
+    }
+
+    /**
+     * Make the call, retrying and hedging as configured
+     *
+     * @throws CircuitOpenException without calling when the endpoint's circuit is open
+     */
+    public <T> T call(Supplier<T> call) {
+        for (int attempt = 0; ; attempt++) {
+            breaker.acquire();
+            RuntimeException failure;
+            try {
+                T result = hedged(call);
+                breaker.recordSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            if (!isRetryable(failure)) {
+                // The endpoint answered; the request itself was at fault
+                breaker.recordSuccess();
+                throw failure;
+            }
+            breaker.recordFailure();
+            if (attempt >= maxRetries) {
+                throw failure;
+            }
+            long delay = backoff(attempt);
+            retries.incrementAndGet();
+            logger.warn("Call to {} failed ({}), retry {} of {} in {} ms",
+                    breaker.endpoint(), failure.getMessage(), attempt + 1, maxRetries, delay);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Full jitter: uniformly random between zero and the capped exponential delay, so clients
+     * throttled together do not retry together
+     */
+    long backoff(int attempt) {
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private <T> T hedged(Supplier<T> call) {
+        long hedgeAfter = hedgeDelayMillis();
+        if (hedgeAfter < 0) {
+            return timed(call);
+        }
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(() -> timed(call), HEDGE_EXECUTOR);
+        try {
+            return primary.get(hedgeAfter, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Slower than the percentile: race a second call against the first
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        hedges.incrementAndGet();
+        logger.debug("Call to {} slower than {} ms, hedging", breaker.endpoint(), hedgeAfter);
+        CompletableFuture<T> backup = CompletableFuture.supplyAsync(() -> timed(call), HEDGE_EXECUTOR);
+
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        for (CompletableFuture<T> attempt : Arrays.asList(primary, backup)) {
+            attempt.whenComplete((result, error) -> {
+                if (error == null) {
+                    first.complete(result);
+                } else if (failed.incrementAndGet() == 2) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            return first.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private <T> T timed(Supplier<T> call) {
+        long start = System.nanoTime();
+        T result = call.get();
+        recordLatency((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private synchronized void recordLatency(long millis) {
+        latencies[latencyIndex] = millis;
+        latencyIndex = (latencyIndex + 1) % latencies.length;
+        latencyCount = Math.min(latencyCount + 1, latencies.length);
+    }
+
+    /**
+     * The configured percentile of recent latencies, or -1 when not hedging
+     */
+    synchronized long hedgeDelayMillis() {
+        if (hedgePercentile == null || hedgePercentile <= 0 || latencyCount < MIN_LATENCY_SAMPLES) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(Math.min(hedgePercentile, 100.0) / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * Whether the failure says the endpoint is struggling, so a later attempt may succeed
+     */
+    static boolean isRetryable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OpenAiHttpException http) {
+                return http.code() == 429 || http.code() >= 500;
+            }
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static RuntimeException unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof RuntimeException runtime ? runtime : new CompletionException(error);
+    }
+
+    public long retries() {
+        return retries.get();
+    }
+
+    public long hedges() {
+        return hedges.get();
+    }
+
+    public CircuitBreaker breaker() {
+        return breaker;
+    }
+}
@@ -0,0 +1,54 @@
+package com.csharma.reviewpilot.langchain4j.resilience;
+
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * Chat model decorator that makes every call through a {@link Resilience}: retried with jittered
+ * backoff, hedged past the latency percentile and failing fast while the endpoint's circuit is open
+ */
+public class ResilientChatLanguageModel implements ChatLanguageModel {
+    private final ChatLanguageModel delegate;
+    private final Resilience resilience;
+
+    public ResilientChatLanguageModel(ChatLanguageModel delegate, Resilience resilience) {
+        this.delegate = delegate;
+        this.resilience = resilience;
+    }
+
+    /**
+     * {@code model} behind the configured resilience for its endpoint, or {@code model} itself when
+     * resilience is disabled
+     */
+    public static ChatLanguageModel wrap(ReviewConfig config, String modelName, ChatLanguageModel model) {
+        if (!Boolean.TRUE.equals(config.getEnableResilience())) {
+            return model;
+        }
+        return new ResilientChatLanguageModel(model, Resilience.forConfig(config, config.getOpenAiBaseUrl() + "#" + modelName));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return resilience.call(() -> delegate.generate(messages));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return resilience.call(() -> delegate.generate(messages, toolSpecifications));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, ToolSpecification toolSpecification) {
+        return resilience.call(() -> delegate.generate(messages, toolSpecification));
+    }
+
+    public Resilience resilience() {
+        return resilience;
+    }
+}
@@ -0,0 +1,127 @@
+package com.csharma.reviewpilot.langchain4j.resilience;
+
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Streaming chat model decorator that makes every call through a {@link Resilience} up to its first
+ * token: a call that fails before answering is retried, one slower to start than the latency
+ * percentile is hedged, and none is made while the endpoint's circuit is open. Once a token has been
+ * passed on the answer is committed, so later errors reach the handler as they are. Of hedged calls,
+ * only the first to answer is streamed; the other's events are dropped.
+ */
+public class ResilientStreamingChatLanguageModel implements StreamingChatLanguageModel {
+    // Each call waits for its first token on a virtual thread, so generate returns at once as streaming models do
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final StreamingChatLanguageModel delegate;
+    private final Resilience resilience;
+
+    public ResilientStreamingChatLanguageModel(StreamingChatLanguageModel delegate, Resilience resilience) {
+        this.delegate = delegate;
+        this.resilience = resilience;
+    }
+
+    /**
+     * {@code model} behind the configured resilience for its endpoint, or {@code model} itself when
+     * resilience is disabled. The circuit is shared with blocking calls to the same endpoint; latencies
+     * are kept apart, since here they measure the time to the first token.
+     */
+    public static StreamingChatLanguageModel wrap(ReviewConfig config, String modelName, StreamingChatLanguageModel model) {
+        if (model == null || !Boolean.TRUE.equals(config.getEnableResilience())) {
+            return model;
+        }
+        return new ResilientStreamingChatLanguageModel(model, Resilience.forConfig(config, config.getOpenAiBaseUrl() + "#" + modelName));
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+        generate(handler, attempt -> delegate.generate(messages, attempt));
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications, StreamingResponseHandler<AiMessage> handler) {
+        generate(handler, attempt -> delegate.generate(messages, toolSpecifications, attempt));
+    }
+
+    @Override
+    public void generate(List<ChatMessage> messages, ToolSpecification toolSpecification, StreamingResponseHandler<AiMessage> handler) {
+        generate(handler, attempt -> delegate.generate(messages, toolSpecification, attempt));
+    }
+
+    public Resilience resilience() {
+        return resilience;
+    }
+
+    private void generate(StreamingResponseHandler<AiMessage> handler, Consumer<StreamingResponseHandler<AiMessage>> call) {
+        // The attempt whose events reach the handler, set by the first one to answer
+        AtomicReference<Object> winner = new AtomicReference<>();
+        EXECUTOR.execute(() -> {
+            try {
+                resilience.call(() -> attempt(handler, call, winner));
+            } catch (RuntimeException e) {
+                if (winner.get() == null) {
+                    handler.onError(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Start one call and wait for its first event: returns once it answers, throws if it fails first
+     */
+    private static Void attempt(StreamingResponseHandler<AiMessage> handler, Consumer<StreamingResponseHandler<AiMessage>> call,
+                                AtomicReference<Object> winner) {
+        Object self = new Object();
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        call.accept(new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {
+                if (claim()) {
+                    handler.onNext(token);
+                }
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                if (claim()) {
+                    handler.onComplete(response);
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                if (!started.completeExceptionally(error) && winner.get() == self) {
+                    handler.onError(error);
+                }
+            }
+
+            private boolean claim() {
+                started.complete(null);
+                return winner.compareAndSet(null, self) || winner.get() == self;
+            }
+        });
+        try {
+            return started.get();
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+}
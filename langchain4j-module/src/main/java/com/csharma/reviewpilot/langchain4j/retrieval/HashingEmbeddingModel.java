@@ -0,0 +1,72 @@
+package com.csharma.reviewpilot.langchain4j.retrieval;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Offline embedding model: identifiers are split into lower-case words (camelCase and snake_case
+ * aware) and hashed into a fixed number of signed buckets. Texts that share names end up close, which
+ * is enough to find definitions referenced by a diff without calling an embedding API.
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+    private final int dimension;
+
+    public HashingEmbeddingModel() {
+        this(256);
+    }
+
+    public HashingEmbeddingModel(int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+        for (TextSegment segment : textSegments) {
+            embeddings.add(Embedding.from(embed(segment.text(), dimension)));
+        }
+        return Response.from(embeddings);
+    }
+
+    static float[] embed(String text, int dimension) {
+        float[] vector = new float[dimension];
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            boolean boundary = !Character.isLetterOrDigit(c)
+                    || (Character.isUpperCase(c) && word.length() > 0 && Character.isLowerCase(word.charAt(word.length() - 1)));
+            if (boundary && word.length() > 1) {
+                add(vector, word.toString().toLowerCase(Locale.ROOT));
+            }
+            if (boundary) {
+                word.setLength(0);
+            }
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            }
+        }
+        return vector;
+    }
+
+    private static void add(float[] vector, String word) {
+        int hash = mix(word.hashCode());
+        int bucket = Math.floorMod(hash, vector.length);
+        vector[bucket] += (hash & 0x40000000) == 0 ? 1f : -1f;
+    }
+
+    // Murmur3 finalizer, so similar words do not land in neighbouring buckets
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,392 @@
+package com.csharma.reviewpilot.langchain4j.retrieval;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate nearest-neighbour index (HNSW) over unit vectors, scored by cosine similarity.
+ * Vectors and the bottom-layer neighbour lists live off-heap in fixed-size pages, so memory grows by
+ * {@code dimension * 4 + (2 * m + 1) * 4} bytes per vector and does not load the Java heap; only the
+ * few nodes on upper layers keep their links on-heap. Deleted vectors stay in the graph as waypoints
+ * and are filtered from results.
+ */
+public class HnswIndex {
+    private static final int PAGE_SIZE = 4096;
+    private static final Comparator<SearchResult> BEST_FIRST = Comparator.comparingDouble(SearchResult::score).reversed();
+    private static final Comparator<SearchResult> WORST_FIRST = Comparator.comparingDouble(SearchResult::score);
+
+    private final int dimension;
+    private final int m;
+    private final int maxLayer0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelFactor;
+    private final Random random = new Random(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<float[][]> scratch;
+
+    private final List<FloatBuffer> vectorPages = new ArrayList<>();
+    private final List<IntBuffer> neighborPages = new ArrayList<>();
+    // node -> links per upper level, each [count, ids...]
+    private final Map<Integer, int[][]> upperNeighbors = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * A vector id and its cosine similarity to the query
+     */
+    public record SearchResult(int id, float score) {}
+
+    public HnswIndex(int dimension) {
+        this(dimension, 16, 100, 64);
+    }
+
+    /**
+     * @param m links per node on upper layers; the bottom layer keeps {@code 2 * m}
+     * @param efConstruction candidates considered when linking a new vector
+     * @param efSearch minimum candidates considered per query
+     */
+    public HnswIndex(int dimension, int m, int efConstruction, int efSearch) {
+        this.dimension = dimension;
+        this.m = m;
+        this.maxLayer0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levelFactor = 1 / Math.log(m);
+        this.scratch = ThreadLocal.withInitial(() -> new float[2][dimension]);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Add a vector; it is normalised to unit length
+     *
+     * @return the id of the vector
+     */
+    public int add(float[] vector) {
+        float[] unit = normalise(vector);
+        lock.writeLock().lock();
+        try {
+            int id = size;
+            if (id % PAGE_SIZE == 0) {
+                vectorPages.add(ByteBuffer.allocateDirect(PAGE_SIZE * dimension * Float.BYTES)
+                        .order(ByteOrder.nativeOrder()).asFloatBuffer());
+                neighborPages.add(ByteBuffer.allocateDirect(PAGE_SIZE * (maxLayer0 + 1) * Integer.BYTES)
+                        .order(ByteOrder.nativeOrder()).asIntBuffer());
+            }
+            vectorPages.get(id / PAGE_SIZE).put((id % PAGE_SIZE) * dimension, unit);
+            size++;
+
+            int level = (int) Math.floor(-Math.log(1 - random.nextDouble()) * levelFactor);
+            if (level > 0) {
+                int[][] links = new int[level][];
+                for (int l = 0; l < level; l++) {
+                    links[l] = new int[m + 1];
+                }
+                upperNeighbors.put(id, links);
+            }
+            if (entryPoint < 0) {
+                entryPoint = id;
+                maxLevel = level;
+                return id;
+            }
+
+            List<SearchResult> entries = List.of(new SearchResult(entryPoint, similarity(unit, entryPoint)));
+            for (int l = maxLevel; l > level; l--) {
+                entries = searchLayer(unit, entries, 1, l);
+            }
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                List<SearchResult> candidates = searchLayer(unit, entries, efConstruction, l);
+                int maxLinks = l == 0 ? maxLayer0 : m;
+                List<SearchResult> selected = selectNeighbors(candidates, maxLinks);
+                setNeighbors(id, l, selected);
+                for (SearchResult neighbor : selected) {
+                    link(neighbor.id(), id, neighbor.score(), l, maxLinks);
+                }
+                entries = candidates;
+            }
+            if (level > maxLevel) {
+                entryPoint = id;
+                maxLevel = level;
+            }
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(int id) {
+        lock.writeLock().lock();
+        try {
+            deleted.set(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code k} live vectors most similar to {@code query}, best first
+     */
+    public List<SearchResult> search(float[] query, int k) {
+        float[] unit = normalise(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            List<SearchResult> entries = List.of(new SearchResult(entryPoint, similarity(unit, entryPoint)));
+            for (int l = maxLevel; l > 0; l--) {
+                entries = searchLayer(unit, entries, 1, l);
+            }
+            List<SearchResult> results = new ArrayList<>(k);
+            for (SearchResult candidate : searchLayer(unit, entries, Math.max(efSearch, k), 0)) {
+                if (!deleted.get(candidate.id())) {
+                    results.add(candidate);
+                    if (results.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy of a stored (unit length) vector
+     */
+    public float[] vector(int id) {
+        lock.readLock().lock();
+        try {
+            float[] vector = new float[dimension];
+            vectorPages.get(id / PAGE_SIZE).get((id % PAGE_SIZE) * dimension, vector);
+            return vector;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isDeleted(int id) {
+        lock.readLock().lock();
+        try {
+            return deleted.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of vectors ever added, including deleted ones
+     */
+    public int capacityUsed() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return deleted.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Off-heap memory held by vectors and bottom-layer links
+     */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) vectorPages.size() * PAGE_SIZE * ((long) dimension * Float.BYTES + (long) (maxLayer0 + 1) * Integer.BYTES);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SearchResult> searchLayer(float[] query, List<SearchResult> entries, int ef, int level) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<SearchResult> candidates = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<SearchResult> results = new PriorityQueue<>(WORST_FIRST);
+        for (SearchResult entry : entries) {
+            if (!visited.get(entry.id())) {
+                visited.set(entry.id());
+                candidates.add(entry);
+                results.add(entry);
+            }
+        }
+        while (results.size() > ef) {
+            results.poll();
+        }
+        while (!candidates.isEmpty()) {
+            SearchResult current = candidates.poll();
+            if (results.size() >= ef && current.score() < results.peek().score()) {
+                break;
+            }
+            int count = neighborCount(current.id(), level);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbor(current.id(), level, i);
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float score = similarity(query, neighbor);
+                if (results.size() < ef || score > results.peek().score()) {
+                    SearchResult result = new SearchResult(neighbor, score);
+                    candidates.add(result);
+                    results.add(result);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        List<SearchResult> sorted = new ArrayList<>(results);
+        sorted.sort(BEST_FIRST);
+        return sorted;
+    }
+
+    /**
+     * Neighbour selection heuristic from the HNSW paper: a candidate is kept only if it is closer to
+     * the new node than to any neighbour already kept, which spreads links across clusters. Remaining
+     * slots are filled with the closest pruned candidates.
+     */
+    private List<SearchResult> selectNeighbors(List<SearchResult> candidates, int maxLinks) {
+        List<SearchResult> selected = new ArrayList<>(maxLinks);
+        List<SearchResult> pruned = new ArrayList<>();
+        for (SearchResult candidate : candidates) {
+            if (selected.size() >= maxLinks) {
+                break;
+            }
+            boolean diverse = true;
+            for (SearchResult kept : selected) {
+                if (similarity(candidate.id(), kept.id()) > candidate.score()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? selected : pruned).add(candidate);
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < maxLinks; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    private void link(int node, int newNeighbor, float score, int level, int maxLinks) {
+        int count = neighborCount(node, level);
+        if (count < maxLinks) {
+            setNeighbor(node, level, count, newNeighbor);
+            setNeighborCount(node, level, count + 1);
+            return;
+        }
+        List<SearchResult> candidates = new ArrayList<>(count + 1);
+        candidates.add(new SearchResult(newNeighbor, score));
+        for (int i = 0; i < count; i++) {
+            int existing = neighbor(node, level, i);
+            candidates.add(new SearchResult(existing, similarity(node, existing)));
+        }
+        // Keeping the closest is O(m) similarities where the selection heuristic would be O(m^2),
+        // and this runs for every neighbour of every insert
+        candidates.sort(BEST_FIRST);
+        setNeighbors(node, level, candidates.subList(0, maxLinks));
+    }
+
+    private void setNeighbors(int node, int level, List<SearchResult> neighbors) {
+        for (int i = 0; i < neighbors.size(); i++) {
+            setNeighbor(node, level, i, neighbors.get(i).id());
+        }
+        setNeighborCount(node, level, neighbors.size());
+    }
+
+    private int neighborCount(int node, int level) {
+        if (level == 0) {
+            return neighborPages.get(node / PAGE_SIZE).get((node % PAGE_SIZE) * (maxLayer0 + 1));
+        }
+        int[][] links = upperNeighbors.get(node);
+        return links == null || links.length < level ? 0 : links[level - 1][0];
+    }
+
+    private int neighbor(int node, int level, int index) {
+        if (level == 0) {
+            return neighborPages.get(node / PAGE_SIZE).get((node % PAGE_SIZE) * (maxLayer0 + 1) + 1 + index);
+        }
+        return upperNeighbors.get(node)[level - 1][1 + index];
+    }
+
+    private void setNeighborCount(int node, int level, int count) {
+        if (level == 0) {
+            neighborPages.get(node / PAGE_SIZE).put((node % PAGE_SIZE) * (maxLayer0 + 1), count);
+        } else {
+            upperNeighbors.get(node)[level - 1][0] = count;
+        }
+    }
+
+    private void setNeighbor(int node, int level, int index, int neighbor) {
+        if (level == 0) {
+            neighborPages.get(node / PAGE_SIZE).put((node % PAGE_SIZE) * (maxLayer0 + 1) + 1 + index, neighbor);
+        } else {
+            upperNeighbors.get(node)[level - 1][1 + index] = neighbor;
+        }
+    }
+
+    // Per-element reads of a direct buffer are not vectorised, a bulk copy and an array loop are
+    private float similarity(float[] query, int node) {
+        float[] stored = scratch.get()[0];
+        vectorPages.get(node / PAGE_SIZE).get((node % PAGE_SIZE) * dimension, stored);
+        return dot(query, stored);
+    }
+
+    private float similarity(int a, int b) {
+        float[][] buffers = scratch.get();
+        vectorPages.get(a / PAGE_SIZE).get((a % PAGE_SIZE) * dimension, buffers[0]);
+        vectorPages.get(b / PAGE_SIZE).get((b % PAGE_SIZE) * dimension, buffers[1]);
+        return dot(buffers[0], buffers[1]);
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    private float[] normalise(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected a vector of dimension " + dimension + " but got " + vector.length);
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] unit = new float[dimension];
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                unit[i] = vector[i] * scale;
+            }
+        }
+        return unit;
+    }
+}
@@ -0,0 +1,443 @@
+package com.csharma.reviewpilot.langchain4j.retrieval;
+
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.preprocess.DiffFile;
+import com.csharma.reviewpilot.langchain4j.preprocess.PathFilter;
+import com.csharma.reviewpilot.langchain4j.preprocess.PathTrie;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Embeddings of a repository's source files, split into chunks of about {@value #CHUNK_LINES} lines,
+ * in an {@link HnswIndex}. {@link #update()} re-embeds only files whose content hash changed and drops
+ * chunks of deleted files, so refreshing an indexed checkout costs a directory walk. Only chunk
+ * locations are kept in memory; the text is read back from disk for the few chunks a query returns.
+ * <p>
+ * With a store file, file hashes and vectors are saved after each update that changed them and loaded
+ * before the first one, so a new process re-embeds only what changed since the last run.
+ */
+public class RepositoryIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryIndex.class);
+    private static final int CHUNK_LINES = 40;
+    private static final int MIN_CHUNK_LINES = 20;
+    private static final long MAX_FILE_BYTES = 512 * 1024;
+    private static final int MAX_QUERY_CHARS = 8000;
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of(
+            "java", "kt", "kts", "scala", "groovy", "py", "js", "jsx", "ts", "tsx", "go", "rb", "rs", "c", "h",
+            "cc", "cpp", "hpp", "cs", "php", "swift", "m", "sql", "sh", "xml", "yaml", "yml", "conf", "properties");
+
+    private static final int STORE_VERSION = 1;
+
+    private final Path root;
+    private final EmbeddingModel embeddingModel;
+    // Null when the index lives in memory only
+    private final Path store;
+    private final PathTrie<Boolean> ignored = new PathTrie<>();
+    private final Map<String, IndexedFile> files = new HashMap<>();
+    // Chunk location by vector id, null once the chunk is deleted
+    private final List<Chunk> chunks = new ArrayList<>();
+    private HnswIndex index;
+    private boolean loaded;
+    private volatile boolean updated;
+
+    private record IndexedFile(long size, long modified, String hash, int[] ids) {}
+
+    private record Chunk(String path, int startLine, int endLine) {}
+
+    /**
+     * A chunk of a repository file and its similarity to the query; lines are 1-based and inclusive
+     */
+    public record Snippet(String path, int startLine, int endLine, String text, float score) {}
+
+    public record UpdateStats(int filesEmbedded, int filesUnchanged, int filesRemoved, int chunks) {}
+
+    public RepositoryIndex(Path root, EmbeddingModel embeddingModel) {
+        this(root, embeddingModel, null);
+    }
+
+    /**
+     * @param store file the index is saved to and loaded from, or null to keep it in memory only;
+     *              see {@link #storeFile}
+     */
+    public RepositoryIndex(Path root, EmbeddingModel embeddingModel, Path store) {
+        this.root = root;
+        this.embeddingModel = embeddingModel;
+        this.store = store;
+        PathFilter.LOCK_FILES.forEach(glob -> ignored.add(glob, true));
+        PathFilter.GENERATED_PATHS.forEach(glob -> ignored.add(glob, true));
+        PathFilter.MINIFIED_ASSETS.forEach(glob -> ignored.add(glob, true));
+        ignored.add("**/.*/**", true);
+    }
+
+    /**
+     * Store file for {@code root} indexed with {@code embeddingModelName} under {@code directory}. Vectors
+     * of different models cannot be mixed, so each model gets its own file.
+     */
+    public static Path storeFile(Path directory, Path root, String embeddingModelName) {
+        String key = root.toAbsolutePath().normalize() + "\u0000" + embeddingModelName;
+        return directory.resolve(sha256(key.getBytes(StandardCharsets.UTF_8)) + ".idx");
+    }
+
+    /**
+     * {@link #update()} the first time it is called and return at once afterwards, so every prompt of
+     * a review run can ask for an up-to-date index without walking the checkout again
+     */
+    public void ensureUpdated() throws IOException {
+        if (updated) {
+            return;
+        }
+        synchronized (this) {
+            if (!updated) {
+                update();
+            }
+        }
+    }
+
+    /**
+     * Bring the index in line with the files on disk, embedding new and changed files only
+     */
+    public synchronized UpdateStats update() throws IOException {
+        long start = System.currentTimeMillis();
+        if (!loaded) {
+            loaded = true;
+            load();
+        }
+        int embedded = 0;
+        int unchanged = 0;
+        // Files whose timestamp changed but whose content did not; saved so the next run skips hashing them
+        int touched = 0;
+        Set<String> seen = new HashSet<>();
+        List<Path> sources;
+        try (Stream<Path> walk = Files.walk(root)) {
+            sources = walk.filter(this::isSource).toList();
+        }
+        for (Path file : sources) {
+            String path = root.relativize(file).toString().replace('\\', '/');
+            seen.add(path);
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            IndexedFile indexed = files.get(path);
+            if (indexed != null && indexed.size() == attributes.size()
+                    && indexed.modified() == attributes.lastModifiedTime().toMillis()) {
+                unchanged++;
+                continue;
+            }
+            byte[] content = Files.readAllBytes(file);
+            String hash = sha256(content);
+            if (indexed != null && indexed.hash().equals(hash)) {
+                files.put(path, new IndexedFile(attributes.size(), attributes.lastModifiedTime().toMillis(), hash, indexed.ids()));
+                unchanged++;
+                touched++;
+                continue;
+            }
+            remove(path);
+            int[] ids = embed(path, new String(content, StandardCharsets.UTF_8));
+            files.put(path, new IndexedFile(attributes.size(), attributes.lastModifiedTime().toMillis(), hash, ids));
+            embedded++;
+        }
+        int removed = 0;
+        for (String path : new ArrayList<>(files.keySet())) {
+            if (!seen.contains(path)) {
+                remove(path);
+                removed++;
+            }
+        }
+        if (index != null && index.deletedCount() > index.capacityUsed() / 2) {
+            compact();
+        }
+        if (embedded > 0 || removed > 0 || touched > 0) {
+            save();
+        }
+        updated = true;
+        UpdateStats stats = new UpdateStats(embedded, unchanged, removed, size());
+        logger.info("Indexed {} in {} ms: {}", root, System.currentTimeMillis() - start, stats);
+        return stats;
+    }
+
+    /**
+     * The {@code k} chunks most similar to {@code query}, leaving out chunks of {@code excludePaths}
+     */
+    public List<Snippet> search(String query, int k, Set<String> excludePaths) {
+        synchronized (this) {
+            if (index == null || k <= 0) {
+                return List.of();
+            }
+        }
+        float[] vector = embeddingModel.embed(query).content().vector();
+        List<Chunk> matches = new ArrayList<>(k);
+        List<Float> scores = new ArrayList<>(k);
+        synchronized (this) {
+            // Ask for more than k so chunks of excluded files do not leave the result short
+            for (HnswIndex.SearchResult result : index.search(vector, k + 4 * excludePaths.size())) {
+                Chunk chunk = chunks.get(result.id());
+                if (chunk != null && !excludePaths.contains(chunk.path())) {
+                    matches.add(chunk);
+                    scores.add(result.score());
+                    if (matches.size() == k) {
+                        break;
+                    }
+                }
+            }
+        }
+        List<Snippet> snippets = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            Chunk chunk = matches.get(i);
+            String text = read(chunk);
+            if (text != null) {
+                snippets.add(new Snippet(chunk.path(), chunk.startLine(), chunk.endLine(), text, scores.get(i)));
+            }
+        }
+        return snippets;
+    }
+
+    /**
+     * The {@code k} chunks most related to a pull request's changes, outside the files it touches.
+     * The query is the changed lines and hunk headers, which carry the names of the code being changed.
+     */
+    public List<Snippet> relevantTo(PullRequestDetails prDetails, int k) {
+        StringBuilder query = new StringBuilder();
+        for (DiffFile file : DiffFile.parse(prDetails.getDiff())) {
+            query.append(file.path()).append('\n');
+            for (String hunk : file.hunks()) {
+                for (String line : DiffFile.lines(hunk)) {
+                    if (line.startsWith("@@") || line.startsWith("+") || line.startsWith("-")) {
+                        query.append(line, line.startsWith("@@") ? 0 : 1, line.length());
+                    }
+                }
+                if (query.length() >= MAX_QUERY_CHARS) {
+                    break;
+                }
+            }
+        }
+        String text = query.length() > MAX_QUERY_CHARS ? query.substring(0, MAX_QUERY_CHARS) : query.toString();
+        Set<String> exclude = prDetails.getChangedFiles() == null ? Set.of() : new HashSet<>(prDetails.getChangedFiles());
+        return text.isBlank() ? List.of() : search(text, k, exclude);
+    }
+
+    /**
+     * Number of live chunks in the index
+     */
+    public synchronized int size() {
+        return index == null ? 0 : index.capacityUsed() - index.deletedCount();
+    }
+
+    public synchronized long offHeapBytes() {
+        return index == null ? 0 : index.offHeapBytes();
+    }
+
+    private boolean isSource(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || !SOURCE_EXTENSIONS.contains(name.substring(dot + 1))) {
+            return false;
+        }
+        try {
+            return Files.size(file) <= MAX_FILE_BYTES
+                    && ignored.match(root.relativize(file).toString().replace('\\', '/')) == null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private int[] embed(String path, String content) {
+        List<String> lines = DiffFile.lines(content);
+        List<Chunk> fileChunks = new ArrayList<>();
+        List<TextSegment> segments = new ArrayList<>();
+        int start = 0;
+        while (start < lines.size()) {
+            int end = Math.min(start + CHUNK_LINES, lines.size());
+            // End at a blank line if there is one past the minimum length, so definitions stay together
+            for (int i = end - 1; i >= start + MIN_CHUNK_LINES; i--) {
+                if (lines.get(i).isBlank()) {
+                    end = i + 1;
+                    break;
+                }
+            }
+            String text = String.join("", lines.subList(start, end));
+            if (!text.isBlank()) {
+                fileChunks.add(new Chunk(path, start + 1, end));
+                segments.add(TextSegment.from(path + "\n" + text));
+            }
+            start = end;
+        }
+        if (segments.isEmpty()) {
+            return new int[0];
+        }
+        List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
+        int[] ids = new int[embeddings.size()];
+        for (int i = 0; i < ids.length; i++) {
+            float[] vector = embeddings.get(i).vector();
+            if (index == null) {
+                index = new HnswIndex(vector.length);
+            }
+            ids[i] = index.add(vector);
+            while (chunks.size() <= ids[i]) {
+                chunks.add(null);
+            }
+            chunks.set(ids[i], fileChunks.get(i));
+        }
+        return ids;
+    }
+
+    private void remove(String path) {
+        IndexedFile indexed = files.remove(path);
+        if (indexed != null) {
+            for (int id : indexed.ids()) {
+                index.delete(id);
+                chunks.set(id, null);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the graph without deleted vectors, which otherwise keep their memory and slow searches
+     */
+    private void compact() {
+        HnswIndex compacted = new HnswIndex(index.dimension());
+        List<Chunk> remapped = new ArrayList<>();
+        Map<Integer, Integer> newIds = new HashMap<>();
+        for (int id = 0; id < index.capacityUsed(); id++) {
+            if (!index.isDeleted(id)) {
+                newIds.put(id, compacted.add(index.vector(id)));
+                remapped.add(chunks.get(id));
+            }
+        }
+        files.replaceAll((path, indexed) -> {
+            int[] ids = new int[indexed.ids().length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = newIds.get(indexed.ids()[i]);
+            }
+            return new IndexedFile(indexed.size(), indexed.modified(), indexed.hash(), ids);
+        });
+        chunks.clear();
+        chunks.addAll(remapped);
+        index = compacted;
+    }
+
+    private void load() {
+        if (store == null || !Files.isRegularFile(store)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(store)))) {
+            if (in.readInt() != STORE_VERSION) {
+                return;
+            }
+            int dimension = in.readInt();
+            int fileCount = in.readInt();
+            for (int f = 0; f < fileCount; f++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long modified = in.readLong();
+                String hash = in.readUTF();
+                int[] ids = new int[in.readInt()];
+                for (int i = 0; i < ids.length; i++) {
+                    Chunk chunk = new Chunk(path, in.readInt(), in.readInt());
+                    float[] vector = new float[dimension];
+                    for (int d = 0; d < dimension; d++) {
+                        vector[d] = in.readFloat();
+                    }
+                    if (index == null) {
+                        index = new HnswIndex(dimension);
+                    }
+                    ids[i] = index.add(vector);
+                    chunks.add(chunk);
+                }
+                files.put(path, new IndexedFile(size, modified, hash, ids));
+            }
+            logger.info("Loaded {} indexed files of {} from {}", files.size(), root, store);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable repository index {}: {}", store, e.getMessage());
+            files.clear();
+            chunks.clear();
+            index = null;
+        }
+    }
+
+    private void save() {
+        if (store == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(store.getParent());
+            Path temp = Files.createTempFile(store.getParent(), "pending", ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(STORE_VERSION);
+                    out.writeInt(index == null ? 0 : index.dimension());
+                    out.writeInt(files.size());
+                    for (Map.Entry<String, IndexedFile> entry : files.entrySet()) {
+                        IndexedFile indexed = entry.getValue();
+                        out.writeUTF(entry.getKey());
+                        out.writeLong(indexed.size());
+                        out.writeLong(indexed.modified());
+                        out.writeUTF(indexed.hash());
+                        out.writeInt(indexed.ids().length);
+                        for (int id : indexed.ids()) {
+                            Chunk chunk = chunks.get(id);
+                            out.writeInt(chunk.startLine());
+                            out.writeInt(chunk.endLine());
+                            for (float value : index.vector(id)) {
+                                out.writeFloat(value);
+                            }
+                        }
+                    }
+                }
+                Files.move(temp, store, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to save repository index {}: {}", store, e.getMessage());
+        }
+    }
+
+    private String read(Chunk chunk) {
+        try {
+            List<String> lines = Files.readAllLines(root.resolve(chunk.path()), StandardCharsets.UTF_8);
+            if (chunk.startLine() > lines.size()) {
+                return null;
+            }
+            return String.join("\n", lines.subList(chunk.startLine() - 1, Math.min(chunk.endLine(), lines.size())));
+        } catch (MalformedInputException e) {
+            return null;
+        } catch (IOException e) {
+            logger.debug("Could not read {}: {}", chunk.path(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.csharma.reviewpilot.langchain4j.service;
+
+import com.csharma.reviewpilot.langchain4j.agent.CodeReviewAgent;
+import com.csharma.reviewpilot.langchain4j.agent.OpenAIAgent;
+import com.csharma.reviewpilot.langchain4j.agent.TokenBudget;
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import com.csharma.reviewpilot.langchain4j.preprocess.DiffFile;
+import com.csharma.reviewpilot.langchain4j.resilience.ResilientChatLanguageModel;
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Tiered review: a small model triages every hunk for risk ({@link RiskTriage}). Hunks scoring at
+ * or above the escalation threshold are reviewed by the large model and the rest by the small one,
+ * both at once, and the two reviews are merged. Each finding records the tier that produced it,
+ * {@value #TIER_ESCALATED} or {@value #TIER_TRIAGE}.
+ */
+public class CascadingReviewAgent implements CodeReviewAgent {
+    private static final Logger logger = LoggerFactory.getLogger(CascadingReviewAgent.class);
+
+    public static final String TIER_TRIAGE = "triage";
+    public static final String TIER_ESCALATED = "escalated";
+
+    private final RiskTriage triage;
+    private final CodeReviewAgent routineAgent;
+    private final CodeReviewAgent escalationAgent;
+    private final int threshold;
+    // Both tiers block on HTTP calls, so each runs on its own virtual thread
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Cascade of {@code triageModelName} and {@code modelName}. The small tier reviews without
+     * repository context or memory; follow-up questions go to the large tier.
+     */
+    public CascadingReviewAgent(ReviewConfig config) {
+        this(new RiskTriage(ResilientChatLanguageModel.wrap(config, config.getTriageModelName(), OpenAiChatModel.builder()
+                        .baseUrl(config.getOpenAiBaseUrl())
+                        .apiKey(System.getenv("OPENAI_API_KEY"))
+                        .modelName(config.getTriageModelName())
+                        .temperature(0.0)
+                        .maxTokens(RiskTriage.MAX_ANSWER_TOKENS)
+                        .timeout(Duration.ofSeconds(60))
+                        .maxRetries(OpenAIAgent.builtInRetries(config))
+                        .build()),
+                    TokenBudget.forModel(config.getTriageModelName(), RiskTriage.MAX_ANSWER_TOKENS)),
+                new OpenAIAgent(routineConfig(config)),
+                new OpenAIAgent(config),
+                config.getEscalationThreshold());
+    }
+
+    public CascadingReviewAgent(RiskTriage triage, CodeReviewAgent routineAgent, CodeReviewAgent escalationAgent, int threshold) {
+        this.triage = triage;
+        this.routineAgent = routineAgent;
+        this.escalationAgent = escalationAgent;
+        this.threshold = threshold;
+    }
+
+    /**
+     * The config for the small tier: the triage model at its own context window, answering in at
+     * most a quarter of it
+     */
+    static ReviewConfig routineConfig(ReviewConfig config) {
+        ReviewConfig routine = new ReviewConfig(config);
+        routine.setModelName(config.getTriageModelName());
+        routine.setContextWindow(null);
+        routine.setMaxTokens(Math.min(config.getMaxTokens(), TokenBudget.contextWindowOf(config.getTriageModelName()) / 4));
+        routine.setEnableMemory(false);
+        routine.setEnableVectorSearch(false);
+        return routine;
+    }
+
+    @Override
+    public CodeReviewResult reviewPullRequest(PullRequestDetails prDetails) {
+        long startTime = System.currentTimeMillis();
+        List<DiffFile> files = DiffFile.parse(prDetails.getDiff());
+        RiskTriage.Scores scores = triage.score(prDetails, files);
+
+        StringBuilder riskyDiff = new StringBuilder();
+        StringBuilder routineDiff = new StringBuilder();
+        Set<String> riskyFiles = new LinkedHashSet<>();
+        Set<String> routineFiles = new LinkedHashSet<>();
+        int riskyLines = 0;
+        int routineLines = 0;
+        int escalatedHunks = 0;
+        int totalHunks = 0;
+        for (int i = 0; i < files.size(); i++) {
+            DiffFile file = files.get(i);
+            List<String> risky = new ArrayList<>();
+            List<String> routine = new ArrayList<>();
+            for (int j = 0; j < file.hunks().size(); j++) {
+                (scores.of(i, j) >= threshold ? risky : routine).add(file.hunks().get(j));
+            }
+            totalHunks += file.hunks().size();
+            escalatedHunks += risky.size();
+            // Files without hunks (binary, renamed, summarised) still go to the small tier so the review knows of them
+            if (!risky.isEmpty()) {
+                DiffFile part = file.withHunks(risky);
+                riskyDiff.append(part.text());
+                riskyFiles.add(file.path());
+                riskyLines += part.changedLines();
+            }
+            if (!routine.isEmpty() || file.hunks().isEmpty()) {
+                DiffFile part = file.withHunks(routine);
+                routineDiff.append(part.text());
+                if (!file.path().isEmpty()) {
+                    routineFiles.add(file.path());
+                }
+                routineLines += part.changedLines();
+            }
+        }
+        logger.info("Triage escalated {} of {} hunks ({} changed lines in {} files)",
+                escalatedHunks, totalHunks, riskyLines, riskyFiles.size());
+
+        CompletableFuture<CodeReviewResult> escalated = riskyFiles.isEmpty() ? null : CompletableFuture.supplyAsync(
+                () -> tag(escalationAgent.reviewPullRequest(prDetails.withDiff(List.copyOf(riskyFiles), riskyDiff.toString())), TIER_ESCALATED),
+                executor);
+        CompletableFuture<CodeReviewResult> routine = routineFiles.isEmpty() ? null : CompletableFuture.supplyAsync(
+                () -> tag(routineAgent.reviewPullRequest(prDetails.withDiff(List.copyOf(routineFiles), routineDiff.toString())), TIER_TRIAGE),
+                executor);
+
+        List<CodeReviewResult> partials = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        if (escalated != null) {
+            CodeReviewResult result = join(escalated);
+            partials.add(result);
+            labels.add("High-risk changes (" + result.getModelUsed() + ")");
+            weights.add(riskyLines);
+        }
+        if (routine != null) {
+            CodeReviewResult result = join(routine);
+            partials.add(result);
+            labels.add("Routine changes (" + result.getModelUsed() + ")");
+            weights.add(routineLines);
+        }
+        if (partials.isEmpty()) {
+            // Nothing parsed as a diff; let the large model see the pull request as it is
+            return tag(escalationAgent.reviewPullRequest(prDetails), TIER_ESCALATED);
+        }
+
+        CodeReviewResult result = ReviewResults.combine(partials, labels, weights);
+        result.setTokensUsed(result.getTokensUsed() + scores.tokensUsed());
+        result.setModelUsed(partials.stream().map(CodeReviewResult::getModelUsed).filter(Objects::nonNull)
+                .distinct().collect(Collectors.joining(", ")));
+        result.setReviewTime((System.currentTimeMillis() - startTime) / 1000.0);
+        return result;
+    }
+
+    /**
+     * Mark every finding of {@code result} as produced by {@code tier}
+     */
+    static CodeReviewResult tag(CodeReviewResult result, String tier) {
+        if (result.getIssues() != null) {
+            List<Map<String, Object>> issues = new ArrayList<>();
+            for (Map<String, Object> issue : result.getIssues()) {
+                Map<String, Object> tagged = new HashMap<>(issue);
+                tagged.put("tier", tier);
+                issues.add(tagged);
+            }
+            result.setIssues(issues);
+        }
+        Map<String, String> tiers = new LinkedHashMap<>();
+        for (List<String> findings : Arrays.asList(result.getSuggestions(), result.getSecurityConcerns(), result.getPerformanceIssues())) {
+            if (findings != null) {
+                findings.forEach(finding -> tiers.put(finding, tier));
+            }
+        }
+        result.setFindingTiers(tiers);
+        return result;
+    }
+
+    private static CodeReviewResult join(CompletableFuture<CodeReviewResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Override
+    public void remember(String memoryId, PullRequestDetails prDetails, CodeReviewResult result) {
+        escalationAgent.remember(memoryId, prDetails, result);
+    }
+
+    @Override
+    public String ask(String memoryId, String question) {
+        return escalationAgent.ask(memoryId, question);
+    }
+
+    @Override
+    public String getAgentName() {
+        return escalationAgent.getAgentName();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        routineAgent.close();
+        escalationAgent.close();
+    }
+}
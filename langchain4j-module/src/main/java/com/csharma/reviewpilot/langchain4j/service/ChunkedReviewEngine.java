@@ -0,0 +1,133 @@
+package com.csharma.reviewpilot.langchain4j.service;
+
+import com.csharma.reviewpilot.langchain4j.agent.CodeReviewAgent;
+import com.csharma.reviewpilot.langchain4j.agent.ReviewListener;
+import com.csharma.reviewpilot.langchain4j.agent.TokenBudget;
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import com.csharma.reviewpilot.langchain4j.service.DiffChunker.DiffChunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Map-reduce review of large pull requests: the diff is split with a {@link DiffChunker}, every
+ * chunk is reviewed by the agent on its own virtual thread (at most {@code maxParallelChunks} at
+ * a time), and the partial results are reduced into one {@link CodeReviewResult}.
+ */
+public class ChunkedReviewEngine {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedReviewEngine.class);
+
+    private final CodeReviewAgent agent;
+    private final DiffChunker chunker;
+    private final int maxParallelChunks;
+
+    // Room left in the prompt for the review instructions, title and description around a chunk
+    private static final int PROMPT_RESERVE_TOKENS = 1000;
+
+    /**
+     * Engine for the configured model: chunks are measured with the model's tokenizer and never
+     * exceed what its context window leaves for the diff
+     */
+    public ChunkedReviewEngine(CodeReviewAgent agent, ReviewConfig config) {
+        this(agent, config, TokenBudget.forConfig(config));
+    }
+
+    public ChunkedReviewEngine(CodeReviewAgent agent, ReviewConfig config, TokenBudget budget) {
+        this(agent, new DiffChunker(
+                Math.max(1, Math.min(config.getChunkSize(), budget.promptTokens() - PROMPT_RESERVE_TOKENS)),
+                config.getChunkOverlap(),
+                budget::count), config.getMaxParallelChunks());
+    }
+
+    public ChunkedReviewEngine(CodeReviewAgent agent, DiffChunker chunker, int maxParallelChunks) {
+        this.agent = agent;
+        this.chunker = chunker;
+        this.maxParallelChunks = Math.max(1, maxParallelChunks);
+    }
+
+    /**
+     * Review a pull request, chunking its diff when it does not fit in a single chunk
+     *
+     * @param prDetails pull request details
+     * @return the reduced review result
+     */
+    public CodeReviewResult review(PullRequestDetails prDetails) {
+        return review(prDetails, null);
+    }
+
+    /**
+     * Review a pull request, streaming the review text to {@code listener}. A single chunk is streamed
+     * token by token; chunked reviews push each chunk's summary as soon as that chunk is done.
+     *
+     * @param prDetails pull request details
+     * @param listener receives the review text, or {@code null} not to stream
+     * @return the reduced review result
+     */
+    public CodeReviewResult review(PullRequestDetails prDetails, ReviewListener listener) {
+        List<DiffChunk> chunks = chunker.split(prDetails.getDiff());
+        if (chunks.size() <= 1) {
+            return listener == null ? agent.reviewPullRequest(prDetails) : agent.reviewPullRequest(prDetails, listener);
+        }
+
+        long startTime = System.currentTimeMillis();
+        logger.info("Reviewing {} diff chunks, up to {} at a time", chunks.size(), maxParallelChunks);
+        List<String> labels = new ArrayList<>(chunks.size());
+        List<Integer> weights = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            List<String> files = chunks.get(i).files();
+            labels.add(files.isEmpty() ? "Chunk " + (i + 1) : String.join(", ", files));
+            weights.add(chunks.get(i).tokens());
+        }
+        Semaphore permits = new Semaphore(maxParallelChunks);
+        List<CodeReviewResult> partials = new ArrayList<>(chunks.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<CodeReviewResult>> futures = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                DiffChunk chunk = chunks.get(i);
+                String label = labels.get(i);
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        CodeReviewResult partial = agent.reviewPullRequest(prDetails.withDiff(chunk.files(), chunk.diff()));
+                        if (listener != null && partial.getSummary() != null) {
+                            synchronized (listener) {
+                                listener.onToken("### " + label + "\n" + partial.getSummary().strip() + "\n\n");
+                            }
+                        }
+                        return partial;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            try {
+                for (Future<CodeReviewResult> future : futures) {
+                    partials.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException runtime ? runtime
+                        : new RuntimeException("Failed to review pull request: " + cause.getMessage(), cause);
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while reviewing pull request", e);
+            }
+        }
+
+        CodeReviewResult result = ReviewResults.combine(partials, labels, weights);
+        result.setReviewTime((System.currentTimeMillis() - startTime) / 1000.0);
+        logger.info("Reduced {} chunk reviews in {} seconds", chunks.size(), result.getReviewTime());
+        return result;
+    }
+}
@@ -0,0 +1,154 @@
+package com.csharma.reviewpilot.langchain4j.service;
+
+import com.csharma.reviewpilot.langchain4j.preprocess.DiffFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Splits a unified diff into chunks of at most {@code maxTokens} tokens along file and hunk
+ * boundaries. Whole files are packed together while they fit; a larger file is split between
+ * hunks with its header repeated in every chunk, and a hunk that alone exceeds the budget is split
+ * between lines, each piece starting with up to {@code overlapTokens} of the previous piece's lines.
+ */
+public class DiffChunker {
+    private final int maxTokens;
+    private final int overlapTokens;
+    private final ToIntFunction<String> tokenCounter;
+
+    /**
+     * Create a chunker that estimates tokens as one per four characters
+     */
+    public DiffChunker(int maxTokens, int overlapTokens) {
+        this(maxTokens, overlapTokens, text -> (text.length() + 3) / 4);
+    }
+
+    public DiffChunker(int maxTokens, int overlapTokens, ToIntFunction<String> tokenCounter) {
+        if (maxTokens <= 0) {
+            throw new IllegalArgumentException("maxTokens must be positive");
+        }
+        this.maxTokens = maxTokens;
+        this.overlapTokens = Math.max(0, Math.min(overlapTokens, maxTokens / 2));
+        this.tokenCounter = tokenCounter;
+    }
+
+    /**
+     * A contiguous part of the diff and the files it touches
+     */
+    public record DiffChunk(List<String> files, String diff, int tokens) {}
+
+    public List<DiffChunk> split(String diff) {
+        List<DiffChunk> chunks = new ArrayList<>();
+        if (diff == null || diff.isEmpty()) {
+            return chunks;
+        }
+        ChunkBuilder current = new ChunkBuilder();
+        for (DiffFile file : DiffFile.parse(diff)) {
+            int fileTokens = tokenCounter.applyAsInt(file.text());
+            if (fileTokens <= maxTokens) {
+                if (current.tokens + fileTokens > maxTokens) {
+                    current.flushTo(chunks);
+                    current = new ChunkBuilder();
+                }
+                current.addFile(file.path());
+                current.append(file.text(), fileTokens);
+                continue;
+            }
+            current.flushTo(chunks);
+            current = new ChunkBuilder();
+            splitFile(file, chunks);
+        }
+        current.flushTo(chunks);
+        return chunks;
+    }
+
+    private void splitFile(DiffFile file, List<DiffChunk> chunks) {
+        int headerTokens = tokenCounter.applyAsInt(file.header());
+        int budget = Math.max(1, maxTokens - headerTokens);
+        ChunkBuilder part = null;
+        for (String hunk : file.hunks()) {
+            for (String piece : splitHunk(hunk, budget)) {
+                int pieceTokens = tokenCounter.applyAsInt(piece);
+                if (part != null && part.tokens + pieceTokens > maxTokens) {
+                    part.flushTo(chunks);
+                    part = null;
+                }
+                if (part == null) {
+                    part = new ChunkBuilder();
+                    part.addFile(file.path());
+                    part.append(file.header(), headerTokens);
+                }
+                part.append(piece, pieceTokens);
+            }
+        }
+        if (part != null) {
+            part.flushTo(chunks);
+        }
+    }
+
+    private List<String> splitHunk(String hunk, int budget) {
+        if (tokenCounter.applyAsInt(hunk) <= budget) {
+            return List.of(hunk);
+        }
+        List<String> lines = DiffFile.lines(hunk);
+        String hunkHeader = lines.get(0).startsWith("@@") ? lines.remove(0) : "";
+        int headerTokens = tokenCounter.applyAsInt(hunkHeader);
+
+        List<String> pieces = new ArrayList<>();
+        List<String> piece = new ArrayList<>();
+        List<Integer> pieceTokens = new ArrayList<>();
+        int tokens = headerTokens;
+        int added = 0;
+        for (String line : lines) {
+            int lineTokens = tokenCounter.applyAsInt(line);
+            if (added > 0 && tokens + lineTokens > budget) {
+                pieces.add(hunkHeader + String.join("", piece));
+                // Carry trailing lines into the next piece so context spans the cut
+                List<String> overlap = new ArrayList<>();
+                List<Integer> overlapSizes = new ArrayList<>();
+                int overlapSize = 0;
+                for (int i = piece.size() - 1; i >= 0 && overlapSize + pieceTokens.get(i) <= overlapTokens; i--) {
+                    overlap.add(0, piece.get(i));
+                    overlapSizes.add(0, pieceTokens.get(i));
+                    overlapSize += pieceTokens.get(i);
+                }
+                piece = overlap;
+                pieceTokens = overlapSizes;
+                tokens = headerTokens + overlapSize;
+                added = 0;
+            }
+            piece.add(line);
+            pieceTokens.add(lineTokens);
+            tokens += lineTokens;
+            added++;
+        }
+        if (added > 0) {
+            pieces.add(hunkHeader + String.join("", piece));
+        }
+        return pieces;
+    }
+
+    private static final class ChunkBuilder {
+        private final List<String> files = new ArrayList<>();
+        private final StringBuilder diff = new StringBuilder();
+        private int tokens;
+
+        void addFile(String path) {
+            if (!path.isEmpty()) {
+                files.add(path);
+            }
+        }
+
+        void append(String text, int textTokens) {
+            diff.append(text);
+            tokens += textTokens;
+        }
+
+        void flushTo(List<DiffChunk> chunks) {
+            if (diff.length() > 0) {
+                chunks.add(new DiffChunk(List.copyOf(files), diff.toString(), tokens));
+            }
+        }
+    }
+}
@@ -2,36 +2,68 @@ package com.csharma.reviewpilot.langchain4j.service;
 
 import com.csharma.reviewpilot.langchain4j.agent.CodeReviewAgent;
 import com.csharma.reviewpilot.langchain4j.agent.OpenAIAgent;
+import com.csharma.reviewpilot.langchain4j.agent.ReviewListener;
+import com.csharma.reviewpilot.langchain4j.agent.TokenBudget;
+import com.csharma.reviewpilot.langchain4j.batch.BatchReviewer;
+import com.csharma.reviewpilot.langchain4j.batch.OpenAiBatchClient;
 import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
 import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
 import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import com.csharma.reviewpilot.langchain4j.model.ReviewState;
+import com.csharma.reviewpilot.langchain4j.preprocess.DiffPreprocessor;
 import com.csharma.reviewpilot.langchain4j.provider.GitHubProvider;
 import com.csharma.reviewpilot.langchain4j.provider.PullRequestProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Main orchestrator for coordinating providers and agents
  */
-public class ReviewOrchestrator {
+public class ReviewOrchestrator implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(ReviewOrchestrator.class);
     
     private final ReviewConfig config;
     private final PullRequestProvider provider;
     private final CodeReviewAgent agent;
+    private final ChunkedReviewEngine reviewEngine;
+    private final ReviewStateStore stateStore;
+    // Null when preprocessing is disabled
+    private final DiffPreprocessor preprocessor;
 
     public ReviewOrchestrator(ReviewConfig config) throws Exception {
         this.config = config;
         this.provider = createProvider();
         this.agent = createAgent();
+        this.reviewEngine = new ChunkedReviewEngine(agent, config);
+        this.stateStore = new ReviewStateStore(Path.of(config.getStateDirectory()));
+        this.preprocessor = createPreprocessor(config);
         
         logger.info("Initialized ReviewOrchestrator with provider: {} and agent: {}", 
                    provider.getProviderName(), agent.getAgentName());
     }
 
+    public ReviewOrchestrator(ReviewConfig config, PullRequestProvider provider, CodeReviewAgent agent) {
+        this.config = config;
+        this.provider = provider;
+        this.agent = agent;
+        this.reviewEngine = new ChunkedReviewEngine(agent, config);
+        this.stateStore = new ReviewStateStore(Path.of(config.getStateDirectory()));
+        this.preprocessor = createPreprocessor(config);
+    }
+
+    private static DiffPreprocessor createPreprocessor(ReviewConfig config) {
+        if (!Boolean.TRUE.equals(config.getPreprocessDiff())) {
+            return null;
+        }
+        return DiffPreprocessor.fromConfig(config, TokenBudget.forConfig(config)::count);
+    }
+
     /**
      * Run a complete code review
      * 
@@ -42,6 +74,23 @@ public class ReviewOrchestrator {
      * @throws Exception if there's an error during the review
      */
     public CodeReviewResult runReview(String repoOwner, String repoName, int prNumber) throws Exception {
+        return runReview(repoOwner, repoName, prNumber, null);
+    }
+
+    /**
+     * Run a complete code review, streaming the review text to {@code listener} as it is generated
+     * 
+     * @param repoOwner repository owner
+     * @param repoName repository name
+     * @param prNumber pull request number
+     * @param listener receives the review text and the final result, or {@code null} not to stream
+     * @return review result
+     * @throws Exception if there's an error during the review
+     */
+    public CodeReviewResult runReview(String repoOwner, String repoName, int prNumber, ReviewListener listener) throws Exception {
+        if (Boolean.TRUE.equals(config.getIncremental())) {
+            return runIncrementalReview(repoOwner, repoName, prNumber, listener);
+        }
         logger.info("Starting review for PR #{} in {}/{}", prNumber, repoOwner, repoName);
         
         // Fetch pull request details
@@ -49,12 +98,149 @@ public class ReviewOrchestrator {
         logger.info("Fetched PR details: {}", prDetails.getTitle());
         
         // Run the review
-        CodeReviewResult result = agent.reviewPullRequest(prDetails);
+        CodeReviewResult result = reviewEngine.review(preprocess(prDetails), listener);
         logger.info("Completed review with score: {}", result.getCodeQualityScore());
+        remember(repoOwner, repoName, prNumber, prDetails, result);
+        
+        return complete(result, listener);
+    }
+
+    /**
+     * Review only what changed since the last review of this pull request and merge the new
+     * findings into the stored result. The first run of a pull request is a full review.
+     * 
+     * @param repoOwner repository owner
+     * @param repoName repository name
+     * @param prNumber pull request number
+     * @return the merged review result
+     * @throws Exception if there's an error during the review
+     */
+    public CodeReviewResult runIncrementalReview(String repoOwner, String repoName, int prNumber) throws Exception {
+        return runIncrementalReview(repoOwner, repoName, prNumber, null);
+    }
+
+    private CodeReviewResult runIncrementalReview(String repoOwner, String repoName, int prNumber, ReviewListener listener) throws Exception {
+        ReviewState previous = stateStore.load(repoOwner, repoName, prNumber);
+        if (previous == null || previous.getResult() == null) {
+            logger.info("No previous review for PR #{} in {}/{}, running a full review", prNumber, repoOwner, repoName);
+            PullRequestDetails prDetails = provider.fetchPullRequestDetails(repoOwner, repoName, prNumber);
+            CodeReviewResult result = reviewEngine.review(preprocess(prDetails), listener);
+            saveState(repoOwner, repoName, prNumber, prDetails, result);
+            remember(repoOwner, repoName, prNumber, prDetails, result);
+            return complete(result, listener);
+        }
+        
+        PullRequestDetails changes = provider.fetchChangesSince(repoOwner, repoName, prNumber, previous);
+        if (changes.getChangedFiles().isEmpty()) {
+            logger.info("No changes to review since {}", previous.getHeadSha());
+            saveState(repoOwner, repoName, prNumber, changes, previous.getResult());
+            return complete(previous.getResult(), listener);
+        }
         
+        logger.info("Reviewing {} files changed since {}", changes.getChangedFiles().size(), previous.getHeadSha());
+        CodeReviewResult result = ReviewResults.mergeIncremental(previous.getResult(), reviewEngine.review(preprocess(changes), listener));
+        saveState(repoOwner, repoName, prNumber, changes, result);
+        remember(repoOwner, repoName, prNumber, changes, result);
+        return complete(result, listener);
+    }
+
+    /**
+     * Review several pull requests in one OpenAI batch: cheaper than one synchronous review each,
+     * but the batch may take up to its 24h completion window. Each pull request gets a single
+     * structured review; diffs are not chunked, only trimmed to the context window.
+     * 
+     * @param repoOwner repository owner
+     * @param repoName repository name
+     * @param prNumbers pull request numbers
+     * @return results by pull request number, for the reviews that succeeded
+     * @throws Exception if there's an error fetching the pull requests or running the batch
+     */
+    public Map<Integer, CodeReviewResult> runBatchReview(String repoOwner, String repoName, List<Integer> prNumbers) throws Exception {
+        if (!(agent instanceof OpenAIAgent openAIAgent)) {
+            throw new UnsupportedOperationException(agent.getAgentName() + " agent does not support batch reviews");
+        }
+        Map<String, PullRequestDetails> pullRequests = new LinkedHashMap<>();
+        for (int prNumber : prNumbers) {
+            PullRequestDetails prDetails = provider.fetchPullRequestDetails(repoOwner, repoName, prNumber);
+            pullRequests.put(memoryId(repoOwner, repoName, prNumber), preprocess(prDetails));
+        }
+        logger.info("Fetched {} PRs from {}/{} for batch review", pullRequests.size(), repoOwner, repoName);
+        
+        BatchReviewer reviewer = new BatchReviewer(openAIAgent,
+                new OpenAiBatchClient(config.getOpenAiBaseUrl(), System.getenv("OPENAI_API_KEY")), config);
+        Map<String, CodeReviewResult> reviews = reviewer.review(pullRequests);
+        
+        Map<Integer, CodeReviewResult> results = new LinkedHashMap<>();
+        for (int prNumber : prNumbers) {
+            String id = memoryId(repoOwner, repoName, prNumber);
+            CodeReviewResult result = reviews.get(id);
+            if (result != null) {
+                remember(repoOwner, repoName, prNumber, pullRequests.get(id), result);
+                results.put(prNumber, result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Answer a follow-up question about the last review of a pull request from the agent's
+     * conversation memory, without fetching or sending the diff again
+     * 
+     * @param repoOwner repository owner
+     * @param repoName repository name
+     * @param prNumber pull request number
+     * @param question the question
+     * @return the answer
+     */
+    public String ask(String repoOwner, String repoName, int prNumber, String question) {
+        return agent.ask(memoryId(repoOwner, repoName, prNumber), question);
+    }
+
+    /**
+     * Close the agent, releasing the threads it runs model calls on
+     */
+    @Override
+    public void close() {
+        agent.close();
+    }
+
+    static String memoryId(String repoOwner, String repoName, int prNumber) {
+        return repoOwner + "/" + repoName + "#" + prNumber;
+    }
+
+    private PullRequestDetails preprocess(PullRequestDetails prDetails) {
+        return preprocessor == null ? prDetails : preprocessor.apply(prDetails);
+    }
+
+    private static CodeReviewResult complete(CodeReviewResult result, ReviewListener listener) {
+        if (listener != null) {
+            listener.onComplete(result);
+        }
         return result;
     }
 
+    private void remember(String repoOwner, String repoName, int prNumber, PullRequestDetails prDetails, CodeReviewResult result) {
+        if (!Boolean.TRUE.equals(config.getEnableMemory())) {
+            return;
+        }
+        try {
+            agent.remember(memoryId(repoOwner, repoName, prNumber), prDetails, result);
+        } catch (Exception e) {
+            logger.warn("Failed to remember review of PR #{} for follow-up questions: {}", prNumber, e.getMessage());
+        }
+    }
+
+    private void saveState(String repoOwner, String repoName, int prNumber, PullRequestDetails prDetails, CodeReviewResult result) {
+        if (prDetails.getHeadSha() == null) {
+            return;
+        }
+        try {
+            stateStore.save(repoOwner, repoName, prNumber, new ReviewState(prDetails.getHeadSha(), prDetails.getFileShas(), result));
+        } catch (Exception e) {
+            logger.warn("Failed to save review state for PR #{}: {}", prNumber, e.getMessage());
+        }
+    }
+
     private PullRequestProvider createProvider() throws Exception {
         String authToken = getAuthToken();
         
@@ -75,7 +261,7 @@ public class ReviewOrchestrator {
     private CodeReviewAgent createAgent() {
         switch (config.getAgent().toLowerCase()) {
             case "openai":
-                return new OpenAIAgent(config);
+                return Boolean.TRUE.equals(config.getEnableCascade()) ? new CascadingReviewAgent(config) : new OpenAIAgent(config);
             case "anthropic":
                 // TODO: Implement Anthropic agent
                 throw new UnsupportedOperationException("Anthropic agent not yet implemented");
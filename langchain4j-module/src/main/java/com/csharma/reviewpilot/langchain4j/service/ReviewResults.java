@@ -0,0 +1,111 @@
+package com.csharma.reviewpilot.langchain4j.service;
+
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Merging of partial {@link CodeReviewResult}s
+ */
+public final class ReviewResults {
+
+    private ReviewResults() {}
+
+    /**
+     * Merge a review of new changes into an earlier review. Findings are the union of both
+     * reviews; summary, scores and usage describe the latest run.
+     */
+    public static CodeReviewResult mergeIncremental(CodeReviewResult previous, CodeReviewResult latest) {
+        CodeReviewResult merged = new CodeReviewResult(latest.getSummary());
+        merged.setIssues(union(previous.getIssues(), latest.getIssues()));
+        merged.setSuggestions(union(previous.getSuggestions(), latest.getSuggestions()));
+        merged.setSecurityConcerns(union(previous.getSecurityConcerns(), latest.getSecurityConcerns()));
+        merged.setPerformanceIssues(union(previous.getPerformanceIssues(), latest.getPerformanceIssues()));
+        merged.setCodeQualityScore(latest.getCodeQualityScore() != null ? latest.getCodeQualityScore() : previous.getCodeQualityScore());
+        merged.setConfidenceScore(latest.getConfidenceScore());
+        merged.setReviewTime(latest.getReviewTime());
+        merged.setTokensUsed(latest.getTokensUsed());
+        merged.setModelUsed(latest.getModelUsed());
+        merged.setFindingTiers(tiers(List.of(latest, previous)));
+        return merged;
+    }
+
+    /**
+     * Reduce the reviews of the chunks of one pull request into a single result. Summaries are
+     * concatenated under their labels, findings are de-duplicated, scores are averaged with
+     * {@code weights} and token usage is summed.
+     *
+     * @param labels a heading for each partial result, e.g. the files of its chunk
+     * @param weights relative size of each chunk
+     */
+    public static CodeReviewResult combine(List<CodeReviewResult> partials, List<String> labels, List<Integer> weights) {
+        StringBuilder summary = new StringBuilder();
+        CodeReviewResult combined = new CodeReviewResult();
+        for (int i = 0; i < partials.size(); i++) {
+            CodeReviewResult partial = partials.get(i);
+            if (partial.getSummary() != null && !partial.getSummary().isBlank()) {
+                if (summary.length() > 0) {
+                    summary.append("\n\n");
+                }
+                summary.append("### ").append(labels.get(i)).append('\n').append(partial.getSummary().strip());
+            }
+            combined.setIssues(union(combined.getIssues(), partial.getIssues()));
+            combined.setSuggestions(union(combined.getSuggestions(), partial.getSuggestions()));
+            combined.setSecurityConcerns(union(combined.getSecurityConcerns(), partial.getSecurityConcerns()));
+            combined.setPerformanceIssues(union(combined.getPerformanceIssues(), partial.getPerformanceIssues()));
+        }
+        combined.setSummary(summary.toString());
+        combined.setCodeQualityScore(weightedMean(partials.stream().map(CodeReviewResult::getCodeQualityScore).toList(), weights));
+        combined.setConfidenceScore(weightedMean(partials.stream().map(CodeReviewResult::getConfidenceScore).toList(), weights));
+        combined.setTokensUsed(partials.stream().map(CodeReviewResult::getTokensUsed).filter(Objects::nonNull).mapToInt(Integer::intValue).sum());
+        combined.setModelUsed(partials.stream().map(CodeReviewResult::getModelUsed).filter(Objects::nonNull).findFirst().orElse(null));
+        combined.setFindingTiers(tiers(partials));
+        return combined;
+    }
+
+    /**
+     * The finding tiers of all results, the first result naming a finding winning; null when no
+     * result is tiered
+     */
+    private static Map<String, String> tiers(List<CodeReviewResult> results) {
+        Map<String, String> tiers = null;
+        for (CodeReviewResult result : results) {
+            if (result.getFindingTiers() != null) {
+                if (tiers == null) {
+                    tiers = new LinkedHashMap<>();
+                }
+                result.getFindingTiers().forEach(tiers::putIfAbsent);
+            }
+        }
+        return tiers;
+    }
+
+    private static Double weightedMean(List<Double> values, List<Integer> weights) {
+        double sum = 0;
+        double totalWeight = 0;
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) != null) {
+                double weight = Math.max(1, weights.get(i));
+                sum += values.get(i) * weight;
+                totalWeight += weight;
+            }
+        }
+        return totalWeight == 0 ? null : sum / totalWeight;
+    }
+
+    private static <T> List<T> union(List<T> first, List<T> second) {
+        LinkedHashSet<T> items = new LinkedHashSet<>();
+        if (first != null) {
+            items.addAll(first);
+        }
+        if (second != null) {
+            items.addAll(second);
+        }
+        return new ArrayList<>(items);
+    }
+}
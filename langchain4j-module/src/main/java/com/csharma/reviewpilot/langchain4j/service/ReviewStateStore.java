@@ -0,0 +1,96 @@
+package com.csharma.reviewpilot.langchain4j.service;
+
+import com.csharma.reviewpilot.langchain4j.model.ReviewState;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Stores the last {@link ReviewState} of each pull request as a JSON file under
+ * {@code <directory>/<owner>/<repo>/<prNumber>.json}
+ */
+public class ReviewStateStore {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewStateStore.class);
+
+    private final Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public ReviewStateStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Load the state recorded by the last review of a pull request
+     *
+     * @return the state, or {@code null} if the pull request was never reviewed or the file is unreadable
+     */
+    public ReviewState load(String repoOwner, String repoName, int prNumber) {
+        Path file = fileFor(repoOwner, repoName, prNumber);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), ReviewState.class);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable review state {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Save the state of a pull request, replacing the previous one atomically
+     */
+    public void save(String repoOwner, String repoName, int prNumber, ReviewState state) throws IOException {
+        Path file = fileFor(repoOwner, repoName, prNumber);
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), prNumber + "-", ".tmp");
+        try {
+            objectMapper.writeValue(temp.toFile(), state);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path fileFor(String repoOwner, String repoName, int prNumber) {
+        Path root = directory.toAbsolutePath().normalize();
+        Path file = root.resolve(encode(repoOwner)).resolve(encode(repoName)).resolve(prNumber + ".json").normalize();
+        if (!file.startsWith(root)) {
+            throw new IllegalArgumentException("Review state for " + repoOwner + "/" + repoName + " would be outside " + root);
+        }
+        return file;
+    }
+
+    /**
+     * Percent-encode everything but letters, digits, {@code _}, {@code -} and non-leading dots, so
+     * distinct names get distinct directories and {@code .}, {@code ..} or hidden names cannot escape
+     * or hide inside the state directory
+     */
+    private static String encode(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Repository owner and name must not be empty");
+        }
+        StringBuilder encoded = new StringBuilder(name.length());
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            boolean safe = (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || (b >= '0' && b <= '9')
+                    || b == '_' || b == '-' || (b == '.' && i > 0);
+            if (safe) {
+                encoded.append((char) b);
+            } else {
+                encoded.append('%').append(Character.toUpperCase(Character.forDigit(b >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(b & 0xf, 16)));
+            }
+        }
+        return encoded.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.csharma.reviewpilot.langchain4j.service;
+
+import com.csharma.reviewpilot.langchain4j.agent.TokenBudget;
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.preprocess.DiffFile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * First tier of a cascading review: a small model rates every hunk of a diff for how risky it is
+ * to merge without a careful review. One call scores the whole diff. Hunks the model does not
+ * score, including those left out to fit its prompt, count as {@link #UNSCORED} so they are
+ * escalated rather than waved through.
+ */
+public class RiskTriage {
+    private static final Logger logger = LoggerFactory.getLogger(RiskTriage.class);
+
+    public static final int UNSCORED = 100;
+    // Tokens of each hunk shown to the triage model; the start of a hunk is enough to judge it
+    private static final int HUNK_PREVIEW_TOKENS = 300;
+    private static final int DESCRIPTION_TOKENS = 200;
+    static final int MAX_ANSWER_TOKENS = 1024;
+
+    private static final String SYSTEM_PROMPT = """
+            You triage code changes before review. Rate each change from 0 to 100 by how risky it is to merge \
+            without a careful review: 0-20 for documentation, comments, formatting, renames, test data or trivial \
+            configuration; 80-100 for security-sensitive code, authentication, concurrency, data migrations, public \
+            APIs or intricate logic. Respond with a single JSON object mapping each change id to its score, \
+            e.g. {"1.1": 10, "2.1": 85}, and nothing else.""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChatLanguageModel model;
+    private final TokenBudget budget;
+
+    public RiskTriage(ChatLanguageModel model, TokenBudget budget) {
+        this.model = model;
+        this.budget = budget;
+    }
+
+    /**
+     * Risk scores of the hunks of a diff, and the tokens the triage call used
+     */
+    public record Scores(Map<String, Integer> byHunk, int tokensUsed) {
+        /**
+         * Score of hunk {@code hunk} of file {@code file}, both 0-based
+         */
+        public int of(int file, int hunk) {
+            return byHunk.getOrDefault(id(file, hunk), UNSCORED);
+        }
+    }
+
+    /**
+     * Score the hunks of {@code files}, the parsed diff of {@code prDetails}. A failed call
+     * leaves every hunk unscored.
+     */
+    public Scores score(PullRequestDetails prDetails, List<DiffFile> files) {
+        StringBuilder prompt = new StringBuilder(String.format("Title: %s%nDescription: %s%n%n",
+                prDetails.getTitle(), budget.truncate(prDetails.getDescription(), DESCRIPTION_TOKENS)));
+        int tokens = budget.count(SYSTEM_PROMPT) + budget.count(prompt.toString());
+        int listed = 0;
+        int total = 0;
+        for (int i = 0; i < files.size(); i++) {
+            List<String> hunks = files.get(i).hunks();
+            for (int j = 0; j < hunks.size(); j++) {
+                total++;
+                String change = "[" + id(i, j) + "] " + files.get(i).path() + "\n"
+                        + budget.truncate(hunks.get(j), HUNK_PREVIEW_TOKENS) + "\n";
+                int changeTokens = budget.count(change);
+                if (tokens + changeTokens > budget.promptTokens()) {
+                    continue;
+                }
+                prompt.append(change);
+                tokens += changeTokens;
+                listed++;
+            }
+        }
+        if (listed == 0) {
+            return new Scores(Map.of(), 0);
+        }
+        if (listed < total) {
+            logger.warn("Triage prompt holds {} of {} hunks, the rest are escalated unscored", listed, total);
+        }
+
+        List<ChatMessage> messages = List.of(new SystemMessage(SYSTEM_PROMPT), new UserMessage(prompt.toString()));
+        try {
+            Response<AiMessage> response = model.generate(messages);
+            int used = response.tokenUsage() != null && response.tokenUsage().totalTokenCount() != null
+                    ? response.tokenUsage().totalTokenCount()
+                    : tokens + budget.count(response.content().text());
+            return new Scores(parse(response.content().text()), used);
+        } catch (Exception e) {
+            logger.warn("Risk triage failed, escalating every hunk: {}", e.getMessage());
+            return new Scores(Map.of(), 0);
+        }
+    }
+
+    private Map<String, Integer> parse(String text) throws Exception {
+        Map<String, Integer> scores = new HashMap<>();
+        int start = text.indexOf('{');
+        int end = text.lastIndexOf('}');
+        if (start < 0 || end <= start) {
+            logger.warn("Risk triage answer was not JSON, escalating every hunk");
+            return scores;
+        }
+        JsonNode node = objectMapper.readTree(text.substring(start, end + 1));
+        node.fields().forEachRemaining(field -> {
+            if (field.getValue().isNumber()) {
+                scores.put(field.getKey(), Math.max(0, Math.min(100, field.getValue().asInt())));
+            }
+        });
+        return scores;
+    }
+
+    static String id(int file, int hunk) {
+        return (file + 1) + "." + (hunk + 1);
+    }
+}
@@ -1,10 +1,33 @@
 package com.csharma.reviewpilot.langchain4j.agent;
 
+import com.csharma.reviewpilot.langchain4j.memory.ReviewMemoryStore;
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
 import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
 import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import com.csharma.reviewpilot.langchain4j.retrieval.HashingEmbeddingModel;
+import com.csharma.reviewpilot.langchain4j.retrieval.RepositoryIndex;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -75,4 +98,319 @@ class OpenAIAgentTest {
         assertTrue(config.getEnableMemory());
         assertTrue(config.getEnableVectorSearch());
     }
-} 
\ No newline at end of file
+
+    private static ChatLanguageModel stubModel(Function<String, String> answer) {
+        return new ChatLanguageModel() {
+            @Override
+            public Response<AiMessage> generate(List<ChatMessage> messages) {
+                return Response.from(AiMessage.from(answer.apply(ChatMessages.text(messages.get(messages.size() - 1)))));
+            }
+        };
+    }
+
+    private static PullRequestDetails samplePullRequest() {
+        return new PullRequestDetails("Test PR", "Description", List.of("A.java"), "diff --git a/A.java b/A.java\n+x\n",
+            1, "owner", "repo", "main", "feature");
+    }
+
+    private static boolean await(CountDownLatch latch, long seconds) {
+        try {
+            return latch.await(seconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Test
+    void testAnalysesRunConcurrently() {
+        // Each call waits for the other two, so the review only finishes if all three run at once
+        CountDownLatch allStarted = new CountDownLatch(3);
+        AtomicInteger overlapping = new AtomicInteger();
+        ChatLanguageModel model = stubModel(prompt -> {
+            allStarted.countDown();
+            if (await(allStarted, 10)) {
+                overlapping.incrementAndGet();
+            }
+            return prompt.contains("security") ? "- SQL injection" : prompt.contains("performance") ? "- N+1 query" : "Looks good";
+        });
+        ReviewConfig config = new ReviewConfig();
+        config.setAnalysisTimeoutSeconds(30);
+
+        CodeReviewResult result = new OpenAIAgent(config, model).reviewPullRequest(samplePullRequest());
+
+        assertEquals("Looks good", result.getSummary());
+        assertEquals(List.of("SQL injection"), result.getSecurityConcerns());
+        assertEquals(List.of("N+1 query"), result.getPerformanceIssues());
+        assertEquals(3, overlapping.get());
+    }
+
+    @Test
+    void testSlowAnalysisTimesOutToEmptyListAndIsInterrupted() {
+        ReviewConfig config = new ReviewConfig();
+        config.setAnalysisTimeoutSeconds(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ChatLanguageModel model = stubModel(prompt -> {
+            if (prompt.contains("security")) {
+                try {
+                    new CountDownLatch(1).await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+            return prompt.contains("performance") ? "- N+1 query" : "Looks good";
+        });
+
+        CodeReviewResult result = new OpenAIAgent(config, model).reviewPullRequest(samplePullRequest());
+
+        assertEquals("Looks good", result.getSummary());
+        assertEquals(List.of(), result.getSecurityConcerns());
+        assertEquals(List.of("N+1 query"), result.getPerformanceIssues());
+        assertTrue(await(interrupted, 5), "timed-out analysis was not interrupted");
+    }
+
+    @Test
+    void testFailedSummaryCancelsTheAnalyses() {
+        CountDownLatch interrupted = new CountDownLatch(2);
+        CountDownLatch analysesStarted = new CountDownLatch(2);
+        ChatLanguageModel model = stubModel(prompt -> {
+            if (!prompt.contains("security") && !prompt.contains("performance")) {
+                await(analysesStarted, 5);
+                throw new IllegalStateException("context_length_exceeded");
+            }
+            analysesStarted.countDown();
+            try {
+                new CountDownLatch(1).await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "- never read";
+        });
+        ReviewConfig config = new ReviewConfig();
+        config.setAnalysisTimeoutSeconds(30);
+
+        assertThrows(RuntimeException.class, () -> new OpenAIAgent(config, model).reviewPullRequest(samplePullRequest()));
+
+        assertTrue(await(interrupted, 5), "analyses kept running after the summary failed");
+    }
+
+    @Test
+    void testCloseInterruptsRunningAnalyses() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ChatLanguageModel model = stubModel(prompt -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "Looks good";
+        });
+        OpenAIAgent agent = new OpenAIAgent(new ReviewConfig(), model);
+        Thread.ofVirtual().start(() -> {
+            try {
+                agent.reviewPullRequest(samplePullRequest());
+            } catch (RuntimeException ignored) {
+            }
+        });
+
+        assertTrue(await(started, 5));
+        agent.close();
+
+        assertTrue(await(interrupted, 5), "close did not interrupt the running call");
+    }
+
+    @Test
+    void testStructuredModeBindsSingleJsonAnswer() {
+        ReviewConfig config = new ReviewConfig();
+        config.setStructuredOutput(true);
+        config.setIncludePerformanceAnalysis(false);
+        AtomicInteger calls = new AtomicInteger();
+        ChatLanguageModel model = stubModel(prompt -> {
+            calls.incrementAndGet();
+            return "```json\n{\"summary\":\"Solid\",\"issues\":[{\"type\":\"bug\",\"severity\":\"high\",\"file\":\"A.java\",\"line\":3,"
+                + "\"message\":\"NPE\"}],\"suggestions\":[\"Add tests\"],\"securityConcerns\":[\"XSS\"],\"performanceIssues\":[\"Slow\"],"
+                + "\"codeQualityScore\":72,\"confidenceScore\":80,\"extra\":true}\n```";
+        });
+
+        CodeReviewResult result = new OpenAIAgent(config, model).reviewPullRequest(samplePullRequest());
+
+        assertEquals(1, calls.get());
+        assertEquals("Solid", result.getSummary());
+        assertEquals(List.of(Map.of("type", "bug", "severity", "high", "file", "A.java", "line", 3, "message", "NPE")), result.getIssues());
+        assertEquals(List.of("Add tests"), result.getSuggestions());
+        assertEquals(List.of("XSS"), result.getSecurityConcerns());
+        assertNull(result.getPerformanceIssues());
+        assertEquals(72.0, result.getCodeQualityScore());
+        assertEquals(80.0, result.getConfidenceScore());
+    }
+
+    @Test
+    void testStructuredModeKeepsInvalidAnswerAsSummary() {
+        ReviewConfig config = new ReviewConfig();
+        config.setStructuredOutput(true);
+
+        CodeReviewResult result = new OpenAIAgent(config, stubModel(prompt -> "Not JSON")).reviewPullRequest(samplePullRequest());
+
+        assertEquals("Not JSON", result.getSummary());
+    }
+
+    @Test
+    void testCachedModelAnswersRepeatedPromptsWithoutCallingDelegate(@TempDir Path cacheDir) {
+        AtomicInteger calls = new AtomicInteger();
+        ChatLanguageModel model = stubModel(prompt -> {
+            calls.incrementAndGet();
+            return prompt.contains("security") ? "- SQL injection" : prompt.contains("performance") ? "- N+1 query" : "Looks good";
+        });
+        ResponseCache cache = new ResponseCache(cacheDir, 1 << 20, 16, Duration.ofDays(1));
+        OpenAIAgent agent = new OpenAIAgent(new ReviewConfig(), new CachingChatLanguageModel(model, cache, "gpt-4", 0.1));
+
+        CodeReviewResult first = agent.reviewPullRequest(samplePullRequest());
+        CodeReviewResult second = agent.reviewPullRequest(samplePullRequest());
+        // A different temperature is a different request
+        new CachingChatLanguageModel(model, cache, "gpt-4", 0.7).generate(List.of(UserMessage.from("Looks good?")));
+
+        assertEquals(4, calls.get());
+        assertEquals(first.getSummary(), second.getSummary());
+        assertEquals(first.getSecurityConcerns(), second.getSecurityConcerns());
+        assertEquals(3, cache.stats().hits());
+        assertEquals(4, cache.stats().misses());
+    }
+
+    @Test
+    void testOversizedPromptIsTrimmedToContextWindowMinusMaxTokens() {
+        ReviewConfig config = new ReviewConfig();
+        config.setContextWindow(1500);
+        config.setMaxTokens(500);
+        config.setIncludeSecurityAnalysis(false);
+        config.setIncludePerformanceAnalysis(false);
+        TokenBudget budget = TokenBudget.forConfig(config);
+        StringBuilder diff = new StringBuilder("diff --git a/A.java b/A.java\n");
+        for (int i = 0; i < 500; i++) {
+            diff.append("+    int value").append(i).append(" = compute(").append(i).append(");\n");
+        }
+        PullRequestDetails pr = samplePullRequest().withDiff(List.of("A.java"), diff.toString());
+        List<List<ChatMessage>> sent = new ArrayList<>();
+        ChatLanguageModel model = messages -> {
+            sent.add(messages);
+            return Response.from(AiMessage.from("Looks good"), new TokenUsage(900, 40));
+        };
+
+        CodeReviewResult result = new OpenAIAgent(config, model).reviewPullRequest(pr);
+
+        assertTrue(budget.count(diff.toString()) > 1000);
+        int promptTokens = budget.count(sent.get(0));
+        assertTrue(promptTokens <= 1000, "prompt of " + promptTokens + " tokens");
+        assertTrue(promptTokens > 900, "prompt of " + promptTokens + " tokens wastes the budget");
+        String prompt = ChatMessages.text(sent.get(0).get(1));
+        assertTrue(prompt.contains("+    int value0 = compute(0);\n"));
+        assertTrue(prompt.contains("[Diff truncated to fit the model's context window]"));
+        assertEquals(940, result.getTokensUsed());
+    }
+
+    @Test
+    void testTokensAreCountedWithModelTokenizerWhenUsageIsNotReported() {
+        TokenBudget budget = TokenBudget.forConfig(new ReviewConfig());
+
+        assertEquals(8192, budget.contextWindow());
+        assertEquals(4192, budget.promptTokens());
+        assertEquals(128_000, TokenBudget.contextWindowOf("gpt-4o-mini"));
+        assertEquals(3, budget.count("hello world!"));
+        assertEquals("line one\n", budget.truncate("line one\nline two\n", 4));
+
+        ReviewConfig config = new ReviewConfig();
+        config.setStructuredOutput(true);
+        CodeReviewResult result = new OpenAIAgent(config, stubModel(prompt -> "{\"summary\":\"Solid\"}"))
+            .reviewPullRequest(samplePullRequest());
+        assertTrue(result.getTokensUsed() > budget.count(samplePullRequest().getDiff()));
+    }
+
+    @Test
+    void testSummaryIsStreamedToListenerAndResultAssembledAtTheEnd() {
+        ChatLanguageModel model = stubModel(prompt -> prompt.contains("security") ? "- SQL injection" : "- N+1 query");
+        StreamingChatLanguageModel streamingModel = (messages, handler) -> new Thread(() -> {
+            for (String token : List.of("Looks", " good", "!")) {
+                handler.onNext(token);
+            }
+            handler.onComplete(Response.from(AiMessage.from("Looks good!")));
+        }).start();
+        List<String> tokens = new CopyOnWriteArrayList<>();
+
+        CodeReviewResult result = new OpenAIAgent(new ReviewConfig(), model, streamingModel)
+            .reviewPullRequest(samplePullRequest(), tokens::add);
+
+        assertEquals(List.of("Looks", " good", "!"), tokens);
+        assertEquals("Looks good!", result.getSummary());
+        assertEquals(List.of("SQL injection"), result.getSecurityConcerns());
+        assertEquals(List.of("N+1 query"), result.getPerformanceIssues());
+    }
+
+    @Test
+    void testCustomPromptDoesNotSubstituteInsideTheDiff() {
+        ReviewConfig config = new ReviewConfig();
+        config.setStructuredOutput(true);
+        config.setCustomPrompt("Review {{title}} ({{changedFiles}}):\n{{diff}}{{context}}Unknown: {{ticket}}");
+        List<String> prompts = new CopyOnWriteArrayList<>();
+        ChatLanguageModel model = stubModel(prompt -> {
+            prompts.add(prompt);
+            return "{\"summary\":\"Solid\"}";
+        });
+        PullRequestDetails pr = samplePullRequest().withDiff(List.of("Mail.java"),
+            "diff --git a/Mail.java b/Mail.java\n+String subject = \"{{title}} {{context}}\";\n");
+
+        new OpenAIAgent(config, model).reviewPullRequest(pr);
+
+        assertEquals(List.of("Review Test PR ([Mail.java]):\n"
+            + "diff --git a/Mail.java b/Mail.java\n+String subject = \"{{title}} {{context}}\";\nUnknown: {{ticket}}"), prompts);
+    }
+
+    @Test
+    void testRelatedRepositoryCodeIsAttachedToPrompt(@TempDir Path repo) throws Exception {
+        Files.writeString(repo.resolve("Pricing.java"), "class Pricing {\n    double discountFor(Customer customer) { return 0.1; }\n}\n");
+        Files.writeString(repo.resolve("Logger.java"), "class Logger {\n    void info(String line) {}\n}\n");
+        ReviewConfig config = new ReviewConfig();
+        config.setStructuredOutput(true);
+        config.setVectorSearchTopK(1);
+        List<String> prompts = new CopyOnWriteArrayList<>();
+        ChatLanguageModel model = stubModel(prompt -> {
+            prompts.add(prompt);
+            return "{\"summary\":\"Solid\"}";
+        });
+        PullRequestDetails pr = samplePullRequest().withDiff(List.of("Checkout.java"),
+            "diff --git a/Checkout.java b/Checkout.java\n@@ -1 +1 @@\n-total = price;\n+total = price * (1 - pricing.discountFor(customer));\n");
+
+        new OpenAIAgent(config, model, null, new RepositoryIndex(repo, new HashingEmbeddingModel()), null).reviewPullRequest(pr);
+
+        assertEquals(1, prompts.size());
+        assertTrue(prompts.get(0).contains("Related code from the repository"));
+        assertTrue(prompts.get(0).contains("// Pricing.java (lines 1-3)\nclass Pricing {"));
+        assertFalse(prompts.get(0).contains("class Logger"));
+    }
+
+    @Test
+    void testFollowUpQuestionsUseRememberedReviewInsteadOfDiff(@TempDir Path memoryDir) {
+        List<List<ChatMessage>> sent = new CopyOnWriteArrayList<>();
+        ChatLanguageModel model = messages -> {
+            sent.add(messages);
+            return Response.from(AiMessage.from("Because the loop never backs off."));
+        };
+        CodeReviewResult review = new CodeReviewResult("Retry loop is unbounded");
+        review.setSecurityConcerns(List.of("Token logged at debug level"));
+
+        new OpenAIAgent(new ReviewConfig(), model, null, null, new ReviewMemoryStore(memoryDir, 4))
+            .remember("owner/repo#1", samplePullRequest(), review);
+        // A new process reads the conversation back from disk
+        OpenAIAgent restarted = new OpenAIAgent(new ReviewConfig(), model, null, null, new ReviewMemoryStore(memoryDir, 4));
+        assertEquals("Because the loop never backs off.", restarted.ask("owner/repo#1", "Why is the retry loop a problem?"));
+        restarted.ask("owner/repo#1", "How should it back off?");
+
+        List<ChatMessage> second = sent.get(1);
+        assertTrue(ChatMessages.text(second.get(0)).contains("Retry loop is unbounded"));
+        assertTrue(ChatMessages.text(second.get(0)).contains("- Token logged at debug level"));
+        assertFalse(ChatMessages.text(second.get(0)).contains("diff --git"));
+        assertEquals(List.of("Why is the retry loop a problem?", "Because the loop never backs off.", "How should it back off?"),
+            second.subList(1, second.size()).stream().map(ChatMessages::text).toList());
+        assertThrows(IllegalStateException.class, () -> restarted.ask("owner/repo#2", "Anything?"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.csharma.reviewpilot.langchain4j.agent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewResponseParserTest {
+
+    @Test
+    void testBulletsAndNumberedItems() {
+        String response = """
+            Found these issues:
+              - SQL injection in UserDao
+            * Missing null check
+            • Unbounded cache
+            12. Query inside loop
+            -
+            Not a finding
+            """;
+
+        assertEquals(List.of("SQL injection in UserDao", "Missing null check", "Unbounded cache", "Query inside loop"),
+            ReviewResponseParser.parse(response));
+    }
+
+    @Test
+    void testFencedSections() {
+        String response = """
+            ```json
+            ["Hardcoded password", {"message": "Weak hash", "severity": "high"}]
+            ```
+            ```java
+            /**
+             * - not a finding
+             */
+            ```
+            ```markdown
+            1. Blocking call on event loop
+            ```
+            ```json
+            {"performanceIssues": [{"description": "N+1 query"}]}
+            ```
+            ```json
+            not json
+            ```
+            - Trailing finding""";
+
+        assertEquals(List.of("Hardcoded password", "Weak hash", "Blocking call on event loop", "N+1 query", "Trailing finding"),
+            ReviewResponseParser.parse(response));
+    }
+
+    @Test
+    void testStreamedChunksReportFindingsAsTheirLinesComplete() {
+        List<String> reported = new ArrayList<>();
+        ReviewResponseParser parser = new ReviewResponseParser(reported::add);
+
+        for (String token : List.of("Issues:\n- SQL inj", "ection\n", "2", ". Leak", "ed handle", "\n```js", "on\n[\"A\",", " \"B\"]\n``", "`\n- Last")) {
+            parser.onToken(token);
+            if (token.equals("ection\n")) {
+                assertEquals(List.of("SQL injection"), reported);
+            }
+        }
+        assertEquals(List.of("SQL injection", "Leaked handle", "A", "B"), reported);
+
+        parser.onComplete(null);
+        assertEquals(List.of("SQL injection", "Leaked handle", "A", "B", "Last"), parser.findings());
+    }
+}
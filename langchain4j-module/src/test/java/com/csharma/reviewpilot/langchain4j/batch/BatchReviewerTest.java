@@ -0,0 +1,190 @@
+package com.csharma.reviewpilot.langchain4j.batch;
+
+import com.csharma.reviewpilot.langchain4j.agent.OpenAIAgent;
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchReviewerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HttpServer server;
+    private volatile String uploaded;
+    private volatile JsonNode batchRequest;
+    private final AtomicInteger polls = new AtomicInteger();
+    private volatile String finalStatus = "completed";
+
+    @TempDir
+    Path batchDir;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/files", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/v1/files")) {
+                uploaded = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                respond(exchange, 200, "{\"id\":\"file-in\",\"object\":\"file\",\"purpose\":\"batch\"}");
+            } else if (path.equals("/v1/files/file-out/content")) {
+                respond(exchange, 200, output());
+            } else if (path.equals("/v1/files/file-err/content")) {
+                respond(exchange, 200, "{\"custom_id\":\"o/r#3\",\"response\":null,"
+                        + "\"error\":{\"code\":\"context_length_exceeded\",\"message\":\"Too long\"}}\n");
+            } else {
+                respond(exchange, 404, "{}");
+            }
+        });
+        server.createContext("/v1/batches", exchange -> {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                batchRequest = objectMapper.readTree(exchange.getRequestBody());
+                respond(exchange, 200, batch("validating"));
+            } else {
+                respond(exchange, 200, batch(polls.incrementAndGet() < 2 ? "in_progress" : finalStatus));
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void testResultsAreMappedBackToEachPullRequest() throws Exception {
+        ReviewConfig config = config();
+        config.setIncludePerformanceAnalysis(false);
+
+        Map<String, CodeReviewResult> results = reviewer(config).review(pullRequests());
+
+        assertEquals(List.of("o/r#1", "o/r#2"), List.copyOf(results.keySet()));
+        CodeReviewResult first = results.get("o/r#1");
+        assertEquals("Review of PR 1", first.getSummary());
+        assertEquals(1, first.getIssues().size());
+        assertEquals(List.of("Unvalidated input"), first.getSecurityConcerns());
+        assertNull(first.getPerformanceIssues());
+        assertEquals(123, first.getTokensUsed());
+        assertEquals("gpt-4", first.getModelUsed());
+        assertEquals("Review of PR 2", results.get("o/r#2").getSummary());
+
+        assertEquals("file-in", batchRequest.path("input_file_id").asText());
+        assertEquals("/v1/chat/completions", batchRequest.path("endpoint").asText());
+        assertEquals("24h", batchRequest.path("completion_window").asText());
+        assertTrue(polls.get() >= 2);
+
+        // The uploaded file is the JSONL written to the batch directory, one request per pull request
+        assertTrue(uploaded.contains("name=\"purpose\"\r\n\r\nbatch"), uploaded);
+        List<Path> files;
+        try (var listing = Files.list(batchDir)) {
+            files = listing.sorted().toList();
+        }
+        assertEquals(2, files.size());
+        List<String> lines = Files.readAllLines(files.get(0));
+        assertEquals(3, lines.size());
+        JsonNode request = objectMapper.readTree(lines.get(0));
+        assertEquals("o/r#1", request.path("custom_id").asText());
+        assertEquals("/v1/chat/completions", request.path("url").asText());
+        assertEquals("gpt-4", request.path("body").path("model").asText());
+        assertEquals("system", request.path("body").path("messages").path(0).path("role").asText());
+        assertTrue(request.path("body").path("messages").path(1).path("content").asText().contains("Title: PR 1"));
+        assertTrue(request.path("body").path("messages").path(1).path("content").asText().contains("Leave performanceIssues empty."));
+        assertFalse(request.path("body").has("response_format"));
+        assertTrue(uploaded.contains(lines.get(2)));
+        assertTrue(files.get(1).getFileName().toString().endsWith(".output.jsonl"));
+    }
+
+    @Test
+    void testBatchWithoutOutputFails() {
+        finalStatus = "failed";
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> reviewer(config()).review(pullRequests()));
+        assertTrue(error.getMessage().contains("failed"), error.getMessage());
+    }
+
+    private BatchReviewer reviewer(ReviewConfig config) {
+        OpenAIAgent agent = new OpenAIAgent(config, messages -> {
+            throw new AssertionError("Batch reviews must not call the chat model");
+        });
+        OpenAiBatchClient client = new OpenAiBatchClient("http://localhost:" + server.getAddress().getPort() + "/v1/", "test-key");
+        return new BatchReviewer(agent, client, config, batchDir, Duration.ofMillis(10));
+    }
+
+    private static ReviewConfig config() {
+        ReviewConfig config = new ReviewConfig();
+        config.setEnableCache(false);
+        config.setEnableMemory(false);
+        config.setEnableVectorSearch(false);
+        return config;
+    }
+
+    private static Map<String, PullRequestDetails> pullRequests() {
+        Map<String, PullRequestDetails> pullRequests = new LinkedHashMap<>();
+        for (int i = 1; i <= 3; i++) {
+            pullRequests.put("o/r#" + i, new PullRequestDetails("PR " + i, "Desc", List.of("A.java"),
+                    "diff --git a/A.java b/A.java\n+class A" + i + " {}\n", i, "o", "r", "main", "feature"));
+        }
+        return pullRequests;
+    }
+
+    private String batch(String status) {
+        boolean done = status.equals("completed");
+        return "{\"id\":\"batch_1\",\"object\":\"batch\",\"status\":\"" + status + "\","
+                + "\"output_file_id\":" + (done ? "\"file-out\"" : "null") + ","
+                + "\"error_file_id\":" + (status.equals("in_progress") || status.equals("validating") ? "null" : "\"file-err\"") + ","
+                + "\"request_counts\":{\"total\":3,\"completed\":" + (done ? 2 : 0) + ",\"failed\":" + (done ? 1 : 0) + "}}";
+    }
+
+    /**
+     * A structured answer for every uploaded request except the third, which is in the error file
+     */
+    private String output() throws IOException {
+        StringBuilder output = new StringBuilder();
+        for (String line : uploaded.split("\r?\n")) {
+            if (!line.startsWith("{") || line.contains("\"o/r#3\"")) {
+                continue;
+            }
+            String id = objectMapper.readTree(line).path("custom_id").asText();
+            String answer = objectMapper.writeValueAsString(Map.of(
+                    "summary", "Review of PR " + id.substring(id.indexOf('#') + 1),
+                    "issues", List.of(Map.of("type", "bug", "severity", "high", "file", "A.java", "message", "Null check")),
+                    "securityConcerns", List.of("Unvalidated input"),
+                    "performanceIssues", List.of("Slow loop"),
+                    "codeQualityScore", 70));
+            Map<String, Object> body = Map.of(
+                    "choices", List.of(Map.of("index", 0, "message", Map.of("role", "assistant", "content", answer))),
+                    "usage", Map.of("prompt_tokens", 100, "completion_tokens", 23, "total_tokens", 123));
+            output.append(objectMapper.writeValueAsString(Map.of(
+                    "id", "req_" + id, "custom_id", id,
+                    "response", Map.of("status_code", 200, "body", body)))).append('\n');
+        }
+        return output.toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
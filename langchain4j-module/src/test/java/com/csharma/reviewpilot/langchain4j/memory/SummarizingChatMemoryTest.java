@@ -0,0 +1,83 @@
+package com.csharma.reviewpilot.langchain4j.memory;
+
+import com.csharma.reviewpilot.langchain4j.agent.ChatMessages;
+import com.csharma.reviewpilot.langchain4j.agent.TokenBudget;
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SummarizingChatMemoryTest {
+    private static final TokenBudget BUDGET = TokenBudget.forConfig(new ReviewConfig());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testConversationsOutliveHotTierAndRestart() {
+        ReviewMemoryStore store = new ReviewMemoryStore(directory, 1);
+        store.updateMessages("o/r#1", List.of(SystemMessage.from("Review one"), UserMessage.from("Why?")));
+        store.updateMessages("o/r#2", List.of(SystemMessage.from("Review two")));
+
+        // #1 was evicted from the hot tier by #2 and is read back from disk
+        assertEquals("Why?", ChatMessages.text(store.getMessages("o/r#1").get(1)));
+        assertEquals("Review two", ChatMessages.text(new ReviewMemoryStore(directory, 8).getMessages("o/r#2").get(0)));
+
+        store.deleteMessages("o/r#1");
+        assertTrue(new ReviewMemoryStore(directory, 8).getMessages("o/r#1").isEmpty());
+    }
+
+    @Test
+    void testOverflowingWindowKeepsReviewAndSummarisesOldestTurns() {
+        AtomicInteger summaries = new AtomicInteger();
+        ChatLanguageModel summarizer = messages -> {
+            // Later summaries fold in the earlier one rather than losing it
+            String transcript = ChatMessages.text(messages.get(1));
+            assertTrue(summaries.getAndIncrement() == 0
+                ? transcript.startsWith("Reviewer: Question 0")
+                : transcript.startsWith("Context: " + SummarizingChatMemory.SUMMARY_PREFIX), transcript);
+            return Response.from(AiMessage.from("Discussed earlier questions."));
+        };
+        SummarizingChatMemory memory = new SummarizingChatMemory("o/r#1", new ReviewMemoryStore(directory, 8), BUDGET, 200, summarizer);
+        memory.add(SystemMessage.from("You reviewed PR 1. Your review: looks good."));
+        for (int i = 0; i < 10; i++) {
+            memory.add(UserMessage.from("Question " + i + " about the retry loop in the client and whether it backs off correctly?"));
+            memory.add(AiMessage.from("Answer " + i + ": the retry loop backs off exponentially, capped at thirty seconds."));
+        }
+
+        List<ChatMessage> messages = memory.messages();
+        assertTrue(summaries.get() > 0);
+        assertTrue(BUDGET.count(messages) <= 200, BUDGET.count(messages) + " tokens");
+        assertEquals("You reviewed PR 1. Your review: looks good.", ChatMessages.text(messages.get(0)));
+        assertEquals(SummarizingChatMemory.SUMMARY_PREFIX + "Discussed earlier questions.", ChatMessages.text(messages.get(1)));
+        assertTrue(ChatMessages.text(messages.get(messages.size() - 1)).startsWith("Answer 9"));
+    }
+
+    @Test
+    void testFailedSummaryDropsOldestTurns() {
+        ChatLanguageModel failing = messages -> {
+            throw new RuntimeException("rate limited");
+        };
+        SummarizingChatMemory memory = new SummarizingChatMemory("o/r#1", new ReviewMemoryStore(directory, 8), BUDGET, 100, failing);
+        memory.add(SystemMessage.from("Review"));
+        for (int i = 0; i < 10; i++) {
+            memory.add(UserMessage.from("Question " + i + " about the retry loop and its back-off?"));
+        }
+
+        List<ChatMessage> messages = memory.messages();
+        assertEquals("Review", ChatMessages.text(messages.get(0)));
+        assertTrue(ChatMessages.text(messages.get(1)).startsWith("Question"));
+        assertTrue(BUDGET.count(messages) <= 100);
+    }
+}
@@ -0,0 +1,125 @@
+package com.csharma.reviewpilot.langchain4j.preprocess;
+
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import com.csharma.reviewpilot.langchain4j.preprocess.DiffPreprocessor.FilterStats;
+import com.csharma.reviewpilot.langchain4j.preprocess.DiffPreprocessor.Result;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiffPreprocessorTest {
+    private static final String SOURCE = "diff --git a/src/A.java b/src/A.java\n--- a/src/A.java\n+++ b/src/A.java\n"
+            + "@@ -1,3 +1,3 @@\n class A {\n-  int x;\n+  long x;\n }\n";
+    private static final String LOCK = "diff --git a/web/package-lock.json b/web/package-lock.json\n"
+            + "@@ -1,2 +1,2 @@\n-\"a\": 1\n+\"a\": 2\n-\"b\": 1\n+\"b\": 2\n";
+    private static final String REINDENT = "diff --git a/src/B.java b/src/B.java\n"
+            + "@@ -1,2 +1,2 @@\n-\tint y;\n+    int y;\n";
+
+    @Test
+    void testPathTrieMatchesGlobsInInsertionOrder() {
+        PathTrie<String> trie = new PathTrie<>();
+        trie.add("**/*.min.js", "minified");
+        trie.add("vendor/**", "vendored");
+        trie.add("src/*/gen?/*.java", "generated");
+        trie.add("**/*.js", "script");
+
+        assertEquals("minified", trie.match("vendor/lib/jquery.min.js"));
+        assertEquals("vendored", trie.match("vendor/lib/jquery.js"));
+        assertEquals("minified", trie.match("app.min.js"));
+        assertEquals("generated", trie.match("src/main/gen1/Parser.java"));
+        assertNull(trie.match("src/main/gen/Parser.java"));
+        assertEquals("script", trie.match("web/app.js"));
+        assertNull(trie.match("src/App.java"));
+    }
+
+    @Test
+    void testNoiseIsSummarisedAndSavingsReportedPerFilter() {
+        Result result = DiffPreprocessor.fromConfig(new ReviewConfig(), String::length).process(SOURCE + LOCK + REINDENT);
+
+        assertEquals(SOURCE
+                + "diff --git a/web/package-lock.json b/web/package-lock.json\n# lock file, 4 changed lines omitted\n"
+                + "diff --git a/src/B.java b/src/B.java\n# whitespace-only changes, 2 changed lines omitted\n", result.diff());
+        FilterStats paths = result.stats().get(0);
+        assertEquals("paths", paths.filter());
+        assertEquals(1, paths.files());
+        assertEquals(LOCK.length() - "diff --git a/web/package-lock.json b/web/package-lock.json\n# lock file, 4 changed lines omitted\n".length(),
+                paths.tokensSaved());
+        assertEquals(1, result.stats().get(2).files());
+        assertEquals(0, result.stats().get(3).files());
+        assertEquals(SOURCE.length() + LOCK.length() + REINDENT.length() - result.diff().length(), result.bytesSaved());
+    }
+
+    @Test
+    void testOnlyWhitespaceAroundLinesIsNoise() {
+        String python = "diff --git a/app/job.py b/app/job.py\n"
+                + "@@ -1,3 +1,3 @@\n if ready:\n-    run()\n-    notify()\n+    run()\n+notify()\n";
+        String javaReindent = "diff --git a/src/C.java b/src/C.java\n@@ -1,2 +1,3 @@\n-\tcall();  \n+        call();\n+\n";
+        String innerSpace = "diff --git a/src/D.java b/src/D.java\n@@ -1,2 +1,2 @@\n-String s = \"a b\";\n-int x;\n+String s = \"ab\";\n+intx;\n";
+
+        String diff = new DiffPreprocessor(List.of(new WhitespaceFilter()), String::length)
+                .process(python + javaReindent + innerSpace).diff();
+
+        assertEquals(python + "diff --git a/src/C.java b/src/C.java\n# whitespace-only changes, 3 changed lines omitted\n" + innerSpace, diff);
+    }
+
+    @Test
+    void testGeneratedAndBinaryContentIsSummarised() {
+        String generated = "diff --git a/src/Api.java b/src/Api.java\nnew file mode 100644\n"
+                + "@@ -0,0 +1,3 @@\n+// Code generated by protoc. DO NOT EDIT.\n+class Api {\n+}\n";
+        String binary = "diff --git a/logo.png b/logo.png\nindex 1..2 100644\nGIT binary patch\nliteral 10\nzcmZ?wbhEHb\n\n";
+
+        String diff = new DiffPreprocessor(List.of(new ContentFilter()), String::length).process(generated + binary).diff();
+
+        assertEquals("diff --git a/src/Api.java b/src/Api.java\nnew file mode 100644\n# generated file, 3 changed lines omitted\n"
+                + "diff --git a/logo.png b/logo.png\nindex 1..2 100644\n# binary file changed, contents omitted\n", diff);
+    }
+
+    @Test
+    void testHandWrittenCommentsAndLongLinesAreReviewed() {
+        String comment = "diff --git a/src/Dao.java b/src/Dao.java\nindex 1..2 100644\n"
+                + "@@ -1,3 +1,4 @@\n+// id is auto-generated by the DB, do not edit without updating the schema\n class Dao {\n }\n";
+        String generatedMidFile = "diff --git a/src/Api.java b/src/Api.java\nindex 1..2 100644\n"
+                + "@@ -40,2 +40,3 @@\n+// Code generated by protoc. DO NOT EDIT.\n int a;\n";
+        String longLine = "diff --git a/src/Keys.java b/src/Keys.java\nindex 1..2 100644\n"
+                + "@@ -3,1 +3,2 @@\n+    static final String KEY = \"" + "A".repeat(600) + "\";\n }\n";
+        String input = comment + generatedMidFile + longLine;
+
+        String diff = new DiffPreprocessor(List.of(new ContentFilter()), String::length).process(input).diff();
+
+        assertEquals(input, diff);
+    }
+
+    @Test
+    void testMinifiedScriptsAreSummarised() {
+        String line = "+" + "var a=1;".repeat(100) + "\n";
+        String minified = "diff --git a/static/app.js b/static/app.js\nnew file mode 100644\n@@ -0,0 +1,3 @@\n" + line.repeat(3);
+
+        String diff = new DiffPreprocessor(List.of(new ContentFilter()), String::length).process(minified).diff();
+
+        assertEquals("diff --git a/static/app.js b/static/app.js\nnew file mode 100644\n# minified content, 3 changed lines omitted\n", diff);
+    }
+
+    @Test
+    void testContextIsShrunkAndHunksRenumbered() {
+        StringBuilder hunk = new StringBuilder("@@ -10,12 +10,12 @@ void run()\n");
+        for (int i = 10; i <= 13; i++) {
+            hunk.append(" c").append(i).append('\n');
+        }
+        hunk.append("-old14\n+new14\n");
+        for (int i = 15; i <= 19; i++) {
+            hunk.append(" c").append(i).append('\n');
+        }
+        hunk.append("+added\n");
+        hunk.append(" c20\n c21\n");
+        DiffFile file = new DiffFile("A.java", "diff --git a/A.java b/A.java\n", List.of(hunk.toString()));
+
+        DiffFile shrunk = new ContextFilter(1).apply(file);
+
+        assertEquals(List.of(
+                "@@ -13,3 +13,3 @@ void run()\n c13\n-old14\n+new14\n c15\n",
+                "@@ -19,2 +19,3 @@\n c19\n+added\n c20\n"), shrunk.hunks());
+        assertSame(file, new ContextFilter(5).apply(file));
+    }
+}
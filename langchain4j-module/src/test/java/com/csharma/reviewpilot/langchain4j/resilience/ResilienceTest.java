@@ -0,0 +1,177 @@
+package com.csharma.reviewpilot.langchain4j.resilience;
+
+import dev.ai4j.openai4j.OpenAiHttpException;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilienceTest {
+
+    @Test
+    void testThrottledAndFailedCallsAreRetriedButRejectedOnesAreNot() {
+        AtomicInteger calls = new AtomicInteger();
+        ChatLanguageModel flaky = messages -> switch (calls.incrementAndGet()) {
+            case 1 -> throw new OpenAiHttpException(429, "Rate limit reached");
+            case 2 -> throw new RuntimeException(new UncheckedIOException(new SocketTimeoutException("timeout")));
+            case 3 -> throw new OpenAiHttpException(503, "Service unavailable");
+            default -> Response.from(AiMessage.from("Looks good"));
+        };
+        Resilience resilience = resilience("retry", 3, 5, null);
+
+        String answer = new ResilientChatLanguageModel(flaky, resilience).generate(List.of(UserMessage.from("Review"))).content().text();
+
+        assertEquals("Looks good", answer);
+        assertEquals(4, calls.get());
+        assertEquals(3, resilience.retries());
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.breaker().state());
+
+        AtomicInteger rejected = new AtomicInteger();
+        ChatLanguageModel invalid = messages -> {
+            rejected.incrementAndGet();
+            throw new OpenAiHttpException(400, "context_length_exceeded");
+        };
+        assertThrows(OpenAiHttpException.class, () -> new ResilientChatLanguageModel(invalid, resilience("invalid", 3, 5, null))
+                .generate(List.of(UserMessage.from("Review"))));
+        assertEquals(1, rejected.get());
+    }
+
+    @Test
+    void testOpenCircuitFailsFastUntilAProbeSucceeds() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CircuitBreaker breaker = new CircuitBreaker("breaker", 2, Duration.ofMillis(200));
+        Resilience resilience = new Resilience(breaker, 0, Duration.ZERO, Duration.ZERO, null);
+        ChatLanguageModel down = messages -> {
+            calls.incrementAndGet();
+            throw new OpenAiHttpException(500, "Internal error");
+        };
+        ResilientChatLanguageModel model = new ResilientChatLanguageModel(down, resilience);
+
+        assertThrows(OpenAiHttpException.class, () -> model.generate(List.of(UserMessage.from("1"))));
+        assertThrows(OpenAiHttpException.class, () -> model.generate(List.of(UserMessage.from("2"))));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertThrows(CircuitOpenException.class, () -> model.generate(List.of(UserMessage.from("3"))));
+        assertEquals(2, calls.get());
+
+        Thread.sleep(250);
+        String answer = resilience.call(() -> "recovered");
+        assertEquals("recovered", answer);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testSlowCallIsHedgedPastTheLatencyPercentile() {
+        Resilience resilience = resilience("hedge", 0, 5, 95.0);
+        for (int i = 0; i < 20; i++) {
+            resilience.call(() -> "warm-up");
+        }
+        assertTrue(resilience.hedgeDelayMillis() >= 0);
+
+        AtomicInteger calls = new AtomicInteger();
+        long start = System.nanoTime();
+        String answer = resilience.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(3000);
+                return "slow";
+            }
+            return "hedged";
+        });
+
+        assertEquals("hedged", answer);
+        assertEquals(1, resilience.hedges());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+    }
+
+    @Test
+    void testStreamingCallIsRetriedUntilItsFirstToken() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        StreamingChatLanguageModel flaky = (messages, handler) -> {
+            switch (calls.incrementAndGet()) {
+                case 1 -> handler.onError(new OpenAiHttpException(429, "Rate limit reached"));
+                case 2 -> {
+                    handler.onNext("Looks");
+                    handler.onNext(" good");
+                    handler.onComplete(Response.from(AiMessage.from("Looks good")));
+                }
+                default -> {
+                    handler.onNext("Partial");
+                    handler.onError(new OpenAiHttpException(503, "Service unavailable"));
+                }
+            }
+        };
+        ResilientStreamingChatLanguageModel model = new ResilientStreamingChatLanguageModel(flaky, resilience("stream", 3, 5, null));
+
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        CompletableFuture<Response<AiMessage>> answer = stream(model, tokens);
+        assertEquals("Looks good", answer.get(5, TimeUnit.SECONDS).content().text());
+        assertEquals(List.of("Looks", " good"), tokens);
+        assertEquals(2, calls.get());
+        assertEquals(1, model.resilience().retries());
+
+        // Once a token has been passed on, a failure is the caller's to handle
+        tokens.clear();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> stream(model, tokens).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OpenAiHttpException.class, failure.getCause());
+        assertEquals(List.of("Partial"), tokens);
+        assertEquals(3, calls.get());
+    }
+
+    private static CompletableFuture<Response<AiMessage>> stream(StreamingChatLanguageModel model, List<String> tokens) {
+        CompletableFuture<Response<AiMessage>> answer = new CompletableFuture<>();
+        model.generate(List.of(UserMessage.from("Review")), new StreamingResponseHandler<>() {
+            @Override
+            public void onNext(String token) {
+                tokens.add(token);
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                answer.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                answer.completeExceptionally(error);
+            }
+        });
+        return answer;
+    }
+
+    @Test
+    void testBackoffIsJitteredAndCapped() {
+        Resilience resilience = new Resilience(new CircuitBreaker("backoff", 5, Duration.ofSeconds(1)), 10,
+                Duration.ofMillis(100), Duration.ofMillis(1000), null);
+        for (int attempt = 0; attempt < 10; attempt++) {
+            long delay = resilience.backoff(attempt);
+            assertTrue(delay >= 0 && delay <= Math.min(1000, 100L << attempt), "attempt " + attempt + ": " + delay);
+        }
+    }
+
+    private static Resilience resilience(String endpoint, int maxRetries, long baseDelayMillis, Double hedgePercentile) {
+        return new Resilience(new CircuitBreaker(endpoint, 10, Duration.ofSeconds(30)), maxRetries,
+                Duration.ofMillis(baseDelayMillis), Duration.ofMillis(50), hedgePercentile);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
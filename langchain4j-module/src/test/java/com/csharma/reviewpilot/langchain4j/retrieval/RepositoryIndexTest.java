@@ -0,0 +1,168 @@
+package com.csharma.reviewpilot.langchain4j.retrieval;
+
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.retrieval.RepositoryIndex.Snippet;
+import com.csharma.reviewpilot.langchain4j.retrieval.RepositoryIndex.UpdateStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryIndexTest {
+    private static final String ACCOUNT = """
+            package bank;
+
+            public class AccountLedger {
+                public void postTransfer(Money amount, Account target) {
+                    target.credit(amount);
+                }
+            }
+            """;
+    private static final String PARSER = """
+            package text;
+
+            public class CsvTokenizer {
+                public String[] splitQuoted(String row) {
+                    return row.split(",");
+                }
+            }
+            """;
+
+    @TempDir
+    Path repo;
+
+    @Test
+    void testHnswRecallMatchesBruteForce() {
+        int dimension = 16;
+        Random random = new Random(7);
+        float[][] vectors = new float[1500][];
+        HnswIndex index = new HnswIndex(dimension);
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = gaussian(random, dimension);
+            assertEquals(i, index.add(vectors[i]));
+        }
+        for (int i = 0; i < vectors.length; i += 10) {
+            index.delete(i);
+        }
+
+        int found = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = gaussian(random, dimension);
+            Set<Integer> expected = Set.copyOf(IntStream.range(0, vectors.length)
+                    .filter(i -> i % 10 != 0)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(i -> -cosine(query, vectors[i])))
+                    .limit(10)
+                    .toList());
+            List<HnswIndex.SearchResult> results = index.search(query, 10);
+            assertEquals(10, results.size());
+            for (HnswIndex.SearchResult result : results) {
+                assertNotEquals(0, result.id() % 10, "deleted vectors are not returned");
+                if (expected.contains(result.id())) {
+                    found++;
+                }
+            }
+        }
+        assertTrue(found >= queries * 10 * 0.9, "recall@10 was " + found / (queries * 10.0));
+        assertTrue(index.offHeapBytes() >= (long) vectors.length * dimension * Float.BYTES);
+    }
+
+    @Test
+    void testUpdateEmbedsOnlyChangedFilesAndFindsRelatedCode() throws Exception {
+        Files.createDirectories(repo.resolve("src/bank"));
+        Files.createDirectories(repo.resolve("src/text"));
+        Files.createDirectories(repo.resolve("node_modules/dep"));
+        Files.writeString(repo.resolve("src/bank/AccountLedger.java"), ACCOUNT);
+        Files.writeString(repo.resolve("src/text/CsvTokenizer.java"), PARSER);
+        Files.writeString(repo.resolve("node_modules/dep/index.js"), "function postTransfer() {}\n");
+        Files.writeString(repo.resolve("README.md"), "not source\n");
+
+        RepositoryIndex index = new RepositoryIndex(repo, new HashingEmbeddingModel());
+        assertEquals(new UpdateStats(2, 0, 0, 2), index.update());
+        assertEquals(new UpdateStats(0, 2, 0, 2), index.update());
+
+        String diff = "diff --git a/src/bank/TransferService.java b/src/bank/TransferService.java\n"
+                + "@@ -1,3 +1,3 @@ class TransferService\n"
+                + "-    ledger.postTransfer(amount, account);\n"
+                + "+    ledger.postTransfer(fee.plus(amount), target);\n";
+        PullRequestDetails pr = new PullRequestDetails("Charge fees", "", List.of("src/bank/TransferService.java"), diff, 1, "o", "r", "main", "fees");
+        List<Snippet> snippets = index.relevantTo(pr, 1);
+        assertEquals(1, snippets.size());
+        assertEquals("src/bank/AccountLedger.java", snippets.get(0).path());
+        assertEquals(1, snippets.get(0).startLine());
+        assertTrue(snippets.get(0).text().contains("public void postTransfer(Money amount, Account target)"));
+
+        // Files in the PR itself are never attached as context
+        PullRequestDetails touchingLedger = pr.withDiff(List.of("src/bank/AccountLedger.java"), diff);
+        assertTrue(index.relevantTo(touchingLedger, 2).stream().noneMatch(s -> s.path().equals("src/bank/AccountLedger.java")));
+
+        Files.writeString(repo.resolve("src/text/CsvTokenizer.java"), PARSER.replace("splitQuoted", "splitRow"));
+        Files.delete(repo.resolve("src/bank/AccountLedger.java"));
+        assertEquals(new UpdateStats(1, 0, 1, 1), index.update());
+        assertTrue(index.relevantTo(pr, 2).stream().noneMatch(s -> s.path().equals("src/bank/AccountLedger.java")));
+        assertTrue(index.search("splitRow", 1, Set.of()).get(0).text().contains("splitRow"));
+    }
+
+    @Test
+    void testStoredIndexIsReusedByTheNextRun(@TempDir Path cache) throws Exception {
+        Files.createDirectories(repo.resolve("src/bank"));
+        Files.createDirectories(repo.resolve("src/text"));
+        Files.writeString(repo.resolve("src/bank/AccountLedger.java"), ACCOUNT);
+        Files.writeString(repo.resolve("src/text/CsvTokenizer.java"), PARSER);
+        Path store = RepositoryIndex.storeFile(cache, repo, "hashing");
+        assertNotEquals(store, RepositoryIndex.storeFile(cache, repo, "text-embedding-ada-002"));
+
+        RepositoryIndex first = new RepositoryIndex(repo, new HashingEmbeddingModel(), store);
+        first.ensureUpdated();
+        assertEquals(2, first.size());
+        assertTrue(Files.isRegularFile(store));
+
+        // A new process embeds only the file changed since the last run
+        Files.writeString(repo.resolve("src/text/CsvTokenizer.java"), PARSER.replace("splitQuoted", "splitRow"));
+        RepositoryIndex second = new RepositoryIndex(repo, new HashingEmbeddingModel(), store);
+        assertEquals(new UpdateStats(1, 1, 0, 2), second.update());
+
+        // One refresh serves every prompt of the run; later changes wait for an explicit update
+        Files.delete(repo.resolve("src/bank/AccountLedger.java"));
+        second.ensureUpdated();
+        assertEquals(2, second.size());
+        assertEquals(new UpdateStats(0, 1, 1, 1), second.update());
+
+        RepositoryIndex third = new RepositoryIndex(repo, new HashingEmbeddingModel(), store);
+        assertEquals(new UpdateStats(0, 1, 0, 1), third.update());
+        assertTrue(third.search("splitRow", 1, Set.of()).get(0).text().contains("splitRow"));
+    }
+
+    private static float[] gaussian(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot / Math.sqrt(norm(a) * norm(b));
+    }
+
+    private static double norm(float[] v) {
+        double sum = 0;
+        for (float value : v) {
+            sum += value * value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,138 @@
+package com.csharma.reviewpilot.langchain4j.service;
+
+import com.csharma.reviewpilot.langchain4j.agent.ChatMessages;
+import com.csharma.reviewpilot.langchain4j.agent.CodeReviewAgent;
+import com.csharma.reviewpilot.langchain4j.agent.TokenBudget;
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CascadingReviewAgentTest {
+    private static final String DIFF = """
+            diff --git a/README.md b/README.md
+            --- a/README.md
+            +++ b/README.md
+            @@ -1,2 +1,2 @@
+             # Project
+            -Old tagline
+            +New tagline
+            diff --git a/src/Auth.java b/src/Auth.java
+            --- a/src/Auth.java
+            +++ b/src/Auth.java
+            @@ -10,3 +10,3 @@
+             boolean check(String token) {
+            -    return token.equals(secret);
+            +    return token == secret;
+             }
+            @@ -40,2 +40,2 @@
+            -// check the token
+            +// Check the token
+            """;
+
+    @Test
+    void testOnlyRiskyHunksAreEscalatedAndFindingsRecordTheirTier() {
+        List<String> triagePrompts = new CopyOnWriteArrayList<>();
+        ChatLanguageModel triageModel = messages -> {
+            triagePrompts.add(ChatMessages.text(messages.get(1)));
+            return Response.from(AiMessage.from("{\"1.1\": 5, \"2.1\": 95, \"2.2\": 10}"), new TokenUsage(90, 10));
+        };
+        List<PullRequestDetails> small = new CopyOnWriteArrayList<>();
+        List<PullRequestDetails> large = new CopyOnWriteArrayList<>();
+
+        CodeReviewResult result = cascade(triageModel,
+                agent(small, "gpt-3.5-turbo", "Docs and comments only.", "Fix the typo", "Mention the tagline in the changelog"),
+                agent(large, "gpt-4", "Token comparison is broken.", "Reference comparison of tokens", "Use a constant-time comparison"))
+                .reviewPullRequest(pullRequest());
+
+        assertTrue(triagePrompts.get(0).contains("[2.1] src/Auth.java"), triagePrompts.get(0));
+        assertEquals(1, large.size());
+        assertEquals(List.of("src/Auth.java"), large.get(0).getChangedFiles());
+        assertTrue(large.get(0).getDiff().contains("token == secret"));
+        assertFalse(large.get(0).getDiff().contains("Check the token"));
+        assertEquals(1, small.size());
+        assertEquals(List.of("README.md", "src/Auth.java"), small.get(0).getChangedFiles());
+        assertTrue(small.get(0).getDiff().contains("Check the token"));
+        assertFalse(small.get(0).getDiff().contains("token == secret"));
+
+        assertTrue(result.getSummary().startsWith("### High-risk changes (gpt-4)\nToken comparison is broken."), result.getSummary());
+        assertTrue(result.getSummary().contains("### Routine changes (gpt-3.5-turbo)\nDocs and comments only."));
+        assertEquals("gpt-4, gpt-3.5-turbo", result.getModelUsed());
+        assertEquals(100 + 100 + 100, result.getTokensUsed());
+        assertEquals(List.of("escalated", "triage"), result.getIssues().stream().map(issue -> issue.get("tier")).toList());
+        assertEquals("escalated", result.getFindingTiers().get("Use a constant-time comparison"));
+        assertEquals("triage", result.getFindingTiers().get("Mention the tagline in the changelog"));
+    }
+
+    @Test
+    void testEverythingIsEscalatedWhenTriageFails() {
+        ChatLanguageModel triageModel = messages -> {
+            throw new IllegalStateException("rate limited");
+        };
+        List<PullRequestDetails> small = new CopyOnWriteArrayList<>();
+        List<PullRequestDetails> large = new CopyOnWriteArrayList<>();
+
+        CodeReviewResult result = cascade(triageModel,
+                agent(small, "gpt-3.5-turbo", "Small", "a", "b"),
+                agent(large, "gpt-4", "Large", "c", "d"))
+                .reviewPullRequest(pullRequest());
+
+        assertTrue(small.isEmpty());
+        assertEquals(DIFF, large.get(0).getDiff());
+        assertEquals("gpt-4", result.getModelUsed());
+    }
+
+    @Test
+    void testRoutineConfigRunsTheTriageModelWithinItsWindow() {
+        ReviewConfig config = new ReviewConfig();
+        config.setContextWindow(128_000);
+
+        ReviewConfig routine = CascadingReviewAgent.routineConfig(config);
+
+        assertEquals("gpt-3.5-turbo", routine.getModelName());
+        assertNull(routine.getContextWindow());
+        assertEquals(1024, routine.getMaxTokens());
+        assertEquals("gpt-4", config.getModelName());
+        assertEquals(4000, config.getMaxTokens());
+    }
+
+    private static CascadingReviewAgent cascade(ChatLanguageModel triageModel, CodeReviewAgent small, CodeReviewAgent large) {
+        return new CascadingReviewAgent(new RiskTriage(triageModel, TokenBudget.forModel("gpt-3.5-turbo", 1024)), small, large, 50);
+    }
+
+    private static CodeReviewAgent agent(List<PullRequestDetails> seen, String model, String summary, String issue, String suggestion) {
+        return new CodeReviewAgent() {
+            @Override
+            public CodeReviewResult reviewPullRequest(PullRequestDetails prDetails) {
+                seen.add(prDetails);
+                CodeReviewResult result = new CodeReviewResult(summary);
+                result.setIssues(new ArrayList<>(List.of(Map.of("message", issue, "severity", "high"))));
+                result.setSuggestions(List.of(suggestion));
+                result.setModelUsed(model);
+                result.setTokensUsed(100);
+                return result;
+            }
+
+            @Override
+            public String getAgentName() {
+                return model;
+            }
+        };
+    }
+
+    private static PullRequestDetails pullRequest() {
+        return new PullRequestDetails("Tighten auth", "Token check and docs", List.of("README.md", "src/Auth.java"),
+                DIFF, 7, "o", "r", "main", "feature");
+    }
+}
@@ -0,0 +1,83 @@
+package com.csharma.reviewpilot.langchain4j.service;
+
+import com.csharma.reviewpilot.langchain4j.agent.CodeReviewAgent;
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.service.DiffChunker.DiffChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiffChunkerTest {
+    // One token per character keeps the budgets below easy to reason about
+    private static final String SMALL_A = "diff --git a/A b/A\n@@ -1 +1 @@\n-a\n+b\n";
+    private static final String SMALL_B = "diff --git a/B b/B\n@@ -1 +1 @@\n-c\n+d\n";
+    private static final String LARGE_C = "diff --git a/C b/C\n--- a/C\n+++ b/C\n"
+            + "@@ -1,3 +1,3 @@\n-one\n+uno\n ctx\n"
+            + "@@ -10,3 +10,3 @@\n-two\n+dos\n ctx\n";
+
+    @Test
+    void testSmallFilesArePackedTogether() {
+        List<DiffChunk> chunks = new DiffChunker(200, 0, String::length).split(SMALL_A + SMALL_B);
+
+        assertEquals(1, chunks.size());
+        assertEquals(List.of("A", "B"), chunks.get(0).files());
+        assertEquals(SMALL_A + SMALL_B, chunks.get(0).diff());
+    }
+
+    @Test
+    void testLargeFileIsSplitBetweenHunksWithHeaderRepeated() {
+        List<DiffChunk> chunks = new DiffChunker(70, 0, String::length).split(SMALL_A + LARGE_C);
+
+        assertEquals(3, chunks.size());
+        assertEquals(SMALL_A, chunks.get(0).diff());
+        String header = "diff --git a/C b/C\n--- a/C\n+++ b/C\n";
+        assertEquals(header + "@@ -1,3 +1,3 @@\n-one\n+uno\n ctx\n", chunks.get(1).diff());
+        assertEquals(header + "@@ -10,3 +10,3 @@\n-two\n+dos\n ctx\n", chunks.get(2).diff());
+        assertEquals(List.of("C"), chunks.get(2).files());
+    }
+
+    @Test
+    void testOversizedHunkIsSplitBetweenLinesWithOverlap() {
+        String hunk = "@@ -1,4 +1,4 @@\n" + "-line1\n-line2\n+line3\n+line4\n";
+        List<DiffChunk> chunks = new DiffChunker(40, 7, String::length).split("diff --git a/D b/D\n" + hunk);
+
+        String prefix = "diff --git a/D b/D\n@@ -1,4 +1,4 @@\n";
+        // Each piece after the first starts with the previous piece's last line
+        assertEquals(List.of(prefix + "-line1\n", prefix + "-line1\n-line2\n", prefix + "-line2\n+line3\n", prefix + "+line3\n+line4\n"),
+            chunks.stream().map(DiffChunk::diff).toList());
+    }
+
+    @Test
+    void testEngineReviewsChunksAndReducesResults() {
+        AtomicInteger calls = new AtomicInteger();
+        CodeReviewAgent agent = new CodeReviewAgent() {
+            @Override
+            public CodeReviewResult reviewPullRequest(PullRequestDetails prDetails) {
+                calls.incrementAndGet();
+                CodeReviewResult result = new CodeReviewResult("Reviewed " + prDetails.getChangedFiles());
+                result.setSuggestions(List.of("Add tests", "Check " + prDetails.getChangedFiles().get(0)));
+                result.setCodeQualityScore(prDetails.getChangedFiles().contains("A") ? 90.0 : 70.0);
+                result.setTokensUsed(10);
+                return result;
+            }
+
+            @Override
+            public String getAgentName() {
+                return "stub";
+            }
+        };
+        PullRequestDetails pr = new PullRequestDetails("T", "D", List.of("A", "B"), SMALL_A + SMALL_B, 1, "o", "r", "main", "f");
+
+        CodeReviewResult result = new ChunkedReviewEngine(agent, new DiffChunker(40, 0, String::length), 2).review(pr);
+
+        assertEquals(2, calls.get());
+        assertEquals(List.of("Add tests", "Check A", "Check B"), result.getSuggestions());
+        assertEquals(80.0, result.getCodeQualityScore());
+        assertEquals(20, result.getTokensUsed());
+        assertTrue(result.getSummary().contains("### A\nReviewed [A]"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.csharma.reviewpilot.langchain4j.service;
+
+import com.csharma.reviewpilot.langchain4j.agent.CodeReviewAgent;
+import com.csharma.reviewpilot.langchain4j.model.CodeReviewResult;
+import com.csharma.reviewpilot.langchain4j.model.PullRequestDetails;
+import com.csharma.reviewpilot.langchain4j.model.ReviewConfig;
+import com.csharma.reviewpilot.langchain4j.model.ReviewState;
+import com.csharma.reviewpilot.langchain4j.provider.PullRequestProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReviewOrchestratorTest {
+
+    @TempDir
+    Path stateDir;
+
+    private static PullRequestDetails details(String headSha, List<String> files, String diff, Map<String, String> fileShas) {
+        PullRequestDetails details = new PullRequestDetails("PR", "Description", files, diff, 7, "owner", "repo", "main", "feature");
+        details.setHeadSha(headSha);
+        details.setFileShas(fileShas);
+        return details;
+    }
+
+    private static CodeReviewResult result(String summary, List<String> suggestions) {
+        CodeReviewResult result = new CodeReviewResult(summary);
+        result.setSuggestions(suggestions);
+        return result;
+    }
+
+    @Test
+    void testIncrementalReviewOnlyReviewsInterdiffAndMergesFindings() throws Exception {
+        ReviewConfig config = new ReviewConfig();
+        config.setIncremental(true);
+        config.setStateDirectory(stateDir.toString());
+        PullRequestProvider provider = mock(PullRequestProvider.class);
+        CodeReviewAgent agent = mock(CodeReviewAgent.class);
+        ReviewOrchestrator orchestrator = new ReviewOrchestrator(config, provider, agent);
+
+        PullRequestDetails full = details("sha1", List.of("A.java", "B.java"), "full diff", Map.of("A.java", "a1", "B.java", "b1"));
+        when(provider.fetchPullRequestDetails("owner", "repo", 7)).thenReturn(full);
+        when(agent.reviewPullRequest(full)).thenReturn(result("first", List.of("Add tests")));
+        assertEquals("first", orchestrator.runReview("owner", "repo", 7).getSummary());
+
+        PullRequestDetails interdiff = details("sha2", List.of("B.java"), "interdiff", Map.of("A.java", "a1", "B.java", "b2"));
+        when(provider.fetchChangesSince(eq("owner"), eq("repo"), eq(7), argThat((ReviewState state) ->
+                state.getHeadSha().equals("sha1") && state.getFileShas().equals(Map.of("A.java", "a1", "B.java", "b1")))))
+            .thenReturn(interdiff);
+        when(agent.reviewPullRequest(interdiff)).thenReturn(result("second", List.of("Add tests", "Handle null")));
+
+        CodeReviewResult merged = orchestrator.runReview("owner", "repo", 7);
+
+        assertEquals("second", merged.getSummary());
+        assertEquals(List.of("Add tests", "Handle null"), merged.getSuggestions());
+        verify(provider, times(1)).fetchPullRequestDetails(any(), any(), anyInt());
+        assertEquals("sha2", new ReviewStateStore(stateDir).load("owner", "repo", 7).getHeadSha());
+    }
+
+    @Test
+    void testUnchangedHeadReturnsPreviousResult() throws Exception {
+        ReviewConfig config = new ReviewConfig();
+        config.setStateDirectory(stateDir.toString());
+        new ReviewStateStore(stateDir).save("owner", "repo", 7,
+            new ReviewState("sha1", Map.of("A.java", "a1"), result("stored", List.of("Keep it"))));
+        PullRequestProvider provider = mock(PullRequestProvider.class);
+        CodeReviewAgent agent = mock(CodeReviewAgent.class);
+        when(provider.fetchChangesSince(eq("owner"), eq("repo"), eq(7), any()))
+            .thenReturn(details("sha1", List.of(), "", Map.of("A.java", "a1")));
+
+        CodeReviewResult result = new ReviewOrchestrator(config, provider, agent).runIncrementalReview("owner", "repo", 7);
+
+        assertEquals("stored", result.getSummary());
+        assertEquals(List.of("Keep it"), result.getSuggestions());
+        verifyNoInteractions(agent);
+    }
+}
@@ -0,0 +1,37 @@
+package com.csharma.reviewpilot.langchain4j.service;
+
+import com.csharma.reviewpilot.langchain4j.model.ReviewState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewStateStoreTest {
+
+    @Test
+    void testDotNamesStayInsideTheStateDirectory(@TempDir Path root) throws Exception {
+        Path stateDir = root.resolve("state");
+        ReviewStateStore store = new ReviewStateStore(stateDir);
+        ReviewState state = new ReviewState();
+        state.setHeadSha("sha1");
+
+        store.save("..", "..", 1, state);
+        store.save(".", ".github", 2, state);
+        store.save("a/b", "a_b", 3, state);
+        store.save("a_b", "a_b", 3, new ReviewState());
+
+        try (Stream<Path> files = Files.walk(root)) {
+            assertTrue(files.filter(Files::isRegularFile).allMatch(file -> file.startsWith(stateDir)));
+        }
+        assertTrue(Files.exists(stateDir.resolve("%2E.").resolve("%2E.").resolve("1.json")));
+        assertEquals("sha1", store.load("..", "..", 1).getHeadSha());
+        assertEquals("sha1", store.load(".", ".github", 2).getHeadSha());
+        assertEquals("sha1", store.load("a/b", "a_b", 3).getHeadSha());
+        assertNull(store.load("a_b", "a_b", 3).getHeadSha());
+        assertNull(store.load("owner", "repo", 4));
+    }
+}
@@ -3,6 +3,7 @@ package com.csharma.cli;
 import com.csharma.reviewpilot.adapter.provider.*;
 import com.csharma.reviewpilot.adapter.agent.*;
 import com.csharma.reviewpilot.service.ReviewOrchestrator;
+import com.typesafe.config.ConfigFactory;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Properties;
@@ -20,7 +21,8 @@ public class App
     {
         if (args.length < 5) {
             logger.info("Usage: java -jar ReviewPilot.jar <provider> <agent> <repoOwner> <repoName> <prNumber> [authToken] [prompt]\n" +
-                    "  provider: github | gitlab | bitbucket | <plugin>\n" +
+                    "  provider: github | gitlab | bitbucket | localgit | <plugin>\n" +
+                    "  prNumber: for localgit, a revision range (base...head) or a ref compared to reviewpilot.local.base-ref\n" +
                     "  agent: chatgpt | gitduo | copilot | <plugin>\n" +
                     "  authToken: (optional, will use env if not provided)\n" +
                     "  prompt: (optional, use {{title}}, {{description}}, {{changedFiles}}, {{diff}} as placeholders)\n" +
@@ -45,7 +47,8 @@ public class App
                 prompt = props.getProperty("prompt");
             } catch (IOException ignored) {}
         }
-        if (authToken == null || authToken.isEmpty()) {
+        // The local git provider reads the checkout directly and needs no credentials
+        if ((authToken == null || authToken.isEmpty()) && !providerName.equals("localgit")) {
             logger.error("No auth token provided (pass as argument or set REVIEWPILOT_TOKEN env var)");
             System.exit(2);
         }
@@ -78,10 +81,14 @@ public class App
             logger.error("Unknown agent: {}. Available: {}", agentName, agentMap.keySet());
             return;
         }
+        reviewAgent = CachingCodeReviewAgent.wrap(reviewAgent, ConfigFactory.load());
         ReviewOrchestrator orchestrator = new ReviewOrchestrator(prProvider, reviewAgent);
         try {
             String review = orchestrator.runReview(repoOwner, repoName, prNumber, authToken);
             logger.info("AI Review Result:\n{}", review);
+            if (reviewAgent instanceof CachingCodeReviewAgent caching) {
+                logger.info("Review cache: {}", caching.stats());
+            }
         } catch (Exception e) {
             logger.error("Error during review: {}", e.getMessage(), e);
         }
@@ -0,0 +1,83 @@
+package com.csharma.reviewpilot.adapter.agent;
+
+import com.csharma.reviewpilot.model.PullRequestDetails;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decorator that answers repeated reviews of the same pull request content from a {@link ResponseCache}.
+ * The key covers the delegate's {@link CodeReviewAgent#fingerprint()} and everything the prompt is
+ * rendered from, so a different model, temperature or template never sees another's reviews.
+ */
+public final class CachingCodeReviewAgent implements CodeReviewAgent {
+    private static final Logger logger = LoggerFactory.getLogger(CachingCodeReviewAgent.class);
+
+    private final CodeReviewAgent delegate;
+    private final ResponseCache cache;
+
+    public CachingCodeReviewAgent(CodeReviewAgent delegate, ResponseCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    /**
+     * Wraps {@code agent} with the cache configured under {@code reviewpilot.review-cache}, or returns
+     * it unchanged when the cache is disabled.
+     */
+    public static CodeReviewAgent wrap(CodeReviewAgent agent, Config config) {
+        ResponseCache cache = ResponseCache.fromConfig(config);
+        return cache == null ? agent : new CachingCodeReviewAgent(agent, cache);
+    }
+
+    @Override
+    public String reviewPullRequest(PullRequestDetails prDetails) throws Exception {
+        String key = keyFor(prDetails);
+        String cached = cache.get(key);
+        if (cached != null) {
+            logger.info("Returning cached review ({})", cache.stats());
+            return cached;
+        }
+        String review = delegate.reviewPullRequest(prDetails);
+        if (review != null) {
+            cache.put(key, review);
+        }
+        return review;
+    }
+
+    @Override
+    public CompletableFuture<String> reviewPullRequestAsync(PullRequestDetails prDetails) {
+        String key = keyFor(prDetails);
+        String cached = cache.get(key);
+        if (cached != null) {
+            logger.info("Returning cached review ({})", cache.stats());
+            return CompletableFuture.completedFuture(cached);
+        }
+        return delegate.reviewPullRequestAsync(prDetails).thenApply(review -> {
+            if (review != null) {
+                cache.put(key, review);
+            }
+            return review;
+        });
+    }
+
+    private String keyFor(PullRequestDetails prDetails) {
+        return ResponseCache.keyFor(
+                delegate.fingerprint(),
+                prDetails.getTitle(),
+                prDetails.getDescription(),
+                String.valueOf(prDetails.getChangedFiles()),
+                prDetails.getDiffContent());
+    }
+
+    @Override
+    public String fingerprint() {
+        return delegate.fingerprint();
+    }
+
+    public ResponseCache.Stats stats() {
+        return cache.stats();
+    }
+}
@@ -1,21 +1,41 @@
 package com.csharma.reviewpilot.adapter.agent;
 
 import com.csharma.reviewpilot.model.PullRequestDetails;
-import com.theokanning.openai.service.OpenAiService;
-import com.theokanning.openai.completion.CompletionRequest;
-import com.theokanning.openai.completion.CompletionChoice;
+import com.csharma.reviewpilot.prompt.PromptTemplate;
+import com.theokanning.openai.client.OpenAiApi;
+import com.theokanning.openai.completion.chat.ChatCompletionChoice;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import com.theokanning.openai.completion.chat.ChatMessageRole;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.csharma.reviewpilot.exception.AgentException;
+import com.csharma.reviewpilot.http.HttpClientRegistry;
+import com.csharma.reviewpilot.http.InFlightLimiter;
 
+/**
+ * Reviews through the OpenAI chat completions API. Requests are submitted asynchronously on the
+ * registry's shared client and bounded by its in-flight limit, so one instance can serve many
+ * concurrent reviews without holding a thread per request.
+ */
 public class ChatGPTAgent implements CodeReviewAgent {
-    private final OpenAiService openAiService;
+    private final OpenAiApi openAiApi;
+    private final InFlightLimiter limiter;
     private final String model;
     private final String promptTemplate;
+    private final PromptTemplate compiledPrompt;
+
+    private static final int MAX_TOKENS = 512;
+    private static final double TEMPERATURE = 0.2;
+    private static final String DEFAULT_MODEL = "gpt-3.5-turbo";
+    private static final String DEFAULT_API_URL = "https://api.openai.com/";
+    private static final String SYSTEM_PROMPT = "You are an expert code reviewer.";
 
     private static final String DEFAULT_PROMPT =
-        "You are an expert code reviewer. Review the following pull request and provide consolidated review comments for the developer to improve code quality.\n" +
+        "Review the following pull request and provide consolidated review comments for the developer to improve code quality.\n" +
         "Title: {{title}}\n" +
         "Description: {{description}}\n" +
         "Changed Files: {{changedFiles}}\n" +
@@ -26,37 +46,67 @@ public class ChatGPTAgent implements CodeReviewAgent {
     }
 
     public ChatGPTAgent(String promptTemplate) {
-        Config config = ConfigFactory.load();
+        this(promptTemplate, HttpClientRegistry.shared());
+    }
+
+    public ChatGPTAgent(String promptTemplate, HttpClientRegistry httpClients) {
+        this(promptTemplate, httpClients, ConfigFactory.load());
+    }
+
+    public ChatGPTAgent(String promptTemplate, HttpClientRegistry httpClients, Config config) {
         String apiKey = config.hasPath("reviewpilot.openai.api-key") ? config.getString("reviewpilot.openai.api-key") : System.getenv("OPENAI_API_KEY");
         if (apiKey == null || apiKey.isEmpty()) {
             throw new AgentException("OPENAI_API_KEY not set in config or environment");
         }
-        this.openAiService = new OpenAiService(apiKey);
-        this.model = config.hasPath("reviewpilot.openai.model") ? config.getString("reviewpilot.openai.model") : "text-davinci-003";
+        String apiUrl = config.hasPath("reviewpilot.openai.api-url") ? config.getString("reviewpilot.openai.api-url") : DEFAULT_API_URL;
+        this.openAiApi = httpClients.asyncOpenAiApi(apiKey, apiUrl);
+        this.limiter = httpClients.openAiLimiter();
+        this.model = config.hasPath("reviewpilot.openai.model") ? config.getString("reviewpilot.openai.model") : DEFAULT_MODEL;
         this.promptTemplate = (promptTemplate == null || promptTemplate.isBlank()) ? DEFAULT_PROMPT : promptTemplate;
+        this.compiledPrompt = PromptTemplate.compile(this.promptTemplate);
     }
 
     @Override
     public String reviewPullRequest(PullRequestDetails prDetails) {
-        String prompt = buildPrompt(prDetails);
-        CompletionRequest request = CompletionRequest.builder()
-                .prompt(prompt)
+        try {
+            return reviewPullRequestAsync(prDetails).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> reviewPullRequestAsync(PullRequestDetails prDetails) {
+        ChatCompletionRequest request = ChatCompletionRequest.builder()
                 .model(model)
-                .maxTokens(512)
-                .temperature(0.2)
+                .messages(List.of(
+                        new ChatMessage(ChatMessageRole.SYSTEM.value(), SYSTEM_PROMPT),
+                        new ChatMessage(ChatMessageRole.USER.value(), buildPrompt(prDetails))))
+                .maxTokens(MAX_TOKENS)
+                .temperature(TEMPERATURE)
                 .build();
-        List<CompletionChoice> choices = openAiService.createCompletion(request).getChoices();
-        if (choices != null && !choices.isEmpty()) {
-            return choices.get(0).getText().trim();
+        return limiter.submit(() -> {
+            CompletableFuture<String> review = new CompletableFuture<>();
+            openAiApi.createChatCompletion(request).subscribe(
+                    result -> review.complete(firstChoice(result.getChoices())),
+                    error -> review.completeExceptionally(new AgentException("OpenAI chat completion failed: " + error.getMessage(), error)));
+            return review;
+        });
+    }
+
+    @Override
+    public String fingerprint() {
+        return String.join("\u0000", getClass().getName(), model, String.valueOf(MAX_TOKENS), String.valueOf(TEMPERATURE), SYSTEM_PROMPT, promptTemplate);
+    }
+
+    private static String firstChoice(List<ChatCompletionChoice> choices) {
+        if (choices != null && !choices.isEmpty() && choices.get(0).getMessage() != null) {
+            return choices.get(0).getMessage().getContent().trim();
         }
         return "[ChatGPT] No review comments returned.";
     }
 
     private String buildPrompt(PullRequestDetails prDetails) {
-        return promptTemplate
-            .replace("{{title}}", prDetails.getTitle())
-            .replace("{{description}}", prDetails.getDescription())
-            .replace("{{changedFiles}}", prDetails.getChangedFiles().toString())
-            .replace("{{diff}}", prDetails.getDiff());
+        return compiledPrompt.render(prDetails);
     }
-} 
\ No newline at end of file
+}
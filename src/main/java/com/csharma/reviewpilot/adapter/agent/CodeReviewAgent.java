@@ -1,7 +1,31 @@
 package com.csharma.reviewpilot.adapter.agent;
 
 import com.csharma.reviewpilot.model.PullRequestDetails;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public interface CodeReviewAgent {
     String reviewPullRequest(PullRequestDetails prDetails) throws Exception;
-} 
\ No newline at end of file
+
+    /**
+     * Submits a review without blocking the caller. Agents without an asynchronous client run the
+     * blocking review on a virtual thread.
+     */
+    default CompletableFuture<String> reviewPullRequestAsync(PullRequestDetails prDetails) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return reviewPullRequest(prDetails);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, task -> Thread.ofVirtual().start(task));
+    }
+
+    /**
+     * Identifies everything besides the pull request that shapes this agent's answer (model,
+     * sampling settings, prompt template). Cached reviews are only reused for an equal fingerprint.
+     */
+    default String fingerprint() {
+        return getClass().getName();
+    }
+}
@@ -1,6 +1,7 @@
 package com.csharma.reviewpilot.adapter.agent;
 
 import com.csharma.reviewpilot.model.PullRequestDetails;
+import com.csharma.reviewpilot.prompt.PromptTemplate;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.csharma.reviewpilot.exception.AgentException;
@@ -9,6 +10,7 @@ public class CopilotAgent implements CodeReviewAgent {
     private final String apiKey;
     private final String apiUrl;
     private final String promptTemplate;
+    private final PromptTemplate compiledPrompt;
 
     private static final String DEFAULT_PROMPT =
         "[Copilot] Review: Consider optimizing the algorithm for performance.\n" +
@@ -29,16 +31,18 @@ public class CopilotAgent implements CodeReviewAgent {
         }
         this.apiUrl = config.getString("reviewpilot.copilot.api-url");
         this.promptTemplate = (promptTemplate == null || promptTemplate.isBlank()) ? DEFAULT_PROMPT : promptTemplate;
+        this.compiledPrompt = PromptTemplate.compile(this.promptTemplate);
     }
 
     @Override
     public String reviewPullRequest(PullRequestDetails prDetails) {
         // TODO: Implement HTTP POST to Copilot API with prDetails and prompt
         // For now, return the prompt with placeholders replaced
-        return promptTemplate
-            .replace("{{title}}", prDetails.getTitle())
-            .replace("{{description}}", prDetails.getDescription())
-            .replace("{{changedFiles}}", prDetails.getChangedFiles().toString())
-            .replace("{{diff}}", prDetails.getDiff());
+        return compiledPrompt.render(prDetails);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public String fingerprint() {
+        return String.join("\u0000", getClass().getName(), apiUrl, promptTemplate);
+    }
+}
@@ -1,6 +1,7 @@
 package com.csharma.reviewpilot.adapter.agent;
 
 import com.csharma.reviewpilot.model.PullRequestDetails;
+import com.csharma.reviewpilot.prompt.PromptTemplate;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.csharma.reviewpilot.exception.AgentException;
@@ -9,6 +10,7 @@ public class GitDuoAgent implements CodeReviewAgent {
     private final String apiKey;
     private final String apiUrl;
     private final String promptTemplate;
+    private final PromptTemplate compiledPrompt;
 
     private static final String DEFAULT_PROMPT =
         "[GitDuo] Review: Please refactor the code for better readability.\n" +
@@ -29,16 +31,18 @@ public class GitDuoAgent implements CodeReviewAgent {
         }
         this.apiUrl = config.getString("reviewpilot.gitduo.api-url");
         this.promptTemplate = (promptTemplate == null || promptTemplate.isBlank()) ? DEFAULT_PROMPT : promptTemplate;
+        this.compiledPrompt = PromptTemplate.compile(this.promptTemplate);
     }
 
     @Override
     public String reviewPullRequest(PullRequestDetails prDetails) {
         // TODO: Implement HTTP POST to GitDuo API with prDetails and prompt
         // For now, return the prompt with placeholders replaced
-        return promptTemplate
-            .replace("{{title}}", prDetails.getTitle())
-            .replace("{{description}}", prDetails.getDescription())
-            .replace("{{changedFiles}}", prDetails.getChangedFiles().toString())
-            .replace("{{diff}}", prDetails.getDiff());
+        return compiledPrompt.render(prDetails);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public String fingerprint() {
+        return String.join("\u0000", getClass().getName(), apiUrl, promptTemplate);
+    }
+}
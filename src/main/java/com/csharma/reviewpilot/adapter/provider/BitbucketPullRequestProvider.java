@@ -1,74 +1,152 @@
 package com.csharma.reviewpilot.adapter.provider;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.csharma.reviewpilot.diff.DiffBodyHandler;
+import com.csharma.reviewpilot.http.HttpClientRegistry;
 import com.csharma.reviewpilot.model.PullRequestDetails;
-import com.csharma.reviewpilot.exception.ProviderException;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
 public class BitbucketPullRequestProvider implements PullRequestProvider {
+    private static final int PAGE_SIZE = 500;
+    private static final String FILES_FAILURE = "Failed to fetch PR files";
+    private static final Set<String> PR_FIELDS = Set.of("title", "description");
+    private static final Set<String> PATH_FIELDS = Set.of("path");
+
     private final String apiUrl;
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final JsonFactory jsonFactory;
+    private final DiffBodyHandler diffBodyHandler;
 
     public BitbucketPullRequestProvider() {
-        Config config = ConfigFactory.load();
+        this(ConfigFactory.load(), HttpClientRegistry.shared());
+    }
+
+    /**
+     * Provider on the process-wide {@link HttpClientRegistry#shared() shared} clients; pass a registry
+     * to use HTTP settings other than the application config's
+     */
+    public BitbucketPullRequestProvider(Config config) {
+        this(config, HttpClientRegistry.shared());
+    }
+
+    public BitbucketPullRequestProvider(Config config, HttpClientRegistry httpClients) {
         this.apiUrl = config.getString("reviewpilot.bitbucket.api-url");
+        this.httpClient = httpClients.httpClient();
+        this.jsonFactory = httpClients.objectMapper().getFactory();
+        this.diffBodyHandler = new DiffBodyHandler(config.getBytes("reviewpilot.diff.spill-threshold"));
     }
 
     @Override
     public PullRequestDetails fetchPullRequestDetails(String repoOwner, String repoName, String prNumber, String authToken) throws Exception {
         String prUrl = String.format("%s/%s/%s/pullrequests/%s", apiUrl, repoOwner, repoName, prNumber);
-        HttpRequest prRequest = HttpRequest.newBuilder()
-                .uri(URI.create(prUrl))
-                .header("Authorization", "Bearer " + authToken)
-                .header("Accept", "application/json")
-                .build();
-        HttpResponse<String> prResponse = httpClient.send(prRequest, HttpResponse.BodyHandlers.ofString());
-        if (prResponse.statusCode() != 200) {
-            throw new ProviderException("Failed to fetch PR metadata: " + prResponse.body());
+        String filesUrl = prUrl + "/diffstat";
+        String diffUrl = prUrl + "/diff";
+
+        CompletableFuture<Map<String, String>> prFields = ProviderRequests.readJson(httpClient, jsonFactory,
+                newRequest(prUrl, authToken, "application/json"), "Failed to fetch PR metadata",
+                parser -> JsonStreams.readFields(parser, PR_FIELDS));
+        CompletableFuture<List<DiffstatPage>> filePages = fetchDiffstat(diffstatPageRequest(filesUrl, 1, authToken))
+                .thenCompose(first -> fetchRemainingDiffstat(filesUrl, first, authToken));
+        CompletableFuture<CharSequence> diffBody = ProviderRequests.sendAsync(httpClient,
+                newRequest(diffUrl, authToken, "text/plain"), diffBodyHandler, "Failed to fetch PR diff");
+
+        Map<String, String> pr = ProviderRequests.join(prFields);
+        String title = pr.get("title");
+        String description = pr.get("description");
+
+        List<String> changedFiles = new ArrayList<>();
+        for (DiffstatPage page : ProviderRequests.join(filePages)) {
+            changedFiles.addAll(page.paths());
         }
-        JsonNode prJson = objectMapper.readTree(prResponse.body());
-        String title = prJson.get("title").asText();
-        String description = prJson.get("description").asText("");
 
-        String filesUrl = prUrl + "/diffstat";
-        HttpRequest filesRequest = HttpRequest.newBuilder()
-                .uri(URI.create(filesUrl))
-                .header("Authorization", "Bearer " + authToken)
-                .header("Accept", "application/json")
-                .build();
-        HttpResponse<String> filesResponse = httpClient.send(filesRequest, HttpResponse.BodyHandlers.ofString());
-        if (filesResponse.statusCode() != 200) {
-            throw new ProviderException("Failed to fetch PR files: " + filesResponse.body());
+        CharSequence diff = ProviderRequests.join(diffBody);
+
+        return new PullRequestDetails(title, description, changedFiles, diff);
+    }
+
+    private CompletableFuture<List<DiffstatPage>> fetchRemainingDiffstat(String filesUrl, DiffstatPage first, String authToken) {
+        if (first.size() < 0) {
+            return followNext(first, authToken);
         }
-        JsonNode filesJson = objectMapper.readTree(filesResponse.body());
-        List<String> changedFiles = new ArrayList<>();
-        for (JsonNode fileNode : filesJson.get("values")) {
-            changedFiles.add(fileNode.get("new") != null && fileNode.get("new").get("path") != null
-                ? fileNode.get("new").get("path").asText()
-                : fileNode.get("old").get("path").asText());
+        int pageLength = first.pageLength() > 0 ? first.pageLength() : PAGE_SIZE;
+        int lastPage = (first.size() + pageLength - 1) / pageLength;
+        return ProviderRequests.fetchAllPages(first, lastPage, page -> fetchDiffstat(diffstatPageRequest(filesUrl, page, authToken)));
+    }
+
+    // Without a total size the cursor chain is inherently serial, so each next page is requested as
+    // soon as the previous one arrives and results are collected once the chain ends.
+    private CompletableFuture<List<DiffstatPage>> followNext(DiffstatPage page, String authToken) {
+        if (page.next() == null) {
+            return CompletableFuture.completedFuture(List.of(page));
         }
+        return fetchDiffstat(newRequest(page.next(), authToken, "application/json"))
+                .thenCompose(nextPage -> followNext(nextPage, authToken))
+                .thenApply(rest -> {
+                    List<DiffstatPage> pages = new ArrayList<>(rest.size() + 1);
+                    pages.add(page);
+                    pages.addAll(rest);
+                    return pages;
+                });
+    }
 
-        String diffUrl = prUrl + "/diff";
-        HttpRequest diffRequest = HttpRequest.newBuilder()
-                .uri(URI.create(diffUrl))
+    private CompletableFuture<DiffstatPage> fetchDiffstat(HttpRequest request) {
+        return ProviderRequests.readJson(httpClient, jsonFactory, request, FILES_FAILURE, BitbucketPullRequestProvider::diffstatPage);
+    }
+
+    private HttpRequest diffstatPageRequest(String filesUrl, int page, String authToken) {
+        String url = ProviderRequests.withQuery(filesUrl, "pagelen=" + PAGE_SIZE + "&page=" + page);
+        return newRequest(url, authToken, "application/json");
+    }
+
+    private HttpRequest newRequest(String url, String authToken, String accept) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
                 .header("Authorization", "Bearer " + authToken)
-                .header("Accept", "text/plain")
+                .header("Accept", accept)
                 .build();
-        HttpResponse<String> diffResponse = httpClient.send(diffRequest, HttpResponse.BodyHandlers.ofString());
-        if (diffResponse.statusCode() != 200) {
-            throw new ProviderException("Failed to fetch PR diff: " + diffResponse.body());
-        }
-        String diff = diffResponse.body();
+    }
 
-        return new PullRequestDetails(title, description, changedFiles, diff);
+    private static DiffstatPage diffstatPage(JsonParser parser) throws IOException {
+        List<String> paths = new ArrayList<>();
+        String[] next = {null};
+        int[] size = {-1};
+        int[] pageLength = {0};
+        JsonStreams.forEachField(parser, (name, value) -> {
+            switch (name) {
+                case "values" -> JsonStreams.forEachElement(value, file -> paths.add(diffstatPath(file)));
+                case "next" -> next[0] = value.currentToken() == JsonToken.VALUE_STRING ? value.getText() : null;
+                case "size" -> size[0] = value.currentToken() == JsonToken.VALUE_NUMBER_INT ? value.getIntValue() : -1;
+                case "pagelen" -> pageLength[0] = value.currentToken() == JsonToken.VALUE_NUMBER_INT ? value.getIntValue() : 0;
+                default -> value.skipChildren();
+            }
+        });
+        return new DiffstatPage(paths, next[0], size[0], pageLength[0]);
+    }
+
+    // Deleted files have no "new" side, so fall back to the old path
+    private static String diffstatPath(JsonParser file) throws IOException {
+        String[] paths = {"", ""};
+        JsonStreams.forEachField(file, (name, value) -> {
+            switch (name) {
+                case "new" -> paths[0] = JsonStreams.readFields(value, PATH_FIELDS).get("path");
+                case "old" -> paths[1] = JsonStreams.readFields(value, PATH_FIELDS).get("path");
+                default -> value.skipChildren();
+            }
+        });
+        return paths[0].isEmpty() ? paths[1] : paths[0];
     }
-} 
\ No newline at end of file
+
+    private record DiffstatPage(List<String> paths, String next, int size, int pageLength) {}
+}
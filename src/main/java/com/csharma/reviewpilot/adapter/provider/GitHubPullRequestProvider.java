@@ -1,71 +1,109 @@
 package com.csharma.reviewpilot.adapter.provider;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.List;
 import java.util.ArrayList;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.csharma.reviewpilot.diff.DiffBodyHandler;
+import com.csharma.reviewpilot.http.HttpClientRegistry;
 import com.csharma.reviewpilot.model.PullRequestDetails;
-import com.csharma.reviewpilot.exception.ProviderException;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
 public class GitHubPullRequestProvider implements PullRequestProvider {
+    private static final int PAGE_SIZE = 100;
+    private static final Pattern LAST_PAGE = Pattern.compile("[?&]page=(\\d+)[^>]*>;\\s*rel=\"last\"");
+    private static final Set<String> PR_FIELDS = Set.of("title", "body");
+    private static final Set<String> FILE_FIELDS = Set.of("filename");
+
     private final String apiUrl;
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final JsonFactory jsonFactory;
+    private final DiffBodyHandler diffBodyHandler;
 
     public GitHubPullRequestProvider() {
-        Config config = ConfigFactory.load();
+        this(ConfigFactory.load(), HttpClientRegistry.shared());
+    }
+
+    /**
+     * Provider on the process-wide {@link HttpClientRegistry#shared() shared} clients; pass a registry
+     * to use HTTP settings other than the application config's
+     */
+    public GitHubPullRequestProvider(Config config) {
+        this(config, HttpClientRegistry.shared());
+    }
+
+    public GitHubPullRequestProvider(Config config, HttpClientRegistry httpClients) {
         this.apiUrl = config.getString("reviewpilot.github.api-url");
+        this.httpClient = httpClients.httpClient();
+        this.jsonFactory = httpClients.objectMapper().getFactory();
+        this.diffBodyHandler = new DiffBodyHandler(config.getBytes("reviewpilot.diff.spill-threshold"));
     }
 
     @Override
     public PullRequestDetails fetchPullRequestDetails(String repoOwner, String repoName, String prNumber, String authToken) throws Exception {
         String prUrl = String.format("%s/%s/%s/pulls/%s", apiUrl, repoOwner, repoName, prNumber);
-        HttpRequest prRequest = HttpRequest.newBuilder()
-                .uri(URI.create(prUrl))
-                .header("Authorization", "Bearer " + authToken)
-                .header("Accept", "application/vnd.github+json")
-                .build();
-        HttpResponse<String> prResponse = httpClient.send(prRequest, HttpResponse.BodyHandlers.ofString());
-        if (prResponse.statusCode() != 200) {
-            throw new ProviderException("Failed to fetch PR metadata: " + prResponse.body());
-        }
-        JsonNode prJson = objectMapper.readTree(prResponse.body());
-        String title = prJson.get("title").asText();
-        String description = prJson.get("body").asText("");
-
         String filesUrl = prUrl + "/files";
-        HttpRequest filesRequest = HttpRequest.newBuilder()
-                .uri(URI.create(filesUrl))
-                .header("Authorization", "Bearer " + authToken)
-                .header("Accept", "application/vnd.github+json")
-                .build();
-        HttpResponse<String> filesResponse = httpClient.send(filesRequest, HttpResponse.BodyHandlers.ofString());
-        if (filesResponse.statusCode() != 200) {
-            throw new ProviderException("Failed to fetch PR files: " + filesResponse.body());
-        }
-        JsonNode filesJson = objectMapper.readTree(filesResponse.body());
+
+        CompletableFuture<Map<String, String>> prFields = ProviderRequests.readJson(httpClient, jsonFactory,
+                newRequest(prUrl, authToken, "application/vnd.github+json"), "Failed to fetch PR metadata",
+                parser -> JsonStreams.readFields(parser, PR_FIELDS));
+        CompletableFuture<List<List<String>>> filePages = ProviderRequests.sendJson(httpClient, jsonFactory,
+                filesPageRequest(filesUrl, 1, authToken), "Failed to fetch PR files", GitHubPullRequestProvider::filenames)
+                .thenCompose(first -> ProviderRequests.fetchAllPages(first.value(), lastPage(first.headers()),
+                        page -> ProviderRequests.readJson(httpClient, jsonFactory, filesPageRequest(filesUrl, page, authToken),
+                                "Failed to fetch PR files", GitHubPullRequestProvider::filenames)));
+        CompletableFuture<CharSequence> diffBody = ProviderRequests.sendAsync(httpClient,
+                newRequest(prUrl, authToken, "application/vnd.github.v3.diff"), diffBodyHandler, "Failed to fetch PR diff");
+
+        Map<String, String> pr = ProviderRequests.join(prFields);
+        String title = pr.get("title");
+        String description = pr.get("body");
+
         List<String> changedFiles = new ArrayList<>();
-        for (JsonNode fileNode : filesJson) {
-            changedFiles.add(fileNode.get("filename").asText());
+        for (List<String> page : ProviderRequests.join(filePages)) {
+            changedFiles.addAll(page);
         }
 
-        HttpRequest diffRequest = HttpRequest.newBuilder()
-                .uri(URI.create(prUrl))
+        CharSequence diff = ProviderRequests.join(diffBody);
+
+        return new PullRequestDetails(title, description, changedFiles, diff);
+    }
+
+    private HttpRequest filesPageRequest(String filesUrl, int page, String authToken) {
+        String url = ProviderRequests.withQuery(filesUrl, "per_page=" + PAGE_SIZE + "&page=" + page);
+        return newRequest(url, authToken, "application/vnd.github+json");
+    }
+
+    private HttpRequest newRequest(String url, String authToken, String accept) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
                 .header("Authorization", "Bearer " + authToken)
-                .header("Accept", "application/vnd.github.v3.diff")
+                .header("Accept", accept)
                 .build();
-        HttpResponse<String> diffResponse = httpClient.send(diffRequest, HttpResponse.BodyHandlers.ofString());
-        if (diffResponse.statusCode() != 200) {
-            throw new ProviderException("Failed to fetch PR diff: " + diffResponse.body());
-        }
-        String diff = diffResponse.body();
+    }
 
-        return new PullRequestDetails(title, description, changedFiles, diff);
+    private static List<String> filenames(JsonParser parser) throws IOException {
+        List<String> filenames = new ArrayList<>();
+        JsonStreams.forEachElement(parser, file -> filenames.add(JsonStreams.readFields(file, FILE_FIELDS).get("filename")));
+        return filenames;
+    }
+
+    private static int lastPage(HttpHeaders headers) {
+        return headers.firstValue("Link")
+                .map(LAST_PAGE::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Integer.parseInt(matcher.group(1)))
+                .orElse(1);
     }
-} 
\ No newline at end of file
+}
@@ -1,80 +1,182 @@
 package com.csharma.reviewpilot.adapter.provider;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.csharma.reviewpilot.diff.DiffBuffer;
+import com.csharma.reviewpilot.http.HttpClientRegistry;
 import com.csharma.reviewpilot.model.PullRequestDetails;
-import com.csharma.reviewpilot.exception.ProviderException;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
 public class GitLabPullRequestProvider implements PullRequestProvider {
+    private static final int PAGE_SIZE = 100;
+    private static final Set<String> MR_FIELDS = Set.of("title", "description", "changes_count");
+    private static final Set<String> DIFF_FIELDS = Set.of("old_path", "new_path", "diff", "new_file", "deleted_file", "too_large", "collapsed");
+
     private final String apiUrl;
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final JsonFactory jsonFactory;
+    private final long diffSpillThreshold;
 
     public GitLabPullRequestProvider() {
-        Config config = ConfigFactory.load();
+        this(ConfigFactory.load(), HttpClientRegistry.shared());
+    }
+
+    /**
+     * Provider on the process-wide {@link HttpClientRegistry#shared() shared} clients; pass a registry
+     * to use HTTP settings other than the application config's
+     */
+    public GitLabPullRequestProvider(Config config) {
+        this(config, HttpClientRegistry.shared());
+    }
+
+    public GitLabPullRequestProvider(Config config, HttpClientRegistry httpClients) {
         this.apiUrl = config.getString("reviewpilot.gitlab.api-url");
+        this.httpClient = httpClients.httpClient();
+        this.jsonFactory = httpClients.objectMapper().getFactory();
+        this.diffSpillThreshold = config.getBytes("reviewpilot.diff.spill-threshold");
     }
 
     @Override
     public PullRequestDetails fetchPullRequestDetails(String repoOwner, String repoName, String prNumber, String authToken) throws Exception {
         String projectPath = URLEncoder.encode(repoOwner + "/" + repoName, StandardCharsets.UTF_8);
         String mrUrl = String.format("%s/%s/merge_requests/%s", apiUrl, projectPath, prNumber);
-        HttpRequest mrRequest = HttpRequest.newBuilder()
-                .uri(URI.create(mrUrl))
-                .header("PRIVATE-TOKEN", authToken)
-                .header("Accept", "application/json")
-                .build();
-        HttpResponse<String> mrResponse = httpClient.send(mrRequest, HttpResponse.BodyHandlers.ofString());
-        if (mrResponse.statusCode() != 200) {
-            throw new ProviderException("Failed to fetch MR metadata: " + mrResponse.body());
+        String diffsUrl = mrUrl + "/diffs";
+
+        CompletableFuture<Map<String, String>> mrFields = ProviderRequests.readJson(httpClient, jsonFactory,
+                newRequest(mrUrl, authToken), "Failed to fetch MR metadata", parser -> JsonStreams.readFields(parser, MR_FIELDS));
+        // Each file is appended to the buffer as its page is parsed; only paths and flags are kept
+        DiffBuffer diffBuffer = new DiffBuffer(diffSpillThreshold);
+        List<ChangedFile> files = new ArrayList<>();
+        JsonStreams.Extractor<Void> appendPage = parser -> {
+            JsonStreams.forEachElement(parser, element -> files.add(appendFileDiff(element, diffBuffer)));
+            return null;
+        };
+        CompletableFuture<Void> diffPages = ProviderRequests.sendJson(httpClient, jsonFactory,
+                diffsPageRequest(diffsUrl, 1, authToken), "Failed to fetch MR diffs", appendPage)
+                .thenCompose(first -> {
+                    int totalPages = first.headers().firstValue("X-Total-Pages").map(Integer::parseInt).orElse(1);
+                    return ProviderRequests.readPagesInOrder(httpClient, jsonFactory, 2, totalPages,
+                            page -> diffsPageRequest(diffsUrl, page, authToken), "Failed to fetch MR diffs", appendPage);
+                });
+
+        Map<String, String> mr;
+        try {
+            mr = ProviderRequests.join(mrFields);
+            ProviderRequests.join(diffPages);
+        } catch (Exception e) {
+            diffPages.whenComplete((ignored, error) -> diffBuffer.discard());
+            throw e;
         }
-        JsonNode mrJson = objectMapper.readTree(mrResponse.body());
-        String title = mrJson.get("title").asText();
-        String description = mrJson.get("description").asText("");
+        String title = mr.get("title");
+        String description = mr.get("description");
 
-        String changesUrl = mrUrl + "/changes";
-        HttpRequest changesRequest = HttpRequest.newBuilder()
-                .uri(URI.create(changesUrl))
-                .header("PRIVATE-TOKEN", authToken)
-                .header("Accept", "application/json")
-                .build();
-        HttpResponse<String> changesResponse = httpClient.send(changesRequest, HttpResponse.BodyHandlers.ofString());
-        if (changesResponse.statusCode() != 200) {
-            throw new ProviderException("Failed to fetch MR changes: " + changesResponse.body());
+        // GitLab reports "N+" once an MR exceeds its diff limits, and drops the text of oversized files;
+        // only then is the diff rebuilt from /changes, with raw diffs so the limits do not apply.
+        boolean overflowed = mr.get("changes_count").endsWith("+");
+        if (overflowed || files.stream().anyMatch(ChangedFile::truncated)) {
+            diffBuffer.discard();
+            DiffBuffer rawBuffer = new DiffBuffer(diffSpillThreshold);
+            try {
+                List<String> changedFiles = appendRawChanges(mrUrl, authToken, rawBuffer, overflowed ? List.of() : files);
+                return new PullRequestDetails(title, description, changedFiles, rawBuffer.finish());
+            } catch (Exception e) {
+                rawBuffer.discard();
+                throw e;
+            }
+        }
+
+        List<String> changedFiles = new ArrayList<>(files.size());
+        for (ChangedFile file : files) {
+            changedFiles.add(file.newPath());
+        }
+        return new PullRequestDetails(title, description, changedFiles, diffBuffer.finish());
+    }
+
+    /**
+     * Streams the raw diffs of {@code /changes} into {@code buffer}. Files listed in {@code expected}
+     * but missing from the changes keep their headers, so the review still knows they changed.
+     *
+     * @return the changed paths, in diff order
+     */
+    private List<String> appendRawChanges(String mrUrl, String authToken, DiffBuffer buffer, List<ChangedFile> expected) throws Exception {
+        List<ChangedFile> changes = ProviderRequests.join(ProviderRequests.readJson(httpClient, jsonFactory,
+                newRequest(mrUrl + "/changes?access_raw_diffs=true", authToken), "Failed to fetch MR changes", parser -> {
+                    List<ChangedFile> appended = new ArrayList<>();
+                    JsonStreams.forEachField(parser, (name, value) -> {
+                        if (name.equals("changes")) {
+                            JsonStreams.forEachElement(value, element -> appended.add(appendFileDiff(element, buffer)));
+                        } else {
+                            value.skipChildren();
+                        }
+                    });
+                    return appended;
+                }));
+        Set<String> rawPaths = new HashSet<>();
+        List<String> changedFiles = new ArrayList<>(changes.size());
+        for (ChangedFile change : changes) {
+            rawPaths.add(change.newPath());
+            changedFiles.add(change.newPath());
         }
-        JsonNode changesJson = objectMapper.readTree(changesResponse.body());
-        List<String> changedFiles = new ArrayList<>();
-        for (JsonNode fileNode : changesJson.get("changes")) {
-            changedFiles.add(fileNode.get("new_path").asText());
+        for (ChangedFile file : expected) {
+            if (!rawPaths.contains(file.newPath())) {
+                file.appendHeaderTo(buffer);
+                changedFiles.add(file.newPath());
+            }
         }
+        return changedFiles;
+    }
 
-        String diffsUrl = mrUrl + "/diffs";
-        HttpRequest diffsRequest = HttpRequest.newBuilder()
-                .uri(URI.create(diffsUrl))
+    /**
+     * Appends the file diff under the parser to {@code buffer}. GitLab returns only the hunks, so the
+     * git headers are restored; this keeps per-file splitting of the combined diff working.
+     */
+    private static ChangedFile appendFileDiff(JsonParser parser, DiffBuffer buffer) throws IOException {
+        Map<String, String> fields = JsonStreams.readFields(parser, DIFF_FIELDS);
+        String diff = fields.get("diff");
+        ChangedFile file = new ChangedFile(fields.get("old_path"), fields.get("new_path"),
+                Boolean.parseBoolean(fields.get("new_file")), Boolean.parseBoolean(fields.get("deleted_file")),
+                diff.isEmpty() && (Boolean.parseBoolean(fields.get("too_large")) || Boolean.parseBoolean(fields.get("collapsed"))));
+        file.appendHeaderTo(buffer);
+        buffer.append(diff);
+        if (!diff.isEmpty() && diff.charAt(diff.length() - 1) != '\n') {
+            buffer.append("\n");
+        }
+        return file;
+    }
+
+    private HttpRequest diffsPageRequest(String diffsUrl, int page, String authToken) {
+        return newRequest(ProviderRequests.withQuery(diffsUrl, "per_page=" + PAGE_SIZE + "&page=" + page), authToken);
+    }
+
+    private HttpRequest newRequest(String url, String authToken) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
                 .header("PRIVATE-TOKEN", authToken)
                 .header("Accept", "application/json")
                 .build();
-        HttpResponse<String> diffsResponse = httpClient.send(diffsRequest, HttpResponse.BodyHandlers.ofString());
-        if (diffsResponse.statusCode() != 200) {
-            throw new ProviderException("Failed to fetch MR diffs: " + diffsResponse.body());
-        }
-        JsonNode diffsJson = objectMapper.readTree(diffsResponse.body());
-        StringBuilder diffBuilder = new StringBuilder();
-        for (JsonNode diffNode : diffsJson) {
-            diffBuilder.append(diffNode.get("diff").asText()).append("\n");
-        }
-        String diff = diffBuilder.toString();
+    }
 
-        return new PullRequestDetails(title, description, changedFiles, diff);
+    /**
+     * Path and flags of one file of the MR; its diff text goes straight to the buffer
+     */
+    private record ChangedFile(String oldPath, String newPath, boolean newFile, boolean deletedFile, boolean truncated) {
+        void appendHeaderTo(DiffBuffer buffer) throws IOException {
+            buffer.append("diff --git a/" + oldPath + " b/" + newPath + "\n");
+            buffer.append(newFile ? "--- /dev/null\n" : "--- a/" + oldPath + "\n");
+            buffer.append(deletedFile ? "+++ /dev/null\n" : "+++ b/" + newPath + "\n");
+        }
     }
-} 
\ No newline at end of file
+}
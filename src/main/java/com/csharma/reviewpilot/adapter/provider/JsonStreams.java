@@ -0,0 +1,81 @@
+package com.csharma.reviewpilot.adapter.provider;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Token-level helpers for pulling a handful of fields out of provider responses without building a
+ * tree. Anything not asked for is skipped with {@link JsonParser#skipChildren()}, so large unused
+ * values such as per-file patches are never materialised.
+ */
+final class JsonStreams {
+    private JsonStreams() {}
+
+    @FunctionalInterface
+    interface Extractor<R> {
+        R extract(JsonParser parser) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface FieldHandler {
+        /** Called with the parser on the field's value; the handler must consume or skip the whole value. */
+        void onField(String name, JsonParser parser) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface ElementHandler {
+        /** Called with the parser on the element's first token; the handler must consume or skip the element. */
+        void onElement(JsonParser parser) throws IOException;
+    }
+
+    static JsonToken start(JsonParser parser) throws IOException {
+        return parser.currentToken() != null ? parser.currentToken() : parser.nextToken();
+    }
+
+    /**
+     * Reads the named scalar fields of the object under the parser. Missing or null fields map to
+     * {@code ""}; the parser is left on the object's closing token.
+     */
+    static Map<String, String> readFields(JsonParser parser, Set<String> names) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        for (String name : names) {
+            values.put(name, "");
+        }
+        forEachField(parser, (name, value) -> {
+            if (names.contains(name) && value.currentToken().isScalarValue()) {
+                if (value.currentToken() != JsonToken.VALUE_NULL) {
+                    values.put(name, value.getText());
+                }
+            } else {
+                value.skipChildren();
+            }
+        });
+        return values;
+    }
+
+    static void forEachField(JsonParser parser, FieldHandler handler) throws IOException {
+        if (start(parser) != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            handler.onField(name, parser);
+        }
+    }
+
+    static void forEachElement(JsonParser parser, ElementHandler handler) throws IOException {
+        if (start(parser) != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            handler.onElement(parser);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.csharma.reviewpilot.adapter.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import com.csharma.reviewpilot.diff.DiffBuffer;
+import com.csharma.reviewpilot.exception.ProviderException;
+import com.csharma.reviewpilot.model.PullRequestDetails;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+/**
+ * Builds pull request details from a local clone with {@code git}, so CI runners that already have
+ * the checkout need no API calls and no token. {@code prNumber} is a revision range such as
+ * {@code main...feature}; a bare ref is compared against {@code reviewpilot.local.base-ref}.
+ * {@code repoOwner} and {@code repoName} are not used.
+ */
+public class LocalGitPullRequestProvider implements PullRequestProvider {
+    // Shared by every instance: providers come from ServiceLoader and are never closed, and idle
+    // virtual threads hold no resources
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final String git;
+    private final Path repository;
+    private final String baseRef;
+    private final long diffSpillThreshold;
+    private final Semaphore processes;
+
+    public LocalGitPullRequestProvider() {
+        this(ConfigFactory.load());
+    }
+
+    public LocalGitPullRequestProvider(Config config) {
+        this.git = config.getString("reviewpilot.local.git");
+        this.repository = Path.of(config.getString("reviewpilot.local.repository"));
+        this.baseRef = config.getString("reviewpilot.local.base-ref");
+        this.diffSpillThreshold = config.getBytes("reviewpilot.diff.spill-threshold");
+        this.processes = new Semaphore(config.getInt("reviewpilot.local.max-processes"));
+    }
+
+    @Override
+    public PullRequestDetails fetchPullRequestDetails(String repoOwner, String repoName, String prNumber, String authToken) throws Exception {
+        String range = prNumber.contains("..") ? prNumber : baseRef + "..." + prNumber;
+        String base = range.substring(0, range.indexOf(".."));
+        String head = range.substring(range.lastIndexOf("..") + 2);
+        if (head.isEmpty()) {
+            head = "HEAD";
+        }
+        // prNumber comes from the command line; a revision starting with '-' would be read as a git option
+        if (base.startsWith("-") || head.startsWith("-")) {
+            throw new ProviderException("Invalid revision range: " + prNumber);
+        }
+
+        CompletableFuture<String> message = git(LocalGitPullRequestProvider::readText, "log", "-1", "--format=%B", head, "--");
+        CompletableFuture<String> names = git(LocalGitPullRequestProvider::readText, "diff", "--name-only", "-z", range, "--");
+        CompletableFuture<CharSequence> diffBody = git(in -> DiffBuffer.read(in, diffSpillThreshold),
+                "diff", "--no-color", "--no-ext-diff", range, "--");
+
+        String commitMessage = ProviderRequests.join(message).strip();
+        int firstLineEnd = commitMessage.indexOf('\n');
+        String title = firstLineEnd < 0 ? commitMessage : commitMessage.substring(0, firstLineEnd);
+        String description = firstLineEnd < 0 ? "" : commitMessage.substring(firstLineEnd + 1).strip();
+
+        List<String> changedFiles = new ArrayList<>();
+        for (String name : ProviderRequests.join(names).split("\0")) {
+            if (!name.isEmpty()) {
+                changedFiles.add(name);
+            }
+        }
+
+        CharSequence diff = ProviderRequests.join(diffBody);
+
+        return new PullRequestDetails(title, description, changedFiles, diff);
+    }
+
+    // Commands run concurrently on virtual threads, at most max-processes git children at a time
+    private <T> CompletableFuture<T> git(OutputReader<T> reader, String... args) {
+        return CompletableFuture.supplyAsync(() -> {
+            processes.acquireUninterruptibly();
+            try {
+                return run(reader, args);
+            } finally {
+                processes.release();
+            }
+        }, EXECUTOR);
+    }
+
+    private <T> T run(OutputReader<T> reader, String... args) {
+        List<String> command = new ArrayList<>(args.length + 1);
+        command.add(git);
+        command.addAll(List.of(args));
+        Process process;
+        try {
+            process = new ProcessBuilder(command).directory(repository.toFile()).start();
+        } catch (IOException e) {
+            throw new ProviderException("Failed to start " + git, e);
+        }
+        CompletableFuture<String> stderr = CompletableFuture.supplyAsync(() -> {
+            try {
+                return readText(process.getErrorStream());
+            } catch (IOException e) {
+                return "";
+            }
+        }, EXECUTOR);
+        try {
+            T output = reader.read(process.getInputStream());
+            if (process.waitFor() != 0) {
+                throw new ProviderException("git " + args[0] + " failed: " + stderr.join().strip());
+            }
+            return output;
+        } catch (IOException e) {
+            process.destroy();
+            throw new ProviderException("Failed to read git " + args[0] + " output", e);
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new ProviderException("Interrupted while running git " + args[0], e);
+        }
+    }
+
+    private static String readText(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @FunctionalInterface
+    private interface OutputReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+}
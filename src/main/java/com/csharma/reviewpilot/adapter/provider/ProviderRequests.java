@@ -0,0 +1,151 @@
+package com.csharma.reviewpilot.adapter.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.csharma.reviewpilot.exception.ProviderException;
+
+final class ProviderRequests {
+    // Parsing blocks until body bytes arrive, so it must not hold a thread of the client's executor,
+    // which is what delivers those bytes; a bounded pool would deadlock once every thread is parsing
+    private static final ExecutorService PARSE_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ProviderRequests() {}
+
+    static <T extends CharSequence> CompletableFuture<T> sendAsync(HttpClient httpClient, HttpRequest request,
+                                                                   HttpResponse.BodyHandler<T> bodyHandler, String failureMessage) {
+        return send(httpClient, request, bodyHandler, failureMessage).thenApply(HttpResponse::body);
+    }
+
+    static <T extends CharSequence> CompletableFuture<HttpResponse<T>> send(HttpClient httpClient, HttpRequest request,
+                                                                           HttpResponse.BodyHandler<T> bodyHandler, String failureMessage) {
+        return httpClient.sendAsync(request, bodyHandler)
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new ProviderException(failureMessage + ": " + response.body());
+                    }
+                    return response;
+                });
+    }
+
+    /**
+     * Sends {@code request} and runs {@code extractor} over the response body as it streams in, so
+     * the JSON is never held as a string or a tree. Parsing blocks on the body stream, so it runs on
+     * its own virtual thread, never on the client's executor that delivers the body; non-200 bodies
+     * are read as text for the error message.
+     */
+    static <R> CompletableFuture<JsonResponse<R>> sendJson(HttpClient httpClient, JsonFactory jsonFactory, HttpRequest request,
+                                                           String failureMessage, JsonStreams.Extractor<R> extractor) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApplyAsync(response -> parse(response, jsonFactory, failureMessage, extractor), PARSE_EXECUTOR);
+    }
+
+    /**
+     * Requests pages {@code firstPage} to {@code lastPage} of a paged listing concurrently, but runs
+     * {@code extractor} over each page's body only once the page before it has been parsed, so the
+     * pages can be appended to one buffer in order without any of them being held in memory. A page
+     * whose turn has not come is left unread, which stalls its connection rather than buffering it.
+     */
+    static CompletableFuture<Void> readPagesInOrder(HttpClient httpClient, JsonFactory jsonFactory, int firstPage, int lastPage,
+                                                    IntFunction<HttpRequest> request, String failureMessage,
+                                                    JsonStreams.Extractor<?> extractor) {
+        List<CompletableFuture<HttpResponse<InputStream>>> responses = new ArrayList<>();
+        CompletableFuture<Void> parsed = CompletableFuture.completedFuture(null);
+        for (int page = firstPage; page <= lastPage; page++) {
+            CompletableFuture<HttpResponse<InputStream>> response = httpClient.sendAsync(request.apply(page), HttpResponse.BodyHandlers.ofInputStream());
+            responses.add(response);
+            parsed = parsed.thenCombine(response, (previous, current) -> current)
+                    .thenAcceptAsync(current -> parse(current, jsonFactory, failureMessage, extractor), PARSE_EXECUTOR);
+        }
+        // After a failure the later pages are never parsed; close them so their connections are released
+        return parsed.whenComplete((ignored, error) -> {
+            if (error != null) {
+                responses.forEach(response -> response.thenAccept(ProviderRequests::closeQuietly));
+            }
+        });
+    }
+
+    private static <R> JsonResponse<R> parse(HttpResponse<InputStream> response, JsonFactory jsonFactory,
+                                             String failureMessage, JsonStreams.Extractor<R> extractor) {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new ProviderException(failureMessage + ": " + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            try (JsonParser parser = jsonFactory.createParser(body)) {
+                return new JsonResponse<>(response.headers(), extractor.extract(parser));
+            }
+        } catch (IOException e) {
+            throw new ProviderException(failureMessage + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void closeQuietly(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException ignored) {}
+    }
+
+    static <R> CompletableFuture<R> readJson(HttpClient httpClient, JsonFactory jsonFactory, HttpRequest request,
+                                             String failureMessage, JsonStreams.Extractor<R> extractor) {
+        return sendJson(httpClient, jsonFactory, request, failureMessage, extractor).thenApply(JsonResponse::value);
+    }
+
+    /**
+     * Given the first page of a paged listing and the total page count, fetches the remaining pages
+     * concurrently and returns every page in page order.
+     */
+    static <R> CompletableFuture<List<R>> fetchAllPages(R firstPage, int lastPage, IntFunction<CompletableFuture<R>> fetchPage) {
+        List<CompletableFuture<R>> pages = new ArrayList<>();
+        pages.add(CompletableFuture.completedFuture(firstPage));
+        for (int page = 2; page <= lastPage; page++) {
+            pages.add(fetchPage.apply(page));
+        }
+        return allOf(pages);
+    }
+
+    static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    static String withQuery(String url, String query) {
+        return url + (url.contains("?") ? "&" : "?") + query;
+    }
+
+    static <T> T join(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProviderException("Interrupted while fetching pull request", e);
+        }
+    }
+
+    private static Exception unwrap(Throwable cause) {
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof Exception exception) {
+            return exception;
+        }
+        return new ProviderException("Failed to fetch pull request", cause);
+    }
+
+    record JsonResponse<R>(HttpHeaders headers, R value) {}
+}
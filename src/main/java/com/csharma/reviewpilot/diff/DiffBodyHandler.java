@@ -0,0 +1,83 @@
+package com.csharma.reviewpilot.diff;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * Body handler that streams a successful diff response into a {@link DiffBuffer} instead of
+ * collecting it into one String. Error responses are still read as plain strings.
+ */
+public final class DiffBodyHandler implements HttpResponse.BodyHandler<CharSequence> {
+    private final long spillThreshold;
+
+    public DiffBodyHandler(long spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<CharSequence> apply(HttpResponse.ResponseInfo responseInfo) {
+        if (responseInfo.statusCode() != 200) {
+            return HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8), body -> body);
+        }
+        DiffSubscriber subscriber = new DiffSubscriber(new DiffBuffer(spillThreshold));
+        return HttpResponse.BodySubscribers.fromSubscriber(subscriber, DiffSubscriber::finish);
+    }
+
+    private static final class DiffSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+        private final DiffBuffer buffer;
+        private Flow.Subscription subscription;
+        private IOException failure;
+
+        private DiffSubscriber(DiffBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (failure == null) {
+                try {
+                    for (ByteBuffer item : items) {
+                        buffer.write(item);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                    buffer.discard();
+                }
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            buffer.discard();
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        private CharSequence finish() {
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+            try {
+                return buffer.finish();
+            } catch (IOException e) {
+                buffer.discard();
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.csharma.reviewpilot.diff;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import com.csharma.reviewpilot.exception.ProviderException;
+
+/**
+ * Accumulates a UTF-8 diff incrementally. Diffs up to {@code spillThreshold} bytes stay on the heap;
+ * larger ones are decoded to UTF-16 in a temp file that is memory-mapped and exposed as a
+ * {@link CharBuffer}, so the diff never becomes a single heap object.
+ */
+public final class DiffBuffer {
+    private static final int CHUNK_CHARS = 8192;
+
+    private final long spillThreshold;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars = CharBuffer.allocate(CHUNK_CHARS);
+    private final ByteBuffer spillBytes = ByteBuffer.allocate(CHUNK_CHARS * 2);
+    private ByteBuffer carry = ByteBuffer.allocate(0);
+    private StringBuilder memory = new StringBuilder();
+    private long bytesWritten;
+    private Path spillFile;
+    private FileChannel spillChannel;
+
+    public DiffBuffer(long spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    public static CharSequence read(InputStream in, long spillThreshold) throws IOException {
+        DiffBuffer buffer = new DiffBuffer(spillThreshold);
+        try (in) {
+            byte[] chunk = new byte[CHUNK_CHARS];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                buffer.write(ByteBuffer.wrap(chunk, 0, read));
+            }
+            return buffer.finish();
+        } catch (IOException | RuntimeException e) {
+            buffer.discard();
+            throw e;
+        }
+    }
+
+    public void write(ByteBuffer data) throws IOException {
+        bytesWritten += data.remaining();
+        ByteBuffer in = data;
+        if (carry.hasRemaining()) {
+            in = ByteBuffer.allocate(carry.remaining() + data.remaining()).put(carry).put(data).flip();
+        }
+        while (true) {
+            boolean overflow = decoder.decode(in, chars, false).isOverflow();
+            drainChars();
+            if (!overflow) {
+                break;
+            }
+        }
+        carry = in.hasRemaining() ? ByteBuffer.allocate(in.remaining()).put(in).flip() : ByteBuffer.allocate(0);
+    }
+
+    public void append(CharSequence text) throws IOException {
+        CharBuffer source = CharBuffer.wrap(text);
+        bytesWritten += text.length();
+        while (source.hasRemaining()) {
+            int n = Math.min(chars.remaining(), source.remaining());
+            chars.put(source.subSequence(0, n));
+            source.position(source.position() + n);
+            drainChars();
+        }
+    }
+
+    public CharSequence finish() throws IOException {
+        decoder.decode(carry, chars, true);
+        decoder.flush(chars);
+        drainChars();
+        if (spillChannel == null) {
+            String text = memory.toString();
+            memory = null;
+            return text;
+        }
+        try (FileChannel channel = spillChannel) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ProviderException("Diff too large to map: " + size + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return mapped.asCharBuffer();
+        } finally {
+            spillChannel = null;
+            deleteSpillFile();
+        }
+    }
+
+    public void discard() {
+        memory = null;
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+            } catch (IOException ignored) {}
+            spillChannel = null;
+        }
+        deleteSpillFile();
+    }
+
+    private void drainChars() throws IOException {
+        chars.flip();
+        if (spillChannel == null && bytesWritten > spillThreshold) {
+            spill();
+        }
+        if (spillChannel == null) {
+            memory.append(chars);
+        } else {
+            writeSpill(chars);
+        }
+        chars.clear();
+    }
+
+    private void spill() throws IOException {
+        spillFile = Files.createTempFile("reviewpilot-diff", ".utf16");
+        spillFile.toFile().deleteOnExit();
+        spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeSpill(CharBuffer.wrap(memory));
+        memory = null;
+    }
+
+    private void writeSpill(CharBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            spillBytes.clear();
+            CharBuffer view = spillBytes.asCharBuffer();
+            int n = Math.min(view.remaining(), source.remaining());
+            view.put(source.subSequence(0, n));
+            source.position(source.position() + n);
+            spillBytes.limit(n * 2);
+            while (spillBytes.hasRemaining()) {
+                spillChannel.write(spillBytes);
+            }
+        }
+    }
+
+    private void deleteSpillFile() {
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException ignored) {}
+            spillFile = null;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.csharma.reviewpilot.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.net.ssl.SSLSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends conditional GETs backed by an {@link HttpResponseCache}. A cached entry's validators are
+ * attached as {@code If-None-Match} / {@code If-Modified-Since}; a {@code 304} is answered from the
+ * local copy and reported to the caller as a {@code 200}, and a fresh {@code 200} carrying a
+ * validator is written to the cache while it streams through to the caller's body handler. If the
+ * cached body was evicted before the {@code 304} arrived, the request is sent once more without
+ * validators.
+ */
+public final class CachingHttpClient extends DelegatingHttpClient {
+    private static final Logger logger = LoggerFactory.getLogger(CachingHttpClient.class);
+    private static final int REPLAY_CHUNK = 64 * 1024;
+
+    private final HttpResponseCache cache;
+
+    public CachingHttpClient(HttpClient delegate, HttpResponseCache cache) {
+        super(delegate);
+        this.cache = cache;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        if (!"GET".equals(request.method())) {
+            return delegate.sendAsync(request, responseBodyHandler, pushPromiseHandler);
+        }
+        return send(request, responseBodyHandler, pushPromiseHandler, true);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                        HttpResponse.PushPromiseHandler<T> pushPromiseHandler, boolean revalidate) {
+        String key = HttpResponseCache.keyFor(request);
+        HttpResponseCache.Entry entry = revalidate ? cache.lookup(key) : null;
+        HttpRequest conditional = request;
+        if (entry != null) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+            if (entry.etag() != null) {
+                builder.header("If-None-Match", entry.etag());
+            }
+            if (entry.lastModified() != null) {
+                builder.header("If-Modified-Since", entry.lastModified());
+            }
+            conditional = builder.build();
+        }
+        AtomicBoolean evicted = new AtomicBoolean();
+        HttpResponse.BodyHandler<T> cachingHandler = info -> {
+            if (info.statusCode() == 304 && entry != null) {
+                // Open the cached body now: once open it can be replayed even if it is evicted meanwhile
+                FileChannel cachedBody = open(entry);
+                if (cachedBody == null) {
+                    evicted.set(true);
+                    return HttpResponse.BodySubscribers.replacing(null);
+                }
+                return new ReplaySubscriber<>(responseBodyHandler.apply(new RevalidatedInfo(info)), cachedBody);
+            }
+            if (info.statusCode() == 200 && isCacheable(info.headers())) {
+                return new StoringSubscriber<>(responseBodyHandler.apply(info), key, info.headers());
+            }
+            return responseBodyHandler.apply(info);
+        };
+        return delegate.sendAsync(conditional, cachingHandler, pushPromiseHandler)
+                .thenCompose(response -> {
+                    if (response.statusCode() != 304 || entry == null) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    if (evicted.get()) {
+                        // The entry was evicted between the lookup and the 304; ask again without validators
+                        logger.debug("Cached body for {} is gone, refetching", request.uri());
+                        cache.invalidate(entry);
+                        return send(request, responseBodyHandler, pushPromiseHandler, false);
+                    }
+                    cache.touch(entry);
+                    logger.debug("Served {} from HTTP cache", request.uri());
+                    return CompletableFuture.completedFuture(new RevalidatedResponse<>(response));
+                });
+    }
+
+    private static FileChannel open(HttpResponseCache.Entry entry) {
+        try {
+            return FileChannel.open(entry.body(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isCacheable(HttpHeaders headers) {
+        boolean hasValidator = headers.firstValue("ETag").isPresent() || headers.firstValue("Last-Modified").isPresent();
+        boolean noStore = headers.allValues("Cache-Control").stream().anyMatch(value -> value.contains("no-store"));
+        return hasValidator && !noStore;
+    }
+
+    private record RevalidatedInfo(HttpResponse.ResponseInfo notModified) implements HttpResponse.ResponseInfo {
+        @Override
+        public int statusCode() { return 200; }
+
+        @Override
+        public HttpHeaders headers() { return notModified.headers(); }
+
+        @Override
+        public HttpClient.Version version() { return notModified.version(); }
+    }
+
+    private record RevalidatedResponse<T>(HttpResponse<T> notModified) implements HttpResponse<T> {
+        @Override
+        public int statusCode() { return 200; }
+
+        @Override
+        public HttpRequest request() { return notModified.request(); }
+
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() { return notModified.previousResponse(); }
+
+        @Override
+        public HttpHeaders headers() { return notModified.headers(); }
+
+        @Override
+        public T body() { return notModified.body(); }
+
+        @Override
+        public Optional<SSLSession> sslSession() { return notModified.sslSession(); }
+
+        @Override
+        public URI uri() { return notModified.uri(); }
+
+        @Override
+        public HttpClient.Version version() { return notModified.version(); }
+    }
+
+    /**
+     * Tees a 200 body into a temp file while forwarding it unchanged, then commits the file as the
+     * new cache entry once the body completes.
+     */
+    private final class StoringSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> downstream;
+        private final String key;
+        private final HttpHeaders headers;
+        private Path tempBody;
+        private FileChannel channel;
+
+        private StoringSubscriber(HttpResponse.BodySubscriber<T> downstream, String key, HttpHeaders headers) {
+            this.downstream = downstream;
+            this.key = key;
+            this.headers = headers;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return downstream.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            synchronized (this) {
+                try {
+                    tempBody = cache.newTempFile();
+                    channel = FileChannel.open(tempBody, StandardOpenOption.WRITE);
+                } catch (IOException e) {
+                    logger.debug("HTTP cache unavailable, not storing response: {}", e.getMessage());
+                    abandon();
+                }
+            }
+            // A caller that stops reading leaves a partial body; drop it rather than leak the temp file
+            downstream.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    abandon();
+                    subscription.cancel();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            write(items);
+            downstream.onNext(items);
+        }
+
+        private synchronized void write(List<ByteBuffer> items) {
+            if (channel != null) {
+                try {
+                    for (ByteBuffer item : items) {
+                        ByteBuffer copy = item.duplicate();
+                        while (copy.hasRemaining()) {
+                            channel.write(copy);
+                        }
+                    }
+                } catch (IOException e) {
+                    logger.debug("Failed to write HTTP cache entry: {}", e.getMessage());
+                    abandon();
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            abandon();
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            commit();
+            downstream.onComplete();
+        }
+
+        private synchronized void commit() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                    channel = null;
+                    cache.commit(key, headers.firstValue("ETag").orElse(null),
+                            headers.firstValue("Last-Modified").orElse(null), tempBody);
+                } catch (IOException e) {
+                    logger.debug("Failed to commit HTTP cache entry: {}", e.getMessage());
+                    abandon();
+                }
+            }
+        }
+
+        private synchronized void abandon() {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+                if (tempBody != null) {
+                    Files.deleteIfExists(tempBody);
+                }
+            } catch (IOException ignored) {}
+            channel = null;
+        }
+    }
+
+    /**
+     * Consumes the empty 304 body, then replays the cached file to the caller's subscriber while
+     * honouring its demand.
+     */
+    private static final class ReplaySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> downstream;
+        private final FileChannel cachedBody;
+
+        private ReplaySubscriber(HttpResponse.BodySubscriber<T> downstream, FileChannel cachedBody) {
+            this.downstream = downstream;
+            this.cachedBody = cachedBody;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return downstream.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            try {
+                cachedBody.close();
+            } catch (IOException ignored) {}
+            downstream.onSubscribe(new FileReplay(null, downstream));
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onSubscribe(new FileReplay(cachedBody, downstream));
+        }
+    }
+
+    private static final class FileReplay implements Flow.Subscription {
+        private final FileChannel channel;
+        private final Flow.Subscriber<? super List<ByteBuffer>> downstream;
+        private long demand;
+        private boolean draining;
+        private boolean done;
+
+        private FileReplay(FileChannel channel, Flow.Subscriber<? super List<ByteBuffer>> downstream) {
+            this.channel = channel;
+            this.downstream = downstream;
+            this.done = channel == null;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            demand = Long.MAX_VALUE - demand < n ? Long.MAX_VALUE : demand + n;
+            if (draining) {
+                return;
+            }
+            draining = true;
+            try {
+                while (demand > 0 && !done) {
+                    ByteBuffer chunk = ByteBuffer.allocate(REPLAY_CHUNK);
+                    int read = channel.read(chunk);
+                    if (read < 0) {
+                        finish();
+                        downstream.onComplete();
+                        return;
+                    }
+                    demand--;
+                    downstream.onNext(List.of(chunk.flip()));
+                }
+            } catch (IOException e) {
+                finish();
+                downstream.onError(e);
+            } finally {
+                draining = false;
+            }
+        }
+
+        @Override
+        public synchronized void cancel() {
+            finish();
+        }
+
+        private void finish() {
+            done = true;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+}
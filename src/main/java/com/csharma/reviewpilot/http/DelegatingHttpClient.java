@@ -0,0 +1,82 @@
+package com.csharma.reviewpilot.http;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+/**
+ * Base for {@link HttpClient} decorators. Everything is forwarded to the wrapped client; subclasses
+ * override {@link #sendAsync(HttpRequest, HttpResponse.BodyHandler, HttpResponse.PushPromiseHandler)}
+ * and the blocking {@link #send} is routed through it.
+ */
+public abstract class DelegatingHttpClient extends HttpClient {
+    protected final HttpClient delegate;
+
+    protected DelegatingHttpClient(HttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() { return delegate.cookieHandler(); }
+
+    @Override
+    public Optional<Duration> connectTimeout() { return delegate.connectTimeout(); }
+
+    @Override
+    public Redirect followRedirects() { return delegate.followRedirects(); }
+
+    @Override
+    public Optional<ProxySelector> proxy() { return delegate.proxy(); }
+
+    @Override
+    public SSLContext sslContext() { return delegate.sslContext(); }
+
+    @Override
+    public SSLParameters sslParameters() { return delegate.sslParameters(); }
+
+    @Override
+    public Optional<Authenticator> authenticator() { return delegate.authenticator(); }
+
+    @Override
+    public Version version() { return delegate.version(); }
+
+    @Override
+    public Optional<Executor> executor() { return delegate.executor(); }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+            throws IOException, InterruptedException {
+        try {
+            return sendAsync(request, responseBodyHandler).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+        return sendAsync(request, responseBodyHandler, null);
+    }
+}
@@ -0,0 +1,72 @@
+package com.csharma.reviewpilot.http;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caps the number of in-flight requests per host and applies a default request timeout to requests
+ * that do not set their own. Waiting requests are queued without blocking the caller's thread.
+ */
+public final class HostLimitingHttpClient extends DelegatingHttpClient {
+    private final int maxConnectionsPerHost;
+    private final Duration requestTimeout;
+    private final Map<String, HostPermits> hosts = new ConcurrentHashMap<>();
+
+    public HostLimitingHttpClient(HttpClient delegate, int maxConnectionsPerHost, Duration requestTimeout) {
+        super(delegate);
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        HttpRequest timed = request.timeout().isPresent()
+                ? request
+                : HttpRequest.newBuilder(request, (name, value) -> true).timeout(requestTimeout).build();
+        HostPermits permits = hosts.computeIfAbsent(request.uri().getAuthority(), host -> new HostPermits(maxConnectionsPerHost));
+        return permits.acquire()
+                .thenCompose(ignored -> delegate.sendAsync(timed, responseBodyHandler, pushPromiseHandler))
+                .whenComplete((response, error) -> permits.release());
+    }
+
+    private static final class HostPermits {
+        private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+        private int available;
+
+        private HostPermits(int permits) {
+            this.available = permits;
+        }
+
+        private CompletableFuture<Void> acquire() {
+            synchronized (this) {
+                if (available > 0) {
+                    available--;
+                    return CompletableFuture.completedFuture(null);
+                }
+                CompletableFuture<Void> waiter = new CompletableFuture<>();
+                waiters.add(waiter);
+                return waiter;
+            }
+        }
+
+        private void release() {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    available++;
+                    return;
+                }
+            }
+            next.complete(null);
+        }
+    }
+}
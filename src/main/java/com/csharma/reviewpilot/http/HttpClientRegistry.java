@@ -0,0 +1,135 @@
+package com.csharma.reviewpilot.http;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theokanning.openai.client.OpenAiApi;
+import com.theokanning.openai.service.OpenAiService;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+
+/**
+ * Owns the HTTP clients shared by every provider and agent, configured under {@code reviewpilot.http}.
+ * Providers and agents built through {@link java.util.ServiceLoader} use {@link #shared()}; callers
+ * that need different settings pass their own registry to the adapter constructors.
+ */
+public final class HttpClientRegistry {
+    private static volatile HttpClientRegistry shared;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Duration requestTimeout;
+    private final int maxConnectionsPerHost;
+    private final ExecutorService executor;
+    private final ConnectionPool openAiConnectionPool;
+    private final Dispatcher openAiDispatcher;
+    private final Map<String, OkHttpClient> openAiClients = new ConcurrentHashMap<>();
+    private final Map<String, OpenAiApi> asyncOpenAiApis = new ConcurrentHashMap<>();
+    private final InFlightLimiter openAiLimiter;
+
+    public HttpClientRegistry(Config config) {
+        Config http = config.getConfig("reviewpilot.http");
+        this.requestTimeout = http.getDuration("request-timeout");
+        this.maxConnectionsPerHost = http.getInt("max-connections-per-host");
+        int executorThreads = http.getInt("executor-threads");
+        this.executor = executorThreads > 0
+                ? Executors.newFixedThreadPool(executorThreads, daemonThreads())
+                : Executors.newCachedThreadPool(daemonThreads());
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(http.getBoolean("prefer-http2") ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(http.getDuration("connect-timeout"))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+        client = new HostLimitingHttpClient(client, maxConnectionsPerHost, requestTimeout);
+        Config rateLimit = http.getConfig("rate-limit");
+        if (rateLimit.getBoolean("enabled")) {
+            client = new RateLimitingHttpClient(client, new RateLimitScheduler(rateLimit.getInt("burst")),
+                    rateLimit.getInt("max-retries"), executor);
+        }
+        HttpResponseCache responseCache = HttpResponseCache.fromConfig(config);
+        this.httpClient = responseCache == null ? client : new CachingHttpClient(client, responseCache);
+
+        this.openAiConnectionPool = new ConnectionPool(maxConnectionsPerHost, 5, TimeUnit.MINUTES);
+        this.openAiDispatcher = new Dispatcher(executor);
+        this.openAiDispatcher.setMaxRequestsPerHost(maxConnectionsPerHost);
+        this.openAiLimiter = new InFlightLimiter(config.hasPath("reviewpilot.openai.max-in-flight")
+                ? config.getInt("reviewpilot.openai.max-in-flight") : maxConnectionsPerHost);
+    }
+
+    public static HttpClientRegistry shared() {
+        HttpClientRegistry registry = shared;
+        if (registry == null) {
+            synchronized (HttpClientRegistry.class) {
+                registry = shared;
+                if (registry == null) {
+                    registry = new HttpClientRegistry(ConfigFactory.load());
+                    shared = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    public HttpClient httpClient() {
+        return httpClient;
+    }
+
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Returns one {@link OpenAiApi} per API key and base URL, all sharing a single OkHttp connection pool and
+     * dispatcher so concurrent reviews reuse TLS connections. Calls are enqueued on the shared dispatcher: the
+     * returned {@code Single}s complete on dispatcher threads, so callers never block on a response.
+     */
+    public OpenAiApi asyncOpenAiApi(String apiKey, String baseUrl) {
+        return asyncOpenAiApis.computeIfAbsent(apiKey + "\u0000" + baseUrl, key -> {
+            OkHttpClient client = openAiClient(apiKey);
+            return new Retrofit.Builder()
+                    .baseUrl(baseUrl)
+                    .client(client)
+                    .addConverterFactory(JacksonConverterFactory.create(OpenAiService.defaultObjectMapper()))
+                    .addCallAdapterFactory(RxJava2CallAdapterFactory.createAsync())
+                    .build()
+                    .create(OpenAiApi.class);
+        });
+    }
+
+    /**
+     * Bounds the OpenAI requests in flight across all agents ({@code reviewpilot.openai.max-in-flight})
+     */
+    public InFlightLimiter openAiLimiter() {
+        return openAiLimiter;
+    }
+
+    private OkHttpClient openAiClient(String apiKey) {
+        return openAiClients.computeIfAbsent(apiKey, key -> OpenAiService.defaultClient(key, requestTimeout)
+                .newBuilder()
+                .connectionPool(openAiConnectionPool)
+                .dispatcher(openAiDispatcher)
+                .build());
+    }
+
+    private static ThreadFactory daemonThreads() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, "reviewpilot-http");
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
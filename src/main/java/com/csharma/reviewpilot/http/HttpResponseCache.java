@@ -0,0 +1,227 @@
+package com.csharma.reviewpilot.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Disk-backed store of response bodies together with their {@code ETag} and {@code Last-Modified}
+ * validators. Entries are evicted least-recently-used first once the total body size exceeds
+ * {@code maxBytes}; access order survives restarts through the body files' modification times.
+ */
+public final class HttpResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(HttpResponseCache.class);
+    private static final Map<Path, HttpResponseCache> OPEN_CACHES = new ConcurrentHashMap<>();
+    private static final String TEMP_PREFIX = "pending";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public record Entry(String key, String etag, String lastModified, long size, Path body) {}
+
+    public HttpResponseCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            loadIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open HTTP cache at " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the cache configured under {@code reviewpilot.http-cache}, or {@code null} when disabled.
+     * Providers pointed at the same directory share one instance so they share one size budget.
+     */
+    public static HttpResponseCache fromConfig(Config config) {
+        Config cacheConfig = config.getConfig("reviewpilot.http-cache");
+        if (!cacheConfig.getBoolean("enabled")) {
+            return null;
+        }
+        Path directory = Paths.get(cacheConfig.getString("directory")).toAbsolutePath().normalize();
+        long maxBytes = cacheConfig.getBytes("max-size");
+        return OPEN_CACHES.computeIfAbsent(directory, dir -> new HttpResponseCache(dir, maxBytes));
+    }
+
+    public static String keyFor(HttpRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.method().getBytes(StandardCharsets.UTF_8));
+            digest.update(request.uri().toString().getBytes(StandardCharsets.UTF_8));
+            // Credentials are part of the key so one token never sees another token's responses
+            for (String header : List.of("Accept", "Authorization", "PRIVATE-TOKEN")) {
+                digest.update((byte) 0);
+                digest.update(request.headers().firstValue(header).orElse("").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public synchronized Entry lookup(String key) {
+        Entry entry = index.get(key);
+        if (entry != null && !Files.exists(entry.body())) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Drop {@code entry} unless it has been replaced by a newer response meanwhile
+     */
+    public synchronized void invalidate(Entry entry) {
+        if (index.remove(entry.key(), entry)) {
+            totalBytes -= entry.size();
+            deleteFiles(entry.key());
+        }
+    }
+
+    public void touch(Entry entry) {
+        try {
+            Files.setLastModifiedTime(entry.body(), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("Failed to update access time for {}: {}", entry.body(), e.getMessage());
+        }
+    }
+
+    public Path newTempFile() throws IOException {
+        return Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+    }
+
+    public synchronized void commit(String key, String etag, String lastModified, Path tempBody) throws IOException {
+        Path body = directory.resolve(key + ".body");
+        Path meta = directory.resolve(key + ".meta");
+        Files.move(tempBody, body, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Properties properties = new Properties();
+        if (etag != null) {
+            properties.setProperty("etag", etag);
+        }
+        if (lastModified != null) {
+            properties.setProperty("last-modified", lastModified);
+        }
+        try (OutputStream out = Files.newOutputStream(meta)) {
+            properties.store(out, null);
+        }
+        Entry previous = index.remove(key);
+        if (previous != null) {
+            totalBytes -= previous.size();
+        }
+        Entry entry = new Entry(key, etag, lastModified, Files.size(body), body);
+        index.put(key, entry);
+        totalBytes += entry.size();
+        evict();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry entry = eldest.next().getValue();
+            eldest.remove();
+            totalBytes -= entry.size();
+            deleteFiles(entry.key());
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = index.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.size();
+        }
+        deleteFiles(key);
+    }
+
+    private void deleteFiles(String key) {
+        try {
+            Files.deleteIfExists(directory.resolve(key + ".body"));
+            Files.deleteIfExists(directory.resolve(key + ".meta"));
+        } catch (IOException e) {
+            logger.debug("Failed to delete cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        sweepTempFiles();
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path meta : (Iterable<Path>) files.filter(p -> p.toString().endsWith(".meta"))::iterator) {
+                String name = meta.getFileName().toString();
+                String key = name.substring(0, name.length() - ".meta".length());
+                Path body = directory.resolve(key + ".body");
+                if (!Files.exists(body)) {
+                    Files.deleteIfExists(meta);
+                    continue;
+                }
+                Properties properties = new Properties();
+                try (InputStream in = Files.newInputStream(meta)) {
+                    properties.load(in);
+                }
+                entries.add(new Entry(key, properties.getProperty("etag"), properties.getProperty("last-modified"),
+                        Files.size(body), body));
+            }
+        }
+        entries.sort(Comparator.comparing(entry -> lastModified(entry.body())));
+        for (Entry entry : entries) {
+            index.put(entry.key(), entry);
+            totalBytes += entry.size();
+        }
+        evict();
+    }
+
+    /**
+     * Delete bodies left half-written by a run that crashed; another process still writing one only
+     * loses that cache write
+     */
+    private void sweepTempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path temp : (Iterable<Path>) files.filter(HttpResponseCache::isTempFile)::iterator) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static boolean isTempFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX);
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.csharma.reviewpilot.http;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of asynchronous calls in flight without blocking the caller: calls over the limit
+ * wait in a FIFO queue and are started by whichever earlier call completes first.
+ */
+public final class InFlightLimiter {
+    private final int limit;
+    private final Semaphore permits;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    public InFlightLimiter(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        this.limit = limit;
+        this.permits = new Semaphore(limit);
+    }
+
+    /**
+     * Start {@code call} now if a slot is free, otherwise once one is. Returns immediately.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        waiting.add(() -> start(call, result));
+        drain();
+        return result;
+    }
+
+    public int inFlight() {
+        return limit - permits.availablePermits();
+    }
+
+    public int waiting() {
+        return waiting.size();
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> call, CompletableFuture<T> result) {
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> {
+            permits.release();
+            drain();
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                // Another thread took it between the check and the poll
+                permits.release();
+                return;
+            }
+            next.run();
+        }
+    }
+}
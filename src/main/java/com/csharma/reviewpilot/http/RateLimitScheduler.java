@@ -0,0 +1,157 @@
+package com.csharma.reviewpilot.http;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Paces outgoing calls per host and credential with a token bucket whose refill rate follows the
+ * server's advertised budget ({@code X-RateLimit-*}, {@code RateLimit-*}) and which is frozen until
+ * the advertised time when a response carries {@code Retry-After} or an exhausted budget.
+ */
+public final class RateLimitScheduler {
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    private final int burst;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimitScheduler(int burst) {
+        this.burst = burst;
+    }
+
+    /**
+     * Reserves a slot for {@code request} and returns how long the caller must wait before sending it.
+     */
+    public Duration reserve(HttpRequest request) {
+        return Duration.ofNanos(bucketFor(request).reserve(System.nanoTime()));
+    }
+
+    /**
+     * Feeds a response's rate-limit headers back into the bucket. Returns the delay before a retry
+     * when the response reports that the budget is exhausted.
+     */
+    public Optional<Duration> onResponse(HttpRequest request, int statusCode, HttpHeaders headers) {
+        Bucket bucket = bucketFor(request);
+        long now = System.nanoTime();
+        long nowMillis = System.currentTimeMillis();
+        OptionalLong remaining = firstLong(headers, "X-RateLimit-Remaining", "RateLimit-Remaining");
+        OptionalLong resetMillis = firstLong(headers, "X-RateLimit-Reset", "RateLimit-Reset")
+                .stream()
+                .map(reset -> reset > EPOCH_SECONDS_THRESHOLD ? reset * 1000 - nowMillis : reset * 1000)
+                .findFirst();
+        if (remaining.isPresent() && resetMillis.isPresent()) {
+            bucket.updateBudget(now, remaining.getAsLong(), Math.max(resetMillis.getAsLong(), 0));
+        }
+
+        Optional<Long> retryAfterMillis = retryAfterMillis(headers, nowMillis);
+        boolean throttled = statusCode == 429
+                || (statusCode == 403 && (retryAfterMillis.isPresent() || remaining.orElse(1) == 0));
+        if (!throttled) {
+            return Optional.empty();
+        }
+        long waitMillis = retryAfterMillis.orElseGet(() -> resetMillis.isPresent() ? resetMillis.getAsLong() : 1000L);
+        waitMillis = Math.max(waitMillis, 0);
+        bucket.blockFor(now, Duration.ofMillis(waitMillis).toNanos());
+        return Optional.of(Duration.ofMillis(waitMillis));
+    }
+
+    private Bucket bucketFor(HttpRequest request) {
+        String credential = request.headers().firstValue("Authorization")
+                .or(() -> request.headers().firstValue("PRIVATE-TOKEN"))
+                .orElse("");
+        String key = request.uri().getAuthority() + "#" + Integer.toHexString(credential.hashCode());
+        return buckets.computeIfAbsent(key, ignored -> new Bucket(burst));
+    }
+
+    private static OptionalLong firstLong(HttpHeaders headers, String... names) {
+        for (String name : names) {
+            Optional<String> value = headers.firstValue(name);
+            if (value.isPresent()) {
+                try {
+                    return OptionalLong.of(Long.parseLong(value.get().trim()));
+                } catch (NumberFormatException ignored) {}
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    private static Optional<Long> retryAfterMillis(HttpHeaders headers, long nowMillis) {
+        return headers.firstValue("Retry-After").flatMap(value -> {
+            try {
+                return Optional.of(Long.parseLong(value.trim()) * 1000);
+            } catch (NumberFormatException e) {
+                try {
+                    ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                    return Optional.of(at.toInstant().toEpochMilli() - nowMillis);
+                } catch (DateTimeParseException ignored) {
+                    return Optional.empty();
+                }
+            }
+        });
+    }
+
+    /**
+     * Reservation-style token bucket: tokens may go negative, and the deficit divided by the refill
+     * rate is the wait assigned to the reserving request, so queued callers are spaced evenly.
+     */
+    private static final class Bucket {
+        private final int capacity;
+        private double tokens;
+        private double tokensPerNano;
+        private long lastRefill;
+        private long blockedUntil;
+
+        private Bucket(int capacity) {
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.tokensPerNano = Double.POSITIVE_INFINITY;
+            this.lastRefill = System.nanoTime();
+            this.blockedUntil = lastRefill;
+        }
+
+        private synchronized long reserve(long now) {
+            refill(now);
+            tokens -= 1;
+            long wait = tokens >= 0 || tokensPerNano <= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+            return Math.max(wait, blockedUntil - now);
+        }
+
+        private synchronized void updateBudget(long now, long remaining, long resetMillis) {
+            refill(now);
+            long resetNanos = Math.max(Duration.ofMillis(resetMillis).toNanos(), 1);
+            tokensPerNano = Math.max(remaining, 0) / (double) resetNanos;
+            tokens = Math.min(tokens, Math.min(capacity, remaining));
+            if (remaining <= 0) {
+                blockedUntil = Math.max(blockedUntil, now + resetNanos);
+            }
+        }
+
+        private synchronized void blockFor(long now, long nanos) {
+            blockedUntil = Math.max(blockedUntil, now + nanos);
+            tokens = Math.min(tokens, 0);
+        }
+
+        private void refill(long now) {
+            if (tokensPerNano <= 0 && now >= blockedUntil) {
+                // The exhausted window has reset; pace freely until the next response reports a budget
+                tokensPerNano = Double.POSITIVE_INFINITY;
+            }
+            if (Double.isInfinite(tokensPerNano)) {
+                tokens = Math.max(tokens, capacity);
+            } else {
+                long from = Math.max(lastRefill, blockedUntil);
+                if (now > from) {
+                    tokens = Math.min(capacity, tokens + (now - from) * tokensPerNano);
+                }
+            }
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.csharma.reviewpilot.http;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends every request through a {@link RateLimitScheduler}: calls are delayed until their bucket
+ * has a slot, and throttled responses ({@code 429}, or {@code 403} with an exhausted budget) are
+ * retried after the advertised delay instead of failing the review.
+ */
+public final class RateLimitingHttpClient extends DelegatingHttpClient {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitingHttpClient.class);
+
+    private final RateLimitScheduler scheduler;
+    private final int maxRetries;
+    private final Executor executor;
+
+    public RateLimitingHttpClient(HttpClient delegate, RateLimitScheduler scheduler, int maxRetries, Executor executor) {
+        super(delegate);
+        this.scheduler = scheduler;
+        this.maxRetries = maxRetries;
+        this.executor = executor;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        return send(request, responseBodyHandler, pushPromiseHandler, 0);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                        HttpResponse.PushPromiseHandler<T> pushPromiseHandler, int attempt) {
+        boolean canRetry = attempt < maxRetries;
+        // A throttled body that will be retried is discarded rather than handed to the caller's handler
+        HttpResponse.BodyHandler<T> handler = info -> canRetry && isThrottled(info)
+                ? HttpResponse.BodySubscribers.replacing(null)
+                : responseBodyHandler.apply(info);
+        return after(scheduler.reserve(request))
+                .thenCompose(ignored -> delegate.sendAsync(request, handler, pushPromiseHandler))
+                .thenCompose(response -> {
+                    Optional<Duration> retryAfter = scheduler.onResponse(request, response.statusCode(), response.headers());
+                    if (retryAfter.isEmpty() || !canRetry) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    logger.warn("Rate limited by {} (HTTP {}), retrying in {} ms",
+                            request.uri().getHost(), response.statusCode(), retryAfter.get().toMillis());
+                    return send(request, responseBodyHandler, pushPromiseHandler, attempt + 1);
+                });
+    }
+
+    private static boolean isThrottled(HttpResponse.ResponseInfo info) {
+        if (info.statusCode() == 429) {
+            return true;
+        }
+        return info.statusCode() == 403
+                && (info.headers().firstValue("Retry-After").isPresent()
+                    || info.headers().firstValue("X-RateLimit-Remaining").filter("0"::equals).isPresent()
+                    || info.headers().firstValue("RateLimit-Remaining").filter("0"::equals).isPresent());
+    }
+
+    private CompletableFuture<Void> after(Duration delay) {
+        if (delay.isZero() || delay.isNegative()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS, executor));
+    }
+}
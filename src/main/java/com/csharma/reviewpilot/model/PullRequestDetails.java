@@ -1,14 +1,18 @@
 package com.csharma.reviewpilot.model;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 public class PullRequestDetails {
+    private static final String FILE_HEADER = "diff --git ";
+
     private final String title;
     private final String description;
     private final List<String> changedFiles;
-    private final String diff;
+    private final CharSequence diff;
 
-    public PullRequestDetails(String title, String description, List<String> changedFiles, String diff) {
+    public PullRequestDetails(String title, String description, List<String> changedFiles, CharSequence diff) {
         this.title = title;
         this.description = description;
         this.changedFiles = changedFiles;
@@ -18,5 +22,58 @@ public class PullRequestDetails {
     public String getTitle() { return title; }
     public String getDescription() { return description; }
     public List<String> getChangedFiles() { return changedFiles; }
-    public String getDiff() { return diff; }
-} 
\ No newline at end of file
+    public String getDiff() { return diff.toString(); }
+
+    /**
+     * Returns the diff without copying it; large diffs are backed by a memory-mapped file.
+     */
+    public CharSequence getDiffContent() { return diff; }
+
+    /**
+     * Iterates the diff one file section ({@code diff --git ...}) at a time as views over the
+     * underlying content. A diff without file headers is returned as a single section.
+     */
+    public Iterable<CharSequence> getFileDiffs() {
+        return () -> new Iterator<>() {
+            private int start = 0;
+
+            @Override
+            public boolean hasNext() {
+                return start < diff.length();
+            }
+
+            @Override
+            public CharSequence next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int end = nextFileHeader(start + 1);
+                CharSequence section = diff.subSequence(start, end);
+                start = end;
+                return section;
+            }
+        };
+    }
+
+    private int nextFileHeader(int from) {
+        int length = diff.length();
+        for (int i = Math.max(from, 1); i < length; i++) {
+            if (diff.charAt(i - 1) == '\n' && regionMatches(i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private boolean regionMatches(int offset) {
+        if (offset + FILE_HEADER.length() > diff.length()) {
+            return false;
+        }
+        for (int i = 0; i < FILE_HEADER.length(); i++) {
+            if (diff.charAt(offset + i) != FILE_HEADER.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -3,6 +3,8 @@ package com.csharma.reviewpilot.service;
 import com.csharma.reviewpilot.adapter.provider.PullRequestProvider;
 import com.csharma.reviewpilot.adapter.agent.CodeReviewAgent;
 import com.csharma.reviewpilot.model.PullRequestDetails;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class ReviewOrchestrator {
     private final PullRequestProvider prProvider;
@@ -17,4 +19,18 @@ public class ReviewOrchestrator {
         PullRequestDetails prDetails = prProvider.fetchPullRequestDetails(repoOwner, repoName, prNumber, authToken);
         return reviewAgent.reviewPullRequest(prDetails);
     }
+
+    /**
+     * Fetches on a virtual thread and submits the review without blocking, so many pull requests can
+     * be reviewed at once; the agent bounds how many of its requests are in flight.
+     */
+    public CompletableFuture<String> runReviewAsync(String repoOwner, String repoName, String prNumber, String authToken) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return prProvider.fetchPullRequestDetails(repoOwner, repoName, prNumber, authToken);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, task -> Thread.ofVirtual().start(task)).thenCompose(reviewAgent::reviewPullRequestAsync);
+    }
 } 
\ No newline at end of file
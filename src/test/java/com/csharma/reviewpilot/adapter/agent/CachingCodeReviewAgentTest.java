@@ -0,0 +1,94 @@
+package com.csharma.reviewpilot.adapter.agent;
+
+import com.csharma.reviewpilot.model.PullRequestDetails;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CachingCodeReviewAgentTest {
+    private static final PullRequestDetails PR =
+        new PullRequestDetails("Title", "Desc", List.of("A.java"), "diff --git a/A.java b/A.java\n+class A {}\n");
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void testRepeatedReviewIsServedFromMemoryThenDisk() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CodeReviewAgent agent = pr -> "Review " + calls.incrementAndGet();
+
+        CachingCodeReviewAgent cached = new CachingCodeReviewAgent(agent, new ResponseCache(cacheDir, 1 << 20, 16, Duration.ofDays(1)));
+        assertEquals("Review 1", cached.reviewPullRequest(PR));
+        assertEquals("Review 1", cached.reviewPullRequest(PR));
+
+        // A new process opening the same directory starts with an empty memory tier
+        CachingCodeReviewAgent reopened = new CachingCodeReviewAgent(agent, new ResponseCache(cacheDir, 1 << 20, 16, Duration.ofDays(1)));
+        assertEquals("Review 1", reopened.reviewPullRequest(PR));
+
+        assertEquals(1, calls.get());
+        assertEquals(new ResponseCache.Stats(1, 0, 1, 8), cached.stats());
+        assertEquals(new ResponseCache.Stats(0, 1, 0, 8), reopened.stats());
+    }
+
+    @Test
+    void testDifferentContentOrFingerprintMisses() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        ResponseCache cache = new ResponseCache(cacheDir, 1 << 20, 16, Duration.ofDays(1));
+        CodeReviewAgent agent = new CodeReviewAgent() {
+            @Override
+            public String reviewPullRequest(PullRequestDetails prDetails) {
+                return "Review " + calls.incrementAndGet();
+            }
+
+            @Override
+            public String fingerprint() {
+                return "gpt-4o|0.2";
+            }
+        };
+        CodeReviewAgent otherModel = pr -> "Other " + calls.incrementAndGet();
+
+        new CachingCodeReviewAgent(agent, cache).reviewPullRequest(PR);
+        new CachingCodeReviewAgent(agent, cache).reviewPullRequest(
+            new PullRequestDetails("Title", "Desc", List.of("A.java"), "diff --git a/A.java b/A.java\n+class B {}\n"));
+        assertEquals("Other 3", new CachingCodeReviewAgent(otherModel, cache).reviewPullRequest(PR));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testExpiredAndEvictedEntriesAreRegenerated() throws Exception {
+        ResponseCache expiring = new ResponseCache(cacheDir.resolve("ttl"), 1 << 20, 16, Duration.ofMillis(1));
+        expiring.put("k", "value");
+        Thread.sleep(5);
+        assertNull(expiring.get("k"));
+
+        ResponseCache small = new ResponseCache(cacheDir.resolve("lru"), 40, 1, Duration.ofDays(1));
+        small.put("a", "0123456789");
+        small.put("b", "0123456789");
+        small.put("c", "0123456789");
+        // Each entry is about 24 bytes on disk, so only the most recent one fits
+        assertNull(small.get("a"));
+        assertNull(small.get("b"));
+        assertEquals("0123456789", small.get("c"));
+        assertTrue(small.diskBytes() <= 40);
+    }
+
+    @Test
+    void testDiskHitsMoveEntriesToTheRecentEnd() {
+        // Two entries of about 24 bytes fit; only one is kept in memory, so reading "a" is a disk hit
+        ResponseCache cache = new ResponseCache(cacheDir, 50, 1, Duration.ofDays(1));
+        cache.put("a", "0123456789");
+        cache.put("b", "0123456789");
+        assertEquals("0123456789", cache.get("a"));
+
+        cache.put("c", "0123456789");
+
+        assertNull(cache.get("b"));
+        assertEquals("0123456789", cache.get("a"));
+        assertEquals("0123456789", cache.get("c"));
+        assertEquals(new ResponseCache.Stats(0, 3, 1, 30), cache.stats());
+    }
+}
@@ -0,0 +1,97 @@
+package com.csharma.reviewpilot.adapter.agent;
+
+import com.csharma.reviewpilot.exception.AgentException;
+import com.csharma.reviewpilot.http.HttpClientRegistry;
+import com.csharma.reviewpilot.model.PullRequestDetails;
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ChatGPTAgentTest {
+    private HttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/v1/chat/completions", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            requests.add(body);
+            try {
+                Thread.sleep(150);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String title = body.replaceAll("(?s).*Title: (PR \\d+).*", "$1");
+            byte[] response = ("{\"id\":\"c\",\"object\":\"chat.completion\",\"created\":0,\"model\":\"gpt-3.5-turbo\","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\" Review of " + title + " \"},"
+                + "\"finish_reason\":\"stop\"}]}").getBytes(StandardCharsets.UTF_8);
+            inFlight.decrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void testConcurrentReviewsAreBoundedByMaxInFlight() {
+        ChatGPTAgent agent = agent(2);
+
+        List<CompletableFuture<String>> reviews = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            reviews.add(agent.reviewPullRequestAsync(pr("PR " + i)));
+        }
+
+        for (int i = 0; i < 6; i++) {
+            assertEquals("Review of PR " + i, reviews.get(i).join());
+        }
+        assertEquals(2, maxInFlight.get());
+        assertTrue(requests.get(0).contains("\"messages\":[{\"role\":\"system\""), requests.get(0));
+        assertTrue(requests.get(0).contains("\"model\":\"gpt-3.5-turbo\""), requests.get(0));
+    }
+
+    @Test
+    void testApiErrorsSurfaceAsAgentException() {
+        status = 500;
+
+        assertThrows(AgentException.class, () -> agent(2).reviewPullRequest(pr("PR 1")));
+    }
+
+    private ChatGPTAgent agent(int maxInFlight) {
+        Config config = ConfigFactory.parseString(
+                "reviewpilot.openai.api-key = test\n"
+                + "reviewpilot.openai.api-url = \"http://localhost:" + server.getAddress().getPort() + "/\"\n"
+                + "reviewpilot.openai.max-in-flight = " + maxInFlight + "\n"
+                + "reviewpilot.http-cache.enabled = false\n")
+            .withFallback(ConfigFactory.load());
+        return new ChatGPTAgent(null, new HttpClientRegistry(config), config);
+    }
+
+    private static PullRequestDetails pr(String title) {
+        return new PullRequestDetails(title, "Desc", List.of("A.java"), "diff --git a/A.java b/A.java\n+class A {}\n");
+    }
+}
@@ -0,0 +1,91 @@
+package com.csharma.reviewpilot.adapter.provider;
+
+import com.csharma.reviewpilot.exception.ProviderException;
+import com.csharma.reviewpilot.model.PullRequestDetails;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class LocalGitPullRequestProviderTest {
+    @TempDir
+    Path repo;
+
+    @BeforeEach
+    void createRepository() throws Exception {
+        assumeTrue(git("--version"), "git is not installed");
+        git("init", "-q", "-b", "main");
+        Files.writeString(repo.resolve("A.java"), "class A {}\n");
+        Files.writeString(repo.resolve("B.java"), "class B {}\n");
+        git("add", ".");
+        git("commit", "-q", "-m", "Initial");
+        git("checkout", "-q", "-b", "feature");
+        Files.writeString(repo.resolve("A.java"), "class A { int x; }\n");
+        Files.delete(repo.resolve("B.java"));
+        Files.writeString(repo.resolve("C.java"), "class C {}\n");
+        git("add", "-A");
+        git("commit", "-q", "-m", "Add C\n\nAlso drops B.");
+    }
+
+    private boolean git(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of("git", "-c", "user.name=Test", "-c", "user.email=test@example.com"));
+        command.addAll(List.of(args));
+        try {
+            return new ProcessBuilder(command).directory(repo.toFile()).inheritIO().start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private LocalGitPullRequestProvider provider() {
+        Config config = ConfigFactory.parseMap(Map.of("reviewpilot.local.repository", repo.toString(),
+                "reviewpilot.local.base-ref", "main"))
+            .withFallback(ConfigFactory.load());
+        return new LocalGitPullRequestProvider(config);
+    }
+
+    @Test
+    void testDiffsRangeFromLocalClone() throws Exception {
+        PullRequestDetails details = provider().fetchPullRequestDetails("-", "-", "main...feature", null);
+
+        assertEquals("Add C", details.getTitle());
+        assertEquals("Also drops B.", details.getDescription());
+        assertEquals(List.of("A.java", "B.java", "C.java"), details.getChangedFiles());
+        assertTrue(details.getDiff().contains("+class A { int x; }"));
+        assertTrue(details.getDiff().contains("deleted file mode"));
+    }
+
+    @Test
+    void testBareRefIsComparedWithBaseRef() throws Exception {
+        PullRequestDetails details = provider().fetchPullRequestDetails("-", "-", "feature", null);
+
+        assertEquals(List.of("A.java", "B.java", "C.java"), details.getChangedFiles());
+    }
+
+    @Test
+    void testUnknownRefSurfacesProviderException() {
+        ProviderException e = assertThrows(ProviderException.class, () ->
+            provider().fetchPullRequestDetails("-", "-", "main...missing", null));
+        assertTrue(e.getMessage().startsWith("git "));
+    }
+
+    @Test
+    void testRevisionsThatLookLikeOptionsAreRejected() {
+        Path output = repo.resolve("leaked.txt");
+        for (String range : List.of("--output=" + output, "main...--output=" + output, "-p..feature")) {
+            ProviderException e = assertThrows(ProviderException.class, () ->
+                provider().fetchPullRequestDetails("-", "-", range, null));
+            assertEquals("Invalid revision range: " + range, e.getMessage());
+        }
+        assertFalse(Files.exists(output));
+    }
+}
@@ -0,0 +1,94 @@
+package com.csharma.reviewpilot.adapter.provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the old {@code readTree} path with {@link JsonStreams} on a GitLab-style {@code /changes}
+ * payload, where every entry carries a full patch that only the tree path has to materialise.
+ * Not run by Surefire; start it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.csharma.reviewpilot.adapter.provider.ProviderJsonBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ProviderJsonBenchmark {
+    private static final Set<String> CHANGE_FIELDS = Set.of("new_path");
+
+    @Param({"500", "5000"})
+    public int files;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = objectMapper.getFactory();
+    private byte[] payload;
+
+    @Setup
+    public void createPayload() throws IOException {
+        String patch = "@@ -1,40 +1,40 @@\n" + " unchanged context line of a reasonably long source file\n".repeat(20)
+                + "-removed line\n+added line with \"quotes\" and unicode é\n".repeat(20);
+        List<Object> changes = new ArrayList<>();
+        for (int i = 0; i < files; i++) {
+            String path = "src/main/java/com/example/module" + (i % 50) + "/File" + i + ".java";
+            changes.add(Map.of("old_path", path, "new_path", path, "new_file", false,
+                    "a_mode", "100644", "b_mode", "100644", "diff", patch));
+        }
+        payload = objectMapper.writeValueAsString(Map.of("id", 1, "title", "Benchmark", "changes", changes))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<String> readTree() throws IOException {
+        List<String> paths = new ArrayList<>();
+        JsonNode root = objectMapper.readTree(new String(payload, StandardCharsets.UTF_8));
+        for (JsonNode change : root.get("changes")) {
+            paths.add(change.get("new_path").asText());
+        }
+        return paths;
+    }
+
+    @Benchmark
+    public List<String> streaming() throws IOException {
+        List<String> paths = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(new ByteArrayInputStream(payload))) {
+            JsonStreams.forEachField(parser, (name, value) -> {
+                if (name.equals("changes")) {
+                    JsonStreams.forEachElement(value, change -> paths.add(JsonStreams.readFields(change, CHANGE_FIELDS).get("new_path")));
+                } else {
+                    value.skipChildren();
+                }
+            });
+        }
+        return paths;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProviderJsonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,272 @@
+package com.csharma.reviewpilot.adapter.provider;
+
+import com.csharma.reviewpilot.exception.ProviderException;
+import com.csharma.reviewpilot.http.HttpClientRegistry;
+import com.csharma.reviewpilot.model.PullRequestDetails;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+class PullRequestProviderTest {
+    private HttpServer server;
+    private String baseUrl;
+    private final Map<String, StubResponse> routes = new ConcurrentHashMap<>();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final Set<String> throttleOnce = ConcurrentHashMap.newKeySet();
+    // Simulates eviction racing a revalidation: cached bodies are deleted just before a 304 is sent
+    private volatile Path evictBeforeNotModified;
+
+    record StubResponse(int status, Map<String, String> headers, String body) {}
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String key = exchange.getRequestURI().toString();
+        if (throttleOnce.remove(key)) {
+            exchange.getResponseHeaders().add("Retry-After", "0");
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+            return;
+        }
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        StubResponse response = routes.getOrDefault(key + "#" + accept, routes.get(key));
+        if (response == null) {
+            response = new StubResponse(404, Map.of(), "{\"message\":\"Not Found\"}");
+        }
+        String etag = response.headers().get("ETag");
+        if (etag != null && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            if (evictBeforeNotModified != null) {
+                try (Stream<Path> files = Files.list(evictBeforeNotModified)) {
+                    for (Path body : (Iterable<Path>) files.filter(p -> p.toString().endsWith(".body"))::iterator) {
+                        Files.delete(body);
+                    }
+                }
+            }
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        response.headers().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Config config(String key) {
+        return ConfigFactory.parseMap(Map.of(key, baseUrl, "reviewpilot.http-cache.enabled", false))
+            .withFallback(ConfigFactory.load());
+    }
+
+    /** Provider pointed at the stub server, with its own uncached clients rather than the shared ones */
+    private <P> P provider(BiFunction<Config, HttpClientRegistry, P> constructor, String key) {
+        Config config = config(key);
+        return constructor.apply(config, new HttpClientRegistry(config));
+    }
+
+    @Test
+    void testGitHubFetchesEveryFilesPage() throws Exception {
+        String pr = "/o/r/pulls/7";
+        routes.put(pr + "#application/vnd.github+json", new StubResponse(200, Map.of(), "{\"title\":\"T\",\"body\":\"B\"}"));
+        routes.put(pr + "#application/vnd.github.v3.diff", new StubResponse(200, Map.of(), "diff --git a/A b/A\n"));
+        routes.put(pr + "/files?per_page=100&page=1", new StubResponse(200,
+            Map.of("Link", "<" + baseUrl + pr + "/files?per_page=100&page=2>; rel=\"next\", <" + baseUrl + pr + "/files?per_page=100&page=3>; rel=\"last\""),
+            "[{\"filename\":\"A\"}]"));
+        routes.put(pr + "/files?per_page=100&page=2", new StubResponse(200, Map.of(), "[{\"filename\":\"B\"}]"));
+        routes.put(pr + "/files?per_page=100&page=3", new StubResponse(200, Map.of(), "[{\"filename\":\"C\"}]"));
+
+        PullRequestDetails details = provider(GitHubPullRequestProvider::new, "reviewpilot.github.api-url")
+            .fetchPullRequestDetails("o", "r", "7", "token");
+
+        assertEquals("T", details.getTitle());
+        assertEquals(List.of("A", "B", "C"), details.getChangedFiles());
+        assertEquals("diff --git a/A b/A\n", details.getDiff());
+    }
+
+    @Test
+    void testConcurrentPagesDoNotStarveSingleThreadedClientExecutor() {
+        String pr = "/o/r/pulls/8";
+        routes.put(pr + "#application/vnd.github+json", new StubResponse(200, Map.of(), "{\"title\":\"T\",\"body\":\"B\"}"));
+        routes.put(pr + "#application/vnd.github.v3.diff", new StubResponse(200, Map.of(), "diff --git a/A b/A\n"));
+        routes.put(pr + "/files?per_page=100&page=1", new StubResponse(200,
+            Map.of("Link", "<" + baseUrl + pr + "/files?per_page=100&page=4>; rel=\"last\""), "[{\"filename\":\"A\"}]"));
+        for (int page = 2; page <= 4; page++) {
+            routes.put(pr + "/files?per_page=100&page=" + page, new StubResponse(200, Map.of(), "[{\"filename\":\"" + page + "\"}]"));
+        }
+        Config config = ConfigFactory.parseMap(Map.of("reviewpilot.http.executor-threads", 1))
+            .withFallback(config("reviewpilot.github.api-url"));
+        GitHubPullRequestProvider provider = new GitHubPullRequestProvider(config, new HttpClientRegistry(config));
+
+        PullRequestDetails details = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> provider.fetchPullRequestDetails("o", "r", "8", "token"));
+
+        assertEquals(List.of("A", "2", "3", "4"), details.getChangedFiles());
+    }
+
+    @Test
+    void testBitbucketFollowsNextLinks() throws Exception {
+        String pr = "/o/r/pullrequests/3";
+        routes.put(pr, new StubResponse(200, Map.of(), "{\"title\":\"T\",\"description\":\"D\"}"));
+        routes.put(pr + "/diff", new StubResponse(200, Map.of(), "diff"));
+        routes.put(pr + "/diffstat?pagelen=500&page=1", new StubResponse(200, Map.of(),
+            "{\"values\":[{\"new\":{\"path\":\"A\"}}],\"next\":\"" + baseUrl + pr + "/diffstat?cursor=2\"}"));
+        routes.put(pr + "/diffstat?cursor=2", new StubResponse(200, Map.of(),
+            "{\"values\":[{\"new\":null,\"old\":{\"path\":\"B\"}}]}"));
+
+        PullRequestDetails details = provider(BitbucketPullRequestProvider::new, "reviewpilot.bitbucket.api-url")
+            .fetchPullRequestDetails("o", "r", "3", "token");
+
+        assertEquals(List.of("A", "B"), details.getChangedFiles());
+    }
+
+    @Test
+    void testGitLabBuildsFilesAndDiffFromDiffsPages() throws Exception {
+        String mr = "/o%2Fr/merge_requests/2";
+        routes.put(mr, new StubResponse(200, Map.of(), "{\"title\":\"T\",\"description\":null,\"changes_count\":\"2\"}"));
+        routes.put(mr + "/diffs?per_page=100&page=1", new StubResponse(200, Map.of("X-Total-Pages", "2"),
+            "[{\"old_path\":\"A\",\"new_path\":\"A\",\"diff\":\"@@ -1 +1 @@\\n-a\\n+b\\n\"}]"));
+        routes.put(mr + "/diffs?per_page=100&page=2", new StubResponse(200, Map.of(),
+            "[{\"old_path\":\"B\",\"new_path\":\"B\",\"new_file\":true,\"diff\":\"\",\"too_large\":true}]"));
+        routes.put(mr + "/changes?access_raw_diffs=true", new StubResponse(200, Map.of(),
+            "{\"changes\":[{\"old_path\":\"A\",\"new_path\":\"A\",\"diff\":\"@@ -1 +1 @@\\n-a\\n+b\\n\"},"
+                + "{\"old_path\":\"B\",\"new_path\":\"B\",\"new_file\":true,\"diff\":\"@@ -0,0 +1 @@\\n+c\\n\"}]}"));
+
+        PullRequestDetails details = provider(GitLabPullRequestProvider::new, "reviewpilot.gitlab.api-url")
+            .fetchPullRequestDetails("o", "r", "2", "token");
+
+        assertEquals("", details.getDescription());
+        assertEquals(List.of("A", "B"), details.getChangedFiles());
+        assertEquals("diff --git a/A b/A\n--- a/A\n+++ b/A\n@@ -1 +1 @@\n-a\n+b\n"
+            + "diff --git a/B b/B\n--- /dev/null\n+++ b/B\n@@ -0,0 +1 @@\n+c\n", details.getDiff());
+    }
+
+    @Test
+    void testGitLabAppendsDiffsPagesInPageOrderWithoutChanges() throws Exception {
+        String mr = "/o%2Fr/merge_requests/3";
+        routes.put(mr, new StubResponse(200, Map.of(), "{\"title\":\"T\",\"description\":\"D\",\"changes_count\":\"3\"}"));
+        for (int page = 1; page <= 3; page++) {
+            String path = "F" + page;
+            routes.put(mr + "/diffs?per_page=100&page=" + page, new StubResponse(200, Map.of("X-Total-Pages", "3"),
+                "[{\"old_path\":\"" + path + "\",\"new_path\":\"" + path + "\",\"diff\":\"@@ -1 +1 @@\\n-a\\n+" + page + "\"}]"));
+        }
+
+        PullRequestDetails details = provider(GitLabPullRequestProvider::new, "reviewpilot.gitlab.api-url")
+            .fetchPullRequestDetails("o", "r", "3", "token");
+
+        assertEquals(List.of("F1", "F2", "F3"), details.getChangedFiles());
+        assertEquals("diff --git a/F1 b/F1\n--- a/F1\n+++ b/F1\n@@ -1 +1 @@\n-a\n+1\n"
+            + "diff --git a/F2 b/F2\n--- a/F2\n+++ b/F2\n@@ -1 +1 @@\n-a\n+2\n"
+            + "diff --git a/F3 b/F3\n--- a/F3\n+++ b/F3\n@@ -1 +1 @@\n-a\n+3\n", details.getDiff());
+    }
+
+    @Test
+    void testThrottledCallIsRetriedAfterRetryAfter() throws Exception {
+        String pr = "/o/r/pullrequests/5";
+        routes.put(pr, new StubResponse(200, Map.of(), "{\"title\":\"T\",\"description\":\"D\"}"));
+        routes.put(pr + "/diff", new StubResponse(200, Map.of(), "diff"));
+        routes.put(pr + "/diffstat?pagelen=500&page=1", new StubResponse(200,
+            Map.of("X-RateLimit-Remaining", "50", "X-RateLimit-Reset", "60"), "{\"values\":[{\"new\":{\"path\":\"A\"}}]}"));
+        throttleOnce.add(pr + "/diffstat?pagelen=500&page=1");
+
+        PullRequestDetails details = provider(BitbucketPullRequestProvider::new, "reviewpilot.bitbucket.api-url")
+            .fetchPullRequestDetails("o", "r", "5", "token");
+
+        assertEquals(List.of("A"), details.getChangedFiles());
+        assertTrue(throttleOnce.isEmpty());
+    }
+
+    @Test
+    void testFailedCallSurfacesProviderException() {
+        String pr = "/o/r/pulls/9";
+        routes.put(pr + "#application/vnd.github+json", new StubResponse(200, Map.of(), "{\"title\":\"T\",\"body\":\"B\"}"));
+        routes.put(pr + "/files?per_page=100&page=1", new StubResponse(200, Map.of(), "[]"));
+        routes.put(pr + "#application/vnd.github.v3.diff", new StubResponse(500, Map.of(), "boom"));
+
+        ProviderException e = assertThrows(ProviderException.class, () ->
+            provider(GitHubPullRequestProvider::new, "reviewpilot.github.api-url").fetchPullRequestDetails("o", "r", "9", "token"));
+        assertEquals("Failed to fetch PR diff: boom", e.getMessage());
+    }
+
+    @Test
+    void testUnchangedResponsesAreServedFromHttpCache(@TempDir Path cacheDir) throws Exception {
+        String pr = "/o/r/pullrequests/4";
+        routes.put(pr, new StubResponse(200, Map.of("ETag", "\"m1\""), "{\"title\":\"T\",\"description\":\"D\"}"));
+        routes.put(pr + "/diff", new StubResponse(200, Map.of("ETag", "\"d1\""), "diff --git a/A b/A\n+x\n"));
+        routes.put(pr + "/diffstat?pagelen=500&page=1", new StubResponse(200, Map.of("ETag", "\"f1\""),
+            "{\"values\":[{\"new\":{\"path\":\"A\"}}]}"));
+        Config config = ConfigFactory.parseMap(Map.of(
+                "reviewpilot.bitbucket.api-url", baseUrl,
+                "reviewpilot.http-cache.enabled", true,
+                "reviewpilot.http-cache.directory", cacheDir.toString()))
+            .withFallback(ConfigFactory.load());
+        BitbucketPullRequestProvider provider = new BitbucketPullRequestProvider(config, new HttpClientRegistry(config));
+
+        PullRequestDetails first = provider.fetchPullRequestDetails("o", "r", "4", "token");
+        PullRequestDetails second = provider.fetchPullRequestDetails("o", "r", "4", "token");
+
+        assertEquals(3, notModified.get());
+        assertEquals(first.getTitle(), second.getTitle());
+        assertEquals(first.getChangedFiles(), second.getChangedFiles());
+        assertEquals("diff --git a/A b/A\n+x\n", second.getDiff());
+    }
+
+    @Test
+    void testEvictedEntryIsRefetchedWhenServerSaysNotModified(@TempDir Path cacheDir) throws Exception {
+        String pr = "/o/r/pullrequests/5";
+        routes.put(pr, new StubResponse(200, Map.of("ETag", "\"m1\""), "{\"title\":\"T\",\"description\":\"D\"}"));
+        routes.put(pr + "/diff", new StubResponse(200, Map.of("ETag", "\"d1\""), "diff --git a/A b/A\n+x\n"));
+        routes.put(pr + "/diffstat?pagelen=500&page=1", new StubResponse(200, Map.of("ETag", "\"f1\""),
+            "{\"values\":[{\"new\":{\"path\":\"A\"}}]}"));
+        Files.writeString(Files.createDirectories(cacheDir).resolve("pending123.tmp"), "left by a crashed run");
+        Config config = ConfigFactory.parseMap(Map.of(
+                "reviewpilot.bitbucket.api-url", baseUrl,
+                "reviewpilot.http-cache.enabled", true,
+                "reviewpilot.http-cache.directory", cacheDir.toString()))
+            .withFallback(ConfigFactory.load());
+        BitbucketPullRequestProvider provider = new BitbucketPullRequestProvider(config, new HttpClientRegistry(config));
+        assertFalse(Files.exists(cacheDir.resolve("pending123.tmp")));
+        provider.fetchPullRequestDetails("o", "r", "5", "token");
+
+        evictBeforeNotModified = cacheDir;
+        PullRequestDetails second = provider.fetchPullRequestDetails("o", "r", "5", "token");
+
+        // The first 304 deletes every body, so later lookups may already miss and not revalidate
+        assertTrue(notModified.get() >= 1);
+        assertEquals("T", second.getTitle());
+        assertEquals(List.of("A"), second.getChangedFiles());
+        assertEquals("diff --git a/A b/A\n+x\n", second.getDiff());
+    }
+}
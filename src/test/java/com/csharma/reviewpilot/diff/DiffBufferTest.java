@@ -0,0 +1,54 @@
+package com.csharma.reviewpilot.diff;
+
+import com.csharma.reviewpilot.model.PullRequestDetails;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+class DiffBufferTest {
+    private static final String DIFF =
+        "diff --git a/A.java b/A.java\n+class A {} // é中\n" +
+        "diff --git a/B.java b/B.java\n-class B {}\n";
+
+    @Test
+    void testSmallDiffStaysOnHeap() throws Exception {
+        CharSequence diff = DiffBuffer.read(new ByteArrayInputStream(DIFF.getBytes(StandardCharsets.UTF_8)), 1024);
+        assertInstanceOf(String.class, diff);
+        assertEquals(DIFF, diff.toString());
+    }
+
+    @Test
+    void testLargeDiffIsSpilledAndMapped() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            expected.append(DIFF);
+        }
+        byte[] bytes = expected.toString().getBytes(StandardCharsets.UTF_8);
+        DiffBuffer buffer = new DiffBuffer(4096);
+        // Feed odd-sized chunks so multi-byte characters straddle buffer boundaries
+        for (int offset = 0; offset < bytes.length; offset += 7) {
+            buffer.write(ByteBuffer.wrap(bytes, offset, Math.min(7, bytes.length - offset)));
+        }
+        CharSequence diff = buffer.finish();
+        assertInstanceOf(CharBuffer.class, diff);
+        assertEquals(expected.toString(), diff.toString());
+    }
+
+    @Test
+    void testFileDiffsSplitsOnFileHeaders() throws Exception {
+        CharSequence diff = DiffBuffer.read(new ByteArrayInputStream(DIFF.getBytes(StandardCharsets.UTF_8)), 0);
+        PullRequestDetails details = new PullRequestDetails("t", "d", List.of("A.java", "B.java"), diff);
+        List<String> sections = new ArrayList<>();
+        for (CharSequence section : details.getFileDiffs()) {
+            sections.add(section.toString());
+        }
+        assertEquals(2, sections.size());
+        assertTrue(sections.get(0).startsWith("diff --git a/A.java"));
+        assertTrue(sections.get(1).startsWith("diff --git a/B.java"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.csharma.reviewpilot.prompt;
+
+import com.csharma.reviewpilot.model.PullRequestDetails;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class PromptTemplateTest {
+    private static final String TEMPLATE = "Title: {{title}}\nDescription: {{description}}\nChanged Files: {{changedFiles}}\nDiff: {{diff}}\n";
+
+    @Test
+    void testRendersPullRequestPlaceholders() {
+        PullRequestDetails pr = new PullRequestDetails("Fix bug", "Fixes NPE", List.of("A.java", "B.java"), "+ a\n- b\n");
+        assertEquals("Title: Fix bug\nDescription: Fixes NPE\nChanged Files: [A.java, B.java]\nDiff: + a\n- b\n\n",
+            PromptTemplate.compile(TEMPLATE).render(pr));
+        assertSame(PromptTemplate.compile(TEMPLATE), PromptTemplate.compile(TEMPLATE));
+        assertEquals(List.of("title", "description", "changedFiles", "diff"), PromptTemplate.compile(TEMPLATE).placeholders());
+    }
+
+    @Test
+    void testSubstitutedValuesAreNotRescanned() {
+        PullRequestDetails pr = new PullRequestDetails("{{diff}}", "mentions {{title}}", List.of(), "+ String s = \"{{title}}\";\n");
+        assertEquals("Title: {{diff}}\nDescription: mentions {{title}}\nChanged Files: []\nDiff: + String s = \"{{title}}\";\n\n",
+            PromptTemplate.compile(TEMPLATE).render(pr));
+    }
+
+    @Test
+    void testUnknownPlaceholdersAndWriterOutput() throws Exception {
+        PromptTemplate template = PromptTemplate.compile("{{greeting}}, {{name}}! {{ not a name }} {{unset}}{{");
+        Map<String, CharSequence> values = new HashMap<>();
+        values.put("greeting", "Hello");
+        values.put("name", new StringBuilder("world"));
+        values.put("unset", null);
+
+        String rendered = template.render(values);
+        assertEquals("Hello, world! {{ not a name }} {{", rendered);
+        StringWriter writer = new StringWriter();
+        template.renderTo(writer, values);
+        assertEquals(rendered, writer.toString());
+        assertEquals("{{greeting}}, world! {{ not a name }} {{", template.render(Map.of("name", "world", "unset", "")));
+    }
+}